@@ -3,12 +3,14 @@ package com.example.learnworkagent;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 学工智能体系统主应用
  */
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class LearnWorkAgentApplication {
 
     public static void main(String[] args) {
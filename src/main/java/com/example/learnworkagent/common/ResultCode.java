@@ -29,6 +29,7 @@ public enum ResultCode {
     USER_ALREADY_EXISTS(2002, "用户已存在"),
     LEAVE_APPLICATION_NOT_FOUND(2003, "请假申请不存在"),
     AWARD_APPLICATION_NOT_FOUND(2004, "奖助申请不存在"),
+    CONCURRENT_MODIFICATION(2005, "数据已被他人修改，请刷新后重试"),
 
     // AI服务相关 3000-3099
     AI_SERVICE_ERROR(3001, "AI服务调用失败"),
@@ -0,0 +1,27 @@
+package com.example.learnworkagent.common.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 乐观锁冲突自动重试。
+ * 仅在方法是最外层事务入口时生效（调用时尚无活动事务），冲突后整个事务重新执行。
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OptimisticRetry {
+
+    /**
+     * 最大执行次数（含首次）
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * 首次重试前的退避时间（毫秒），之后按倍数递增并叠加随机抖动
+     */
+    long backoffMillis() default 20;
+}
@@ -2,6 +2,7 @@ package com.example.learnworkagent.common.dto;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 /**
@@ -33,10 +34,40 @@ public class PageRequest {
      */
     private String orderDirection = "DESC";
 
+    /**
+     * 游标分页模式：按 (创建时间, ID) 倒序翻页，忽略页码和排序字段
+     */
+    private Boolean keyset = false;
+
+    /**
+     * 游标分页的位置，取上一页返回的 nextCursor，首页为空；传入时自动进入游标分页模式
+     */
+    @Size(max = 200, message = "分页游标无效")
+    private String cursor;
+
+    /**
+     * 游标分页时是否统计总记录数，不需要时传 false 省去一次 COUNT 查询
+     */
+    private Boolean withTotal = true;
+
     /**
      * 获取JPA分页的页码（从0开始）
      */
     public int getPage() {
         return pageNum - 1;
     }
+
+    /**
+     * 是否使用游标分页
+     */
+    public boolean isKeysetMode() {
+        return Boolean.TRUE.equals(keyset) || (cursor != null && !cursor.isBlank());
+    }
+
+    /**
+     * 游标分页时是否需要统计总记录数
+     */
+    public boolean isTotalRequired() {
+        return !Boolean.FALSE.equals(withTotal);
+    }
 }
@@ -39,11 +39,36 @@ public class PageResult<T> {
      */
     private Integer totalPages;
 
+    /**
+     * 下一页游标（游标分页模式），没有下一页时为空
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasNext;
+
     public PageResult(List<T> records, Long total, Integer pageNum, Integer pageSize) {
         this.records = records;
         this.total = total;
         this.pageNum = pageNum;
         this.pageSize = pageSize;
         this.totalPages = (int) Math.ceil((double) total / pageSize);
+        this.hasNext = pageNum < this.totalPages;
+    }
+
+    /**
+     * 游标分页结果，total 为空表示未统计总记录数
+     */
+    public static <T> PageResult<T> keyset(List<T> records, Long total, Integer pageSize, String nextCursor) {
+        PageResult<T> result = new PageResult<>();
+        result.setRecords(records);
+        result.setTotal(total);
+        result.setPageSize(pageSize);
+        result.setTotalPages(total != null ? (int) Math.ceil((double) total / pageSize) : null);
+        result.setNextCursor(nextCursor);
+        result.setHasNext(nextCursor != null);
+        return result;
     }
 }
@@ -0,0 +1,30 @@
+package com.example.learnworkagent.common.enums;
+
+import lombok.Getter;
+
+/**
+ * 审批任务分配方式枚举。
+ */
+@Getter
+public enum ApprovalAssignmentModeEnum {
+
+    ALL("ALL", "分配给全部审批人"),
+    LEAST_LOADED("LEAST_LOADED", "分配给负载最低的审批人");
+
+    private final String code;
+    private final String description;
+
+    ApprovalAssignmentModeEnum(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public static boolean isValid(String code) {
+        for (ApprovalAssignmentModeEnum mode : values()) {
+            if (mode.code.equals(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.learnworkagent.common.enums;
+
+import lombok.Getter;
+
+/**
+ * 审批统计维度枚举。
+ */
+@Getter
+public enum ApprovalStatsScopeEnum {
+
+    APPROVER("APPROVER", "审批人"),
+    STEP("STEP", "审批步骤"),
+    DEPARTMENT("DEPARTMENT", "院系"),
+    PROCESS("PROCESS", "审批流程");
+
+    private final String code;
+    private final String description;
+
+    ApprovalStatsScopeEnum(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+}
@@ -11,7 +11,8 @@ public enum ApprovalStatusEnum {
     PENDING("PENDING", "待审批"),
     PROCESSING("PROCESSING", "处理中"),
     APPROVED("APPROVED", "已通过"),
-    REJECTED("REJECTED", "未通过");
+    REJECTED("REJECTED", "未通过"),
+    SKIPPED("SKIPPED", "已跳过");
 
     private final String code;
     private final String description;
@@ -9,6 +9,8 @@ import lombok.Getter;
 public enum NotificationTypeEnum {
 
     APPROVAL_RESULT("APPROVAL_RESULT", "审批结果通知"),
+    APPROVAL_REMINDER("APPROVAL_REMINDER", "审批催办通知"),
+    APPROVAL_ESCALATION("APPROVAL_ESCALATION", "审批超时升级通知"),
     SYSTEM("SYSTEM", "系统通知");
 
     private final String code;
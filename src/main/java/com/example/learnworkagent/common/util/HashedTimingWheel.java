@@ -0,0 +1,317 @@
+package com.example.learnworkagent.common.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 哈希时间轮。
+ * 固定数量的槽位组成环形数组，每个 tick 只处理当前槽位，添加和取消均为 O(1)。
+ * 超过一圈的定时任务记录剩余圈数，轮到时递减。所有槽位只由工作线程访问，
+ * 外部线程的添加请求先进入无锁队列，在下一个 tick 开始时转入槽位。
+ * 清空按代次进行：每个定时任务记录添加时的代次，清空只递增代次，工作线程在下一个 tick 丢弃旧代次的任务，
+ * 清空之后添加的任务不受影响。
+ * 到期回调在工作线程执行，回调内不应做阻塞操作。
+ *
+ * @param <T> 定时任务携带的数据类型
+ */
+@Slf4j
+public final class HashedTimingWheel<T> {
+
+    private final String name;
+    private final long tickMillis;
+    private final int mask;
+    private final Bucket<T>[] buckets;
+    private final Consumer<T> handler;
+    private final Queue<Timeout<T>> additions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong epoch = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile int occupiedBuckets;
+    private Thread worker;
+    private long startMillis;
+    private long tick;
+    private long clearedEpoch;
+
+    /**
+     * @param name       工作线程名称
+     * @param tickMillis 每个 tick 的时长（毫秒）
+     * @param wheelSize  槽位数量，向上取整为 2 的幂
+     * @param handler    到期回调
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, long tickMillis, int wheelSize, Consumer<T> handler) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis 和 wheelSize 必须大于 0");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        size = Math.max(size, 1);
+        this.name = name;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket<>();
+        }
+        this.handler = handler;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        startMillis = System.currentTimeMillis();
+        tick = 0;
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    /**
+     * 添加定时任务
+     *
+     * @param payload        任务数据
+     * @param deadlineMillis 到期时间（毫秒时间戳）
+     * @return 可取消的句柄
+     */
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(this, payload, deadlineMillis, epoch.get());
+        pending.incrementAndGet();
+        additions.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 清空此前添加的全部定时任务（在下一个 tick 由工作线程移除），调用返回后添加的任务不受影响
+     */
+    public void clear() {
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * 尚未到期的定时任务数
+     */
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * 非空槽位数（每个 tick 更新）
+     */
+    public int occupiedBuckets() {
+        return occupiedBuckets;
+    }
+
+    public int wheelSize() {
+        return buckets.length;
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startMillis + (tick + 1) * tickMillis;
+            long sleepMillis = deadline - System.currentTimeMillis();
+            if (sleepMillis > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(sleepMillis);
+                } catch (InterruptedException exception) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            long current = epoch.get();
+            if (current != clearedEpoch) {
+                clearBefore(current);
+                clearedEpoch = current;
+            }
+            transferAdditions(current);
+            Bucket<T> bucket = buckets[(int) (tick & mask)];
+            if (bucket.expire(this)) {
+                occupiedBuckets--;
+            }
+            tick++;
+        }
+    }
+
+    private void transferAdditions(long current) {
+        Timeout<T> timeout;
+        while ((timeout = additions.poll()) != null) {
+            if (timeout.epoch < current) {
+                timeout.cancel();
+            }
+            if (timeout.cancelled) {
+                continue;
+            }
+            long calculated = Math.max(0, (timeout.deadlineMillis - startMillis) / tickMillis);
+            timeout.remainingRounds = (calculated - tick) / buckets.length;
+            long ticks = Math.max(calculated, tick);
+            Bucket<T> bucket = buckets[(int) (ticks & mask)];
+            if (bucket.isEmpty()) {
+                occupiedBuckets++;
+            }
+            bucket.add(timeout);
+        }
+    }
+
+    /**
+     * 移除槽位中早于指定代次的定时任务，队列中的旧任务在转入槽位时丢弃
+     */
+    private void clearBefore(long current) {
+        int occupied = 0;
+        for (Bucket<T> bucket : buckets) {
+            if (!bucket.clearBefore(current)) {
+                occupied++;
+            }
+        }
+        occupiedBuckets = occupied;
+    }
+
+    private void fire(Timeout<T> timeout) {
+        pending.decrementAndGet();
+        try {
+            handler.accept(timeout.payload);
+        } catch (Exception exception) {
+            log.error("时间轮回调执行失败，wheel: {}", name, exception);
+        }
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class Timeout<T> {
+
+        private final HashedTimingWheel<T> wheel;
+        private final T payload;
+        private final long deadlineMillis;
+        private final long epoch;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(HashedTimingWheel<T> wheel, T payload, long deadlineMillis, long epoch) {
+            this.wheel = wheel;
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+            this.epoch = epoch;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long deadlineMillis() {
+            return deadlineMillis;
+        }
+
+        /**
+         * 取消定时任务，槽位中的节点在下次经过时移除
+         */
+        public synchronized void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                wheel.pending.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 槽位：双向链表
+     */
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        boolean isEmpty() {
+            return head == null;
+        }
+
+        void add(Timeout<T> timeout) {
+            if (tail == null) {
+                head = tail = timeout;
+                return;
+            }
+            tail.next = timeout;
+            timeout.prev = tail;
+            tail = timeout;
+        }
+
+        /**
+         * 处理到期任务，返回槽位是否由非空变为空
+         */
+        boolean expire(HashedTimingWheel<T> wheel) {
+            if (head == null) {
+                return false;
+            }
+            Timeout<T> timeout = head;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.cancelled) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    synchronized (timeout) {
+                        if (timeout.cancelled) {
+                            timeout = next;
+                            continue;
+                        }
+                        timeout.cancelled = true;
+                    }
+                    wheel.fire(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            return head == null;
+        }
+
+        /**
+         * 取消并移除早于指定代次的任务，返回槽位是否为空
+         */
+        boolean clearBefore(long current) {
+            Timeout<T> timeout = head;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.epoch < current) {
+                    timeout.cancel();
+                    remove(timeout);
+                }
+                timeout = next;
+            }
+            return head == null;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
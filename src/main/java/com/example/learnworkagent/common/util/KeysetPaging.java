@@ -0,0 +1,79 @@
+package com.example.learnworkagent.common.util;
+
+import com.example.learnworkagent.common.BaseEntity;
+import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.dto.PageRequest;
+import com.example.learnworkagent.common.dto.PageResult;
+import com.example.learnworkagent.common.exception.BusinessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 游标分页工具。
+ * 列表按 (创建时间, ID) 倒序，游标是上一页最后一条记录的这两个值，编码为不透明字符串；
+ * 查询条件为「(create_time, id) 小于游标」，每页代价与翻到第几页无关。
+ */
+public final class KeysetPaging {
+
+    private static final String SEPARATOR = "|";
+    private static final String PROPERTY_CREATE_TIME = "createTime";
+    private static final String PROPERTY_ID = "id";
+
+    private KeysetPaging() {
+    }
+
+    /**
+     * 把请求中的游标转换为滚动位置，没有游标时从第一条开始
+     */
+    public static ScrollPosition position(PageRequest pageRequest) {
+        String cursor = pageRequest.getCursor();
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            LocalDateTime createTime = LocalDateTime.parse(decoded.substring(0, separator));
+            Long id = Long.valueOf(decoded.substring(separator + 1));
+            return ScrollPosition.forward(Map.of(PROPERTY_CREATE_TIME, createTime, PROPERTY_ID, id));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException exception) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "分页游标无效");
+        }
+    }
+
+    /**
+     * 每页条数
+     */
+    public static Limit limit(PageRequest pageRequest) {
+        return Limit.of(pageRequest.getPageSize());
+    }
+
+    /**
+     * 组装游标分页结果，请求不需要总数时不执行统计
+     *
+     * @param window       本页数据
+     * @param pageRequest  分页请求
+     * @param totalCounter 总记录数统计
+     */
+    public static <T extends BaseEntity> PageResult<T> toPageResult(Window<T> window, PageRequest pageRequest,
+                                                                   LongSupplier totalCounter) {
+        List<T> records = window.getContent();
+        String nextCursor = window.hasNext() && !records.isEmpty() ? encode(records.get(records.size() - 1)) : null;
+        Long total = pageRequest.isTotalRequired() ? totalCounter.getAsLong() : null;
+        return PageResult.keyset(records, total, pageRequest.getPageSize(), nextCursor);
+    }
+
+    private static String encode(BaseEntity last) {
+        String raw = last.getCreateTime() + SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
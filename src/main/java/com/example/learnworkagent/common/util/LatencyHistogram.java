@@ -0,0 +1,139 @@
+package com.example.learnworkagent.common.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 定长对数-线性直方图（HdrHistogram 思路）。
+ * 小于 {@value #LINEAR_BUCKETS} 的值逐个计数；更大的值按 2 的幂分段，每段再等分为 {@value #SUB_BUCKETS} 个子桶，
+ * 相对误差不超过 1/{@value #SUB_BUCKETS}。桶数固定，内存占用与记录次数无关，两个直方图可逐桶相加合并。
+ * 非线程安全，由调用方同步。
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR_BITS = 5;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKETS = LINEAR_BUCKETS >> 1;
+    private static final int SUB_BUCKET_BITS = LINEAR_BITS - 1;
+
+    /**
+     * 可记录的最大值，超出部分按最大值计
+     */
+    public static final long MAX_VALUE = (1L << 32) - 1;
+
+    private static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long sum;
+    private long max;
+
+    /**
+     * 记录一个非负值
+     */
+    public void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), MAX_VALUE);
+        counts[bucketIndex(clamped)]++;
+        totalCount++;
+        sum += clamped;
+        max = Math.max(max, clamped);
+    }
+
+    /**
+     * 合并另一个直方图
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * 百分位值（返回所在桶的上界，不超过实际最大值）
+     *
+     * @param percentile 0-100
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(totalCount * Math.min(percentile, 100.0) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 稀疏编码：[int 非空桶数][long 总和][long 最大值]，随后每个非空桶 [short 桶下标][long 计数]
+     */
+    public byte[] toBytes() {
+        int nonEmpty = (int) Arrays.stream(counts).filter(count -> count > 0).count();
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 8 + nonEmpty * (2 + 8));
+        buffer.putInt(nonEmpty).putLong(sum).putLong(max);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] > 0) {
+                buffer.putShort((short) i).putLong(counts[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static LatencyHistogram fromBytes(byte[] bytes) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        if (bytes == null || bytes.length == 0) {
+            return histogram;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int nonEmpty = buffer.getInt();
+        histogram.sum = buffer.getLong();
+        histogram.max = buffer.getLong();
+        for (int i = 0; i < nonEmpty; i++) {
+            int index = buffer.getShort();
+            long count = buffer.getLong();
+            histogram.counts[index] = count;
+            histogram.totalCount += count;
+        }
+        return histogram;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long mantissa = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.learnworkagent.domain.approval.archive;
+
+import com.example.learnworkagent.domain.approval.repository.ApprovalArchiveJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 审批冷数据归档任务。
+ * 定期把完成超过保留月数的审批实例及其任务分批搬入归档表，每批一个事务，热表只保留进行中和近期完成的数据。
+ * 单次运行的批数有上限，积压较多时分多天消化，避免长时间占用数据库。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApprovalArchiveJob {
+
+    private final ApprovalArchiveJdbcRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${approval.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${approval.archive.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${approval.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${approval.archive.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    private Counter instanceCounter;
+    private Counter taskCounter;
+
+    @PostConstruct
+    public void init() {
+        instanceCounter = Counter.builder("approval.archive.instances").register(meterRegistry);
+        taskCounter = Counter.builder("approval.archive.tasks").register(meterRegistry);
+    }
+
+    /**
+     * 定时归档
+     */
+    @Scheduled(cron = "${approval.archive.cron:0 0 4 * * ?}")
+    public void archiveCompleted() {
+        if (!enabled) {
+            return;
+        }
+        archiveCompletedBefore(LocalDateTime.now().minusMonths(retentionMonths));
+    }
+
+    /**
+     * 归档完成时间早于截止时间的实例
+     *
+     * @param cutoff 截止时间
+     * @return 归档的实例数
+     */
+    public int archiveCompletedBefore(LocalDateTime cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("审批归档任务正在执行，跳过本次触发");
+            return 0;
+        }
+        int archivedInstances = 0;
+        int archivedTasks = 0;
+        try {
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                int[] archived = transactionTemplate.execute(status -> archiveChunk(cutoff));
+                if (archived == null || archived[0] == 0) {
+                    break;
+                }
+                archivedInstances += archived[0];
+                archivedTasks += archived[1];
+                instanceCounter.increment(archived[0]);
+                taskCounter.increment(archived[1]);
+                if (archived[0] < chunkSize) {
+                    break;
+                }
+            }
+        } catch (Exception exception) {
+            log.error("审批归档失败，已归档实例数: {}", archivedInstances, exception);
+        } finally {
+            running.set(false);
+        }
+        log.info("审批归档完成，截止时间: {}, 实例数: {}, 任务数: {}", cutoff, archivedInstances, archivedTasks);
+        return archivedInstances;
+    }
+
+    /**
+     * 归档一批，返回 [实例数, 任务数]
+     */
+    private int[] archiveChunk(LocalDateTime cutoff) {
+        List<Long> instanceIds = archiveRepository.lockDueInstanceIds(cutoff, chunkSize);
+        if (instanceIds.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        int tasks = archiveRepository.archive(instanceIds, LocalDateTime.now());
+        return new int[]{instanceIds.size(), tasks};
+    }
+}
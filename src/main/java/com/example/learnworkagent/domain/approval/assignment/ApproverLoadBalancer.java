@@ -0,0 +1,283 @@
+package com.example.learnworkagent.domain.approval.assignment;
+
+import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
+import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import com.example.learnworkagent.domain.approval.repository.ApprovalTaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 审批人负载均衡器（按负载分配的步骤使用）。
+ * 每位审批人的负载是其名下进行中任务数，保存在 Redis 哈希中，所有节点共享：任务进入进行中时加一，
+ * 被处理或跳过时减一，均在事务提交后生效。分配时由 Lua 脚本原子地读取候选人负载，选出负载最低者，
+ * 负载相同的按候选人集合各自的轮询游标依次选择，并立即预占计数，事务回滚时归还预占。
+ * 计数只作分配参考，定时按任务表校准；Redis 不可用时退化为本地轮询。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApproverLoadBalancer {
+
+    private static final String LOAD_KEY = "{approval:load}:open";
+    private static final String ROUND_ROBIN_KEY_PREFIX = "{approval:load}:rr:";
+    private static final String RECONCILE_LOCK_KEY = "{approval:load}:reconcile";
+
+    /**
+     * KEYS[1] 负载哈希，KEYS[2] 轮询游标；ARGV: 选取人数, 是否预占(1/0), 游标过期毫秒, 候选人ID...
+     * 每选出一人即在本地负载上加一，同一次调用选多人时依次分摊给负载最低的候选人
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> PICK_SCRIPT = new DefaultRedisScript<>("""
+            local count = tonumber(ARGV[1])
+            local reserve = ARGV[2] == '1'
+            local n = #ARGV - 3
+            local loads = redis.call('HMGET', KEYS[1], unpack(ARGV, 4))
+            for i = 1, n do
+              loads[i] = math.max(tonumber(loads[i]) or 0, 0)
+            end
+            local picks = {}
+            for c = 1, count do
+              local min = nil
+              local ties = {}
+              for i = 1, n do
+                if min == nil or loads[i] < min then
+                  min = loads[i]
+                  ties = {i}
+                elseif loads[i] == min then
+                  ties[#ties + 1] = i
+                end
+              end
+              local chosen = ties[1]
+              if #ties > 1 then
+                chosen = ties[(redis.call('INCR', KEYS[2]) - 1) % #ties + 1]
+              end
+              loads[chosen] = loads[chosen] + 1
+              picks[c] = ARGV[chosen + 3]
+              if reserve then
+                redis.call('HINCRBY', KEYS[1], ARGV[chosen + 3], 1)
+              end
+            end
+            redis.call('PEXPIRE', KEYS[2], ARGV[3])
+            return picks
+            """, List.class);
+
+    /**
+     * KEYS[1] 负载哈希；ARGV: 审批人ID, 任务数, 审批人ID, 任务数...
+     */
+    private static final DefaultRedisScript<Long> REPLACE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            for i = 1, #ARGV, 2 do
+              redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            return #ARGV / 2
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ApprovalTaskRepository taskRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicInteger fallbackCursor = new AtomicInteger();
+
+    @Value("${approval.assignment.reconcile-interval-ms:600000}")
+    private long reconcileIntervalMillis;
+
+    @Value("${approval.assignment.round-robin-ttl-ms:604800000}")
+    private long roundRobinTtlMillis;
+
+    private Counter fallbackCounter;
+
+    @PostConstruct
+    public void init() {
+        fallbackCounter = Counter.builder("approval.assignment.fallbacks").register(meterRegistry);
+    }
+
+    /**
+     * 从候选人中依次选出负载最低的审批人
+     *
+     * @param candidates 候选审批人（已去重）
+     * @param count      选取人数（同一候选集合下待分配的实例数）
+     * @param reserve    是否预占负载（任务直接进入进行中时为 true，事务提交后计数保留，回滚时归还）
+     * @return 长度为 count 的审批人列表
+     */
+    public List<Long> pick(List<Long> candidates, int count, boolean reserve) {
+        if (candidates.size() == 1 && !reserve) {
+            return Collections.nCopies(count, candidates.get(0));
+        }
+        List<String> args = new ArrayList<>(candidates.size() + 3);
+        args.add(String.valueOf(count));
+        args.add(reserve ? "1" : "0");
+        args.add(String.valueOf(roundRobinTtlMillis));
+        candidates.forEach(candidate -> args.add(String.valueOf(candidate)));
+        List<?> picked;
+        try {
+            picked = stringRedisTemplate.execute(PICK_SCRIPT, List.of(LOAD_KEY, roundRobinKey(candidates)), args.toArray());
+        } catch (Exception exception) {
+            picked = null;
+            log.warn("审批人负载读取失败，退化为本地轮询，原因: {}", exception.getMessage());
+        }
+        if (picked == null || picked.size() != count) {
+            fallbackCounter.increment();
+            List<Long> fallback = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                fallback.add(candidates.get(Math.floorMod(fallbackCursor.getAndIncrement(), candidates.size())));
+            }
+            return fallback;
+        }
+        List<Long> approvers = picked.stream().map(value -> Long.valueOf(value.toString())).toList();
+        // 没有事务时预占直接作为负载保留
+        if (reserve && TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Long, Long> reserved = transactionDeltas().reserved;
+            approvers.forEach(approverId -> reserved.merge(approverId, 1L, Long::sum));
+        }
+        return approvers;
+    }
+
+    /**
+     * 任务进入进行中（未经预占的任务），事务提交后负载加一
+     */
+    public void recordOpened(ApprovalTask task) {
+        adjust(task.getApproverId(), 1L);
+    }
+
+    /**
+     * 进行中的任务被处理或跳过，事务提交后负载减一
+     */
+    public void recordClosed(ApprovalTask task) {
+        adjust(task.getApproverId(), -1L);
+    }
+
+    /**
+     * 进行中的任务转交给其他审批人，事务提交后负载随之转移
+     */
+    public void recordTransferred(Long fromApproverId, Long toApproverId, long count) {
+        if (count == 0) {
+            return;
+        }
+        adjust(fromApproverId, -count);
+        adjust(toApproverId, count);
+    }
+
+    /**
+     * 定时按任务表重建负载计数，抵消节点宕机或 Redis 异常造成的漂移；同一时刻只有一个节点执行
+     */
+    @Scheduled(fixedDelayString = "${approval.assignment.reconcile-interval-ms:600000}",
+            initialDelayString = "${approval.assignment.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(RECONCILE_LOCK_KEY, nodeId, Duration.ofMillis(reconcileIntervalMillis / 2));
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+            List<Object[]> rows = taskRepository.countByApproverAndStatus(ApprovalStatusEnum.PROCESSING.getCode());
+            List<String> args = new ArrayList<>(rows.size() * 2);
+            for (Object[] row : rows) {
+                args.add(String.valueOf(row[0]));
+                args.add(String.valueOf(row[1]));
+            }
+            // 校准期间提交的事务增量可能被覆盖或重复计入，偏差在下一轮校准时消除
+            stringRedisTemplate.execute(REPLACE_SCRIPT, List.of(LOAD_KEY), args.toArray());
+            log.debug("审批人负载已校准，审批人数: {}", rows.size());
+        } catch (Exception exception) {
+            log.warn("审批人负载校准失败，原因: {}", exception.getMessage());
+        }
+    }
+
+    private void adjust(Long approverId, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(new HashMap<>(Map.of(approverId, delta)));
+            return;
+        }
+        transactionDeltas().committed.merge(approverId, delta, Long::sum);
+    }
+
+    /**
+     * 当前事务累积的负载增量，事务结束时一次写入 Redis
+     */
+    private LoadDeltas transactionDeltas() {
+        LoadDeltas bound = (LoadDeltas) TransactionSynchronizationManager.getResource(this);
+        if (bound == null) {
+            LoadDeltas deltas = new LoadDeltas();
+            TransactionSynchronizationManager.bindResource(this, deltas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(ApproverLoadBalancer.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(ApproverLoadBalancer.this, deltas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ApproverLoadBalancer.this);
+                    if (status == STATUS_COMMITTED) {
+                        apply(deltas.committed);
+                    } else {
+                        Map<Long, Long> released = new HashMap<>();
+                        deltas.reserved.forEach((approverId, reserved) -> released.put(approverId, -reserved));
+                        apply(released);
+                    }
+                }
+            });
+            bound = deltas;
+        }
+        return bound;
+    }
+
+    private void apply(Map<Long, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                deltas.forEach((approverId, delta) -> stringConnection.hIncrBy(LOAD_KEY, String.valueOf(approverId), delta));
+                return null;
+            });
+        } catch (Exception exception) {
+            log.warn("审批人负载更新失败，等待下一轮校准，审批人数: {}, 原因: {}", deltas.size(), exception.getMessage());
+        }
+    }
+
+    private static String roundRobinKey(List<Long> candidates) {
+        String pool = candidates.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+        return ROUND_ROBIN_KEY_PREFIX + Integer.toHexString(pool.hashCode());
+    }
+
+    /**
+     * 事务内累积的负载增量：committed 提交后生效，reserved 已在脚本中预占、回滚时归还
+     */
+    private record LoadDeltas(Map<Long, Long> committed, Map<Long, Long> reserved) {
+
+        private LoadDeltas() {
+            this(new HashMap<>(), new HashMap<>());
+        }
+    }
+}
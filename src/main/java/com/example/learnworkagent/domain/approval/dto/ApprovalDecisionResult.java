@@ -0,0 +1,19 @@
+package com.example.learnworkagent.domain.approval.dto;
+
+import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
+import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+
+/**
+ * 按业务键审批的结果，包含审批后的任务、实例和业务单据，调用方无需再查询
+ *
+ * @param task        已处理的任务
+ * @param instance    审批实例（已流转到最新状态）
+ * @param application 业务单据（审批状态已同步）
+ * @param <T>         业务单据类型
+ */
+public record ApprovalDecisionResult<T>(ApprovalTask task, ApprovalInstance instance, T application) {
+
+    public boolean isInstanceApproved() {
+        return instance.isApproved();
+    }
+}
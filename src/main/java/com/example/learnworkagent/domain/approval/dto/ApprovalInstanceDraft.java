@@ -0,0 +1,11 @@
+package com.example.learnworkagent.domain.approval.dto;
+
+/**
+ * 批量创建审批实例的单条参数
+ *
+ * @param businessId    业务ID
+ * @param applicantId   申请人ID
+ * @param applicantInfo 申请人信息（JSON格式）
+ */
+public record ApprovalInstanceDraft(Long businessId, Long applicantId, String applicantInfo) {
+}
@@ -0,0 +1,21 @@
+package com.example.learnworkagent.domain.approval.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * 审批任务转交请求DTO
+ */
+@Data
+public class ApprovalReassignRequest {
+
+    @NotNull(message = "原审批人不能为空")
+    private Long fromApproverId;
+
+    @NotNull(message = "新审批人不能为空")
+    private Long toApproverId;
+
+    @Size(max = 200, message = "转交原因不能超过200字")
+    private String reason;
+}
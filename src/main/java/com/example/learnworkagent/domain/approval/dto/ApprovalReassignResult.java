@@ -0,0 +1,40 @@
+package com.example.learnworkagent.domain.approval.dto;
+
+import lombok.Data;
+
+/**
+ * 审批任务转交结果
+ */
+@Data
+public class ApprovalReassignResult {
+
+    /**
+     * 原审批人ID
+     */
+    private Long fromApproverId;
+
+    /**
+     * 新审批人ID
+     */
+    private Long toApproverId;
+
+    /**
+     * 转交的任务数
+     */
+    private int movedCount;
+
+    /**
+     * 其中进行中的任务数（已合并为一条待办通知发给新审批人）
+     */
+    private int processingCount;
+
+    /**
+     * 未能转交、仍留在原审批人名下的未关闭任务数（新审批人在同一步骤已有任务）
+     */
+    private long remainingCount;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long elapsedMillis;
+}
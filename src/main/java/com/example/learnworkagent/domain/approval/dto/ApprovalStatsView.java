@@ -0,0 +1,76 @@
+package com.example.learnworkagent.domain.approval.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 审批统计视图（耗时单位：秒）
+ */
+@Data
+public class ApprovalStatsView {
+
+    /**
+     * 统计维度
+     */
+    private String scope;
+
+    /**
+     * 维度ID
+     */
+    private Long scopeId;
+
+    /**
+     * 起始日期（含）
+     */
+    private LocalDate fromDate;
+
+    /**
+     * 结束日期（含）
+     */
+    private LocalDate toDate;
+
+    /**
+     * 进入进行中的任务数
+     */
+    private long activatedCount;
+
+    /**
+     * 批准数
+     */
+    private long approvedCount;
+
+    /**
+     * 拒绝数
+     */
+    private long rejectedCount;
+
+    /**
+     * 平均审批耗时
+     */
+    private double avgLatencySeconds;
+
+    /**
+     * 耗时中位数
+     */
+    private long p50LatencySeconds;
+
+    /**
+     * 耗时 90 分位
+     */
+    private long p90LatencySeconds;
+
+    /**
+     * 耗时 99 分位
+     */
+    private long p99LatencySeconds;
+
+    /**
+     * 最长审批耗时
+     */
+    private long maxLatencySeconds;
+
+    public long getDecidedCount() {
+        return approvedCount + rejectedCount;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.learnworkagent.domain.approval.dto;
+
+import com.example.learnworkagent.domain.approval.journal.ApprovalEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 审批时间线条目（由审批实例和任务记录推导，已归档的实例读取归档表）
+ *
+ * @param time       发生时间
+ * @param type       事件类型
+ * @param taskId     审批任务ID（实例级事件为 null）
+ * @param stepOrder  步骤顺序
+ * @param operatorId 审批人/申请人ID（实例结束事件为 null）
+ * @param comment    审批意见
+ */
+public record ApprovalTimelineEntry(LocalDateTime time,
+                                    ApprovalEventType type,
+                                    Long taskId,
+                                    Integer stepOrder,
+                                    Long operatorId,
+                                    String comment) {
+}
@@ -0,0 +1,16 @@
+package com.example.learnworkagent.domain.approval.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已归档的审批任务（历史查询用）
+ *
+ * @param businessType       业务类型
+ * @param businessId         业务ID
+ * @param status             任务状态
+ * @param instanceCreateTime 审批实例创建时间
+ * @param approvalTime       审批时间
+ */
+public record ArchivedApprovalTask(String businessType, Long businessId, String status,
+                                   LocalDateTime instanceCreateTime, LocalDateTime approvalTime) {
+}
@@ -0,0 +1,59 @@
+package com.example.learnworkagent.domain.approval.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量审批结果
+ */
+@Data
+public class BatchApprovalResult {
+
+    /**
+     * 提交的任务总数
+     */
+    private int total;
+
+    /**
+     * 成功数量
+     */
+    private int successCount;
+
+    /**
+     * 失败数量
+     */
+    private int failureCount;
+
+    /**
+     * 逐条处理结果
+     */
+    private List<Item> items = new ArrayList<>();
+
+    public void addSuccess(Long taskId, String businessType, Long businessId, String instanceStatus) {
+        items.add(new Item(taskId, businessType, businessId, true, instanceStatus, null));
+        successCount++;
+        total++;
+    }
+
+    public void addFailure(Long taskId, String businessType, Long businessId, String message) {
+        items.add(new Item(taskId, businessType, businessId, false, null, message));
+        failureCount++;
+        total++;
+    }
+
+    /**
+     * 单条审批结果
+     *
+     * @param taskId         任务ID
+     * @param businessType   业务类型
+     * @param businessId     业务ID
+     * @param success        是否处理成功
+     * @param instanceStatus 处理后审批实例的整体状态
+     * @param message        失败原因
+     */
+    public record Item(Long taskId, String businessType, Long businessId,
+                       boolean success, String instanceStatus, String message) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.learnworkagent.domain.approval.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量处理审批任务请求DTO
+ */
+@Data
+public class BatchApprovalTaskRequest {
+
+    @NotEmpty(message = "审批任务列表不能为空")
+    @Size(max = 500, message = "单次最多批量审批500条")
+    private List<Long> taskIds;
+
+    @NotBlank(message = "审批状态不能为空")
+    private String status;
+
+    private String comment;
+}
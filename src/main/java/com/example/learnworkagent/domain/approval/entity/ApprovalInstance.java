@@ -2,10 +2,16 @@ package com.example.learnworkagent.domain.approval.entity;
 
 import com.example.learnworkagent.common.BaseEntity;
 import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
+import com.example.learnworkagent.domain.approval.rule.ApplicantContext;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Comment;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -15,8 +21,12 @@ import java.time.LocalDateTime;
 @Data
 @EqualsAndHashCode(callSuper = true)
 @Entity
+@BatchSize(size = 50)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Comment("审批实例表")
-@Table(name = "approval_instance")
+@Table(name = "approval_instance", indexes = {
+        @Index(name = "idx_instance_status_completed", columnList = "status, completed_time")
+})
 public class ApprovalInstance extends BaseEntity {
 
     /**
@@ -43,7 +53,9 @@ public class ApprovalInstance extends BaseEntity {
     /**
      * 流程ID
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Comment("流程ID")
     @JoinColumn(name = "process_id", nullable = false)
     private ApprovalProcess process;
@@ -69,6 +81,43 @@ public class ApprovalInstance extends BaseEntity {
     @Column(name = "completed_time")
     private LocalDateTime completedTime;
 
+    /**
+     * 申请人信息快照（JSON，步骤激活时据此解析审批人）
+     */
+    @Comment("申请人信息快照（JSON）")
+    @Column(name = "applicant_info", columnDefinition = "TEXT")
+    private String applicantInfo;
+
+    /**
+     * 申请人信息快照的解析结果（不持久化，实例加载后首次使用时解析）
+     */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ApplicantContext applicantContext;
+
+    /**
+     * 乐观锁版本号
+     */
+    @Version
+    @Comment("乐观锁版本号")
+    @Column(name = "lock_version", nullable = false, columnDefinition = "bigint default 0")
+    private Long lockVersion;
+
+    /**
+     * 获取申请人信息快照的解析结果，首次调用时解析并保存在实例上
+     *
+     * @param objectMapper JSON 解析器
+     * @return 申请人信息
+     */
+    public ApplicantContext resolveApplicantContext(ObjectMapper objectMapper) {
+        if (applicantContext == null) {
+            applicantContext = ApplicantContext.parse(objectMapper, applicantInfo);
+        }
+        return applicantContext;
+    }
+
     public boolean isPending() {
         return ApprovalStatusEnum.PENDING.getCode().equals(status);
     }
@@ -0,0 +1,76 @@
+package com.example.learnworkagent.domain.approval.entity;
+
+import com.example.learnworkagent.common.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * 审批实例归档。
+ * 结构与审批实例表一致（主键沿用原实例ID），由归档任务按批从热表搬入，只读。
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Comment("审批实例归档表")
+@Table(name = "approval_instance_archive", indexes = {
+        @Index(name = "idx_instance_archive_business", columnList = "business_type, business_id")
+})
+public class ApprovalInstanceArchive extends BaseEntity {
+
+    /** 业务类型。 */
+    @Comment("业务类型")
+    @Column(name = "business_type", nullable = false, length = 20)
+    private String businessType;
+
+    /** 业务ID。 */
+    @Comment("业务ID")
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    /** 申请人ID。 */
+    @Comment("申请人ID")
+    @Column(name = "applicant_id")
+    private Long applicantId;
+
+    /** 流程ID。 */
+    @Comment("流程ID")
+    @Column(name = "process_id", nullable = false)
+    private Long processId;
+
+    /** 结束时所在步骤。 */
+    @Comment("当前步骤")
+    @Column(name = "current_step")
+    private Integer currentStep;
+
+    /** 最终状态。 */
+    @Comment("整体状态")
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    /** 完成时间。 */
+    @Comment("完成时间")
+    @Column(name = "completed_time")
+    private LocalDateTime completedTime;
+
+    /** 申请人信息快照（JSON）。 */
+    @Comment("申请人信息快照（JSON）")
+    @Column(name = "applicant_info", columnDefinition = "TEXT")
+    private String applicantInfo;
+
+    /** 归档时的乐观锁版本号。 */
+    @Comment("乐观锁版本号")
+    @Column(name = "lock_version", nullable = false, columnDefinition = "bigint default 0")
+    private Long lockVersion;
+
+    /** 归档时间。 */
+    @Comment("归档时间")
+    @Column(name = "archived_time", nullable = false)
+    private LocalDateTime archivedTime;
+}
@@ -1,9 +1,11 @@
 package com.example.learnworkagent.domain.approval.entity;
 
 import com.example.learnworkagent.common.BaseEntity;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Comment;
 
 /**
@@ -12,6 +14,8 @@ import org.hibernate.annotations.Comment;
 @Data
 @EqualsAndHashCode(callSuper = true)
 @Entity
+@BatchSize(size = 50)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Comment("审批流程表")
 @Table(name = "approval_process")
 public class ApprovalProcess extends BaseEntity {
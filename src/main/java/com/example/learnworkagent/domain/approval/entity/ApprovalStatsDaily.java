@@ -0,0 +1,78 @@
+package com.example.learnworkagent.domain.approval.entity;
+
+import com.example.learnworkagent.common.BaseEntity;
+import com.example.learnworkagent.common.util.LatencyHistogram;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDate;
+
+/**
+ * 审批统计日快照。
+ * 每个 (日期, 维度, 维度ID) 一行，保存任务计数和审批耗时直方图，由统计聚合器定期增量合并写入。
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Comment("审批统计日快照表")
+@Table(name = "approval_stats_daily", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stats_date_scope", columnNames = {"stat_date", "scope", "scope_id"})
+})
+public class ApprovalStatsDaily extends BaseEntity {
+
+    /** 统计日期。 */
+    @Comment("统计日期")
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    /** 统计维度（APPROVER/STEP/DEPARTMENT/PROCESS）。 */
+    @Comment("统计维度")
+    @Column(name = "scope", nullable = false, length = 20)
+    private String scope;
+
+    /** 维度ID（审批人ID/步骤ID/院系ID/流程ID）。 */
+    @Comment("维度ID")
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+
+    /** 进入进行中的任务数。 */
+    @Comment("进入进行中的任务数")
+    @Column(name = "activated_count", nullable = false)
+    private Long activatedCount = 0L;
+
+    /** 批准的任务数。 */
+    @Comment("批准的任务数")
+    @Column(name = "approved_count", nullable = false)
+    private Long approvedCount = 0L;
+
+    /** 拒绝的任务数。 */
+    @Comment("拒绝的任务数")
+    @Column(name = "rejected_count", nullable = false)
+    private Long rejectedCount = 0L;
+
+    /** 审批耗时直方图（秒，稀疏编码）。 */
+    @ToString.Exclude
+    @Comment("审批耗时直方图")
+    @Column(name = "latency_histogram", columnDefinition = "BLOB")
+    private byte[] latencyHistogram;
+
+    /**
+     * 合并一批增量
+     */
+    public void merge(long activated, long approved, long rejected, LatencyHistogram latency) {
+        this.activatedCount += activated;
+        this.approvedCount += approved;
+        this.rejectedCount += rejected;
+        if (latency.getTotalCount() > 0) {
+            LatencyHistogram merged = LatencyHistogram.fromBytes(latencyHistogram);
+            merged.merge(latency);
+            this.latencyHistogram = merged.toBytes();
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.learnworkagent.domain.approval.entity;
 
 import com.example.learnworkagent.common.BaseEntity;
+import com.example.learnworkagent.common.enums.ApprovalAssignmentModeEnum;
 import com.example.learnworkagent.common.enums.RoleEnum;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Comment;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /**
  * 审批步骤
@@ -13,6 +17,8 @@ import lombok.EqualsAndHashCode;
 @Data
 @EqualsAndHashCode(callSuper = true)
 @Entity
+@BatchSize(size = 50)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Comment("审批步骤表")
 @Table(name = "approval_stage")
 public class ApprovalStep extends BaseEntity {
@@ -23,7 +29,9 @@ public class ApprovalStep extends BaseEntity {
     /**
      * 流程ID
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Comment("流程ID")
     @JoinColumn(name = "process_id", nullable = false)
     private ApprovalProcess process;
@@ -56,6 +64,20 @@ public class ApprovalStep extends BaseEntity {
     @Column(name = "order_index", nullable = false)
     private Integer orderIndex;
 
+    /**
+     * 并行组（步骤顺序相邻且组名相同的步骤同时激活，全部通过后再进入下一步骤；为空表示串行步骤）
+     */
+    @Comment("并行组")
+    @Column(name = "parallel_group", length = 50)
+    private String parallelGroup;
+
+    /**
+     * 路由条件（为空表示总是参与审批，否则仅当申请人信息满足条件时参与，例如 leaveDays > 3）
+     */
+    @Comment("路由条件")
+    @Column(name = "routing_condition", length = 500)
+    private String routingCondition;
+
     /**
      * 审批类型（SINGLE-单人审批, MULTIPLE-多人审批）
      */
@@ -77,6 +99,13 @@ public class ApprovalStep extends BaseEntity {
     @Column(name = "approver_type", length = 20)
     private String approverType;
 
+    /**
+     * 分配方式（ALL-分配给全部审批人, LEAST_LOADED-分配给未处理任务最少的一位审批人；为空按 ALL 处理）
+     */
+    @Comment("分配方式（ALL-全部审批人, LEAST_LOADED-负载最低的审批人）")
+    @Column(name = "assignment_mode", length = 20)
+    private String assignmentMode;
+
     /**
      * 是否必须通过
      */
@@ -98,6 +127,27 @@ public class ApprovalStep extends BaseEntity {
     @Column(name = "department_id")
     private Long departmentId;
 
+    /**
+     * 催办时限（分钟，任务进入进行中后超过该时长未处理则提醒审批人）
+     */
+    @Comment("催办时限（分钟）")
+    @Column(name = "reminder_minutes")
+    private Integer reminderMinutes;
+
+    /**
+     * 升级时限（分钟，任务进入进行中后超过该时长未处理则升级通知）
+     */
+    @Comment("升级时限（分钟）")
+    @Column(name = "escalation_minutes")
+    private Integer escalationMinutes;
+
+    /**
+     * 升级通知对象ID（为空时通知申请人学院的院领导）
+     */
+    @Comment("升级通知对象ID")
+    @Column(name = "escalation_user_id")
+    private Long escalationUserId;
+
     public boolean isSingleApproval() {
         return APPROVAL_TYPE_SINGLE.equals(approvalType);
     }
@@ -129,4 +179,16 @@ public class ApprovalStep extends BaseEntity {
     public boolean hasAssignedApprover() {
         return approverUserId != null;
     }
+
+    public boolean isParallel() {
+        return parallelGroup != null && !parallelGroup.isBlank();
+    }
+
+    public boolean isLeastLoadedAssignment() {
+        return ApprovalAssignmentModeEnum.LEAST_LOADED.getCode().equals(assignmentMode);
+    }
+
+    public boolean hasSla() {
+        return reminderMinutes != null || escalationMinutes != null;
+    }
 }
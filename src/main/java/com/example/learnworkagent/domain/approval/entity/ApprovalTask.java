@@ -5,24 +5,39 @@ import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.Comment;
 
 import java.time.LocalDateTime;
 
 /**
- * 审批任务
+ * 审批任务。
+ * 关联的审批实例和步骤均为懒加载，列表类查询通过实体图 {@link #GRAPH_INSTANCE_AND_STEP} 一次连接抓取。
  */
 @Data
 @EqualsAndHashCode(callSuper = true)
 @Entity
+@NamedEntityGraph(name = ApprovalTask.GRAPH_INSTANCE_AND_STEP, attributeNodes = {
+        @NamedAttributeNode("instance"),
+        @NamedAttributeNode("step")
+})
 @Comment("审批任务表")
-@Table(name = "approval_task")
+@Table(name = "approval_task", indexes = {
+        @Index(name = "idx_task_approver_status", columnList = "approver_id, status")
+})
 public class ApprovalTask extends BaseEntity {
 
+    /**
+     * 实体图：同时抓取审批实例和步骤
+     */
+    public static final String GRAPH_INSTANCE_AND_STEP = "ApprovalTask.instanceAndStep";
+
     /**
      * 审批实例
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Comment("审批实例ID")
     @JoinColumn(name = "instance_id", nullable = false)
     private ApprovalInstance instance;
@@ -30,7 +45,9 @@ public class ApprovalTask extends BaseEntity {
     /**
      * 审批步骤
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Comment("审批步骤ID")
     @JoinColumn(name = "step_id", nullable = false)
     private ApprovalStep step;
@@ -43,7 +60,7 @@ public class ApprovalTask extends BaseEntity {
     private Long approverId;
 
     /**
-     * 审批状态（PENDING-待审批, PROCESSING-进行中, APPROVED-已批准, REJECTED-已拒绝）
+     * 审批状态（PENDING-待审批, PROCESSING-进行中, APPROVED-已批准, REJECTED-已拒绝, SKIPPED-已跳过）
      */
     @Comment("审批状态")
     @Column(name = "status", nullable = false, length = 20)
@@ -70,6 +87,28 @@ public class ApprovalTask extends BaseEntity {
     @Column(name = "task_order")
     private Integer taskOrder;
 
+    /**
+     * 进入进行中的时间（SLA 计时起点）
+     */
+    @Comment("进入进行中的时间")
+    @Column(name = "activated_time")
+    private LocalDateTime activatedTime;
+
+    /**
+     * SLA 级别（0-未超时, 1-已催办, 2-已升级）
+     */
+    @Comment("SLA级别（0-未超时, 1-已催办, 2-已升级）")
+    @Column(name = "sla_level", nullable = false, columnDefinition = "int default 0")
+    private Integer slaLevel = 0;
+
+    /**
+     * 乐观锁版本号
+     */
+    @Version
+    @Comment("乐观锁版本号")
+    @Column(name = "lock_version", nullable = false, columnDefinition = "bigint default 0")
+    private Long lockVersion;
+
     public boolean isPending() {
         return ApprovalStatusEnum.PENDING.getCode().equals(status);
     }
@@ -86,6 +125,14 @@ public class ApprovalTask extends BaseEntity {
         return ApprovalStatusEnum.REJECTED.getCode().equals(status);
     }
 
+    public boolean isSkipped() {
+        return ApprovalStatusEnum.SKIPPED.getCode().equals(status);
+    }
+
+    public boolean isOpen() {
+        return isPending() || isProcessing();
+    }
+
     public void markPending() {
         this.status = ApprovalStatusEnum.PENDING.getCode();
         this.comment = null;
@@ -96,6 +143,8 @@ public class ApprovalTask extends BaseEntity {
         this.status = ApprovalStatusEnum.PROCESSING.getCode();
         this.comment = null;
         this.approvalTime = null;
+        this.activatedTime = LocalDateTime.now();
+        this.slaLevel = 0;
     }
 
     public void markApproved(String comment) {
@@ -109,4 +158,12 @@ public class ApprovalTask extends BaseEntity {
         this.comment = comment;
         this.approvalTime = LocalDateTime.now();
     }
+
+    /**
+     * 步骤已由其他审批人完成或实例已结束，本任务无需再处理
+     */
+    public void markSkipped(LocalDateTime time) {
+        this.status = ApprovalStatusEnum.SKIPPED.getCode();
+        this.approvalTime = time;
+    }
 }
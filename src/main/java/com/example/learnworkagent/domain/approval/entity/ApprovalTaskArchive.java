@@ -0,0 +1,77 @@
+package com.example.learnworkagent.domain.approval.entity;
+
+import com.example.learnworkagent.common.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * 审批任务归档。
+ * 结构与审批任务表一致（主键沿用原任务ID），随所属实例一起归档，只读。
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Comment("审批任务归档表")
+@Table(name = "approval_task_archive", indexes = {
+        @Index(name = "idx_task_archive_instance", columnList = "instance_id"),
+        @Index(name = "idx_task_archive_approver", columnList = "approver_id, status")
+})
+public class ApprovalTaskArchive extends BaseEntity {
+
+    /** 审批实例ID。 */
+    @Comment("审批实例ID")
+    @Column(name = "instance_id", nullable = false)
+    private Long instanceId;
+
+    /** 审批步骤ID。 */
+    @Comment("审批步骤ID")
+    @Column(name = "step_id", nullable = false)
+    private Long stepId;
+
+    /** 审批人ID。 */
+    @Comment("审批人ID")
+    @Column(name = "approver_id", nullable = false)
+    private Long approverId;
+
+    /** 审批状态。 */
+    @Comment("审批状态")
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    /** 审批意见。 */
+    @Comment("审批意见")
+    @Column(name = "comment", length = 500)
+    private String comment;
+
+    /** 审批时间。 */
+    @Comment("审批时间")
+    @Column(name = "approval_time")
+    private LocalDateTime approvalTime;
+
+    /** 任务顺序。 */
+    @Comment("任务顺序")
+    @Column(name = "task_order")
+    private Integer taskOrder;
+
+    /** 进入进行中的时间。 */
+    @Comment("进入进行中的时间")
+    @Column(name = "activated_time")
+    private LocalDateTime activatedTime;
+
+    /** SLA 级别。 */
+    @Comment("SLA级别")
+    @Column(name = "sla_level", nullable = false, columnDefinition = "int default 0")
+    private Integer slaLevel;
+
+    /** 归档时的乐观锁版本号。 */
+    @Comment("乐观锁版本号")
+    @Column(name = "lock_version", nullable = false, columnDefinition = "bigint default 0")
+    private Long lockVersion;
+}
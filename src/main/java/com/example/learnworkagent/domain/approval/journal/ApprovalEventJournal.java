@@ -0,0 +1,435 @@
+package com.example.learnworkagent.domain.approval.journal;
+
+import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
+import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 审批事件日志（仅追加）。
+ * 任务/实例状态变化以定长二进制记录顺序写入内存映射的分段文件，提供按实例的时间线查询和全量重放。
+ * 记录格式：[int 正文长度][int CRC32][long 序号][long 时间戳][byte 类型][long 实例ID][long 任务ID]
+ * [int 步骤顺序][long 操作人ID][short 意见字节数][意见 UTF-8]。
+ * 事务内产生的事件在事务提交后统一写入，回滚（含乐观锁重试）的事务不会留下记录。
+ * 日志文件在本节点本地磁盘，每个节点只记录在本节点提交的事件：多实例部署时各节点的重放结果
+ * 只覆盖经由该节点处理的审批，不能作为跨节点的完整审计记录（审批时间线由数据库的任务记录生成）。
+ * 内存中只为进行中的实例保留记录位置索引，实例结束后移除；已结束实例的重放按顺序扫描日志分段。
+ */
+@Slf4j
+@Component
+public class ApprovalEventJournal {
+
+    private static final String SEGMENT_PREFIX = "approval-journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_BODY_BYTES = 8 + 8 + 1 + 8 + 8 + 4 + 8 + 2;
+    private static final int MAX_COMMENT_BYTES = 2048;
+    private static final long NULL_ID = 0L;
+    private static final int NULL_STEP = Integer.MIN_VALUE;
+    private static final short NULL_COMMENT = -1;
+
+    @Value("${approval.journal.dir:./data/approval-journal}")
+    private String journalDir;
+
+    @Value("${approval.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    /** 每次提交写入后是否强制刷盘（关闭时依赖操作系统回写，进程崩溃不丢数据） */
+    @Value("${approval.journal.force-on-commit:false}")
+    private boolean forceOnCommit;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Long, long[]> instanceIndex = new ConcurrentHashMap<>();
+    private Segment active;
+    private long nextSequence = 1;
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Path dir = Paths.get(journalDir);
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files = stream.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+        Set<Long> completed = new HashSet<>();
+        for (Path file : files) {
+            Segment segment = Segment.open(segments.size(), file, Files.size(file));
+            segments.add(segment);
+            recover(segment, completed);
+        }
+        completed.forEach(instanceIndex::remove);
+        if (segments.isEmpty()) {
+            roll();
+        } else {
+            active = segments.get(segments.size() - 1);
+        }
+        log.info("审批事件日志已打开，目录: {}, 分段数: {}, 下一序号: {}, 实例数: {}",
+                dir.toAbsolutePath(), segments.size(), nextSequence, instanceIndex.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.close();
+        }
+    }
+
+    /**
+     * 记录任务状态变化
+     */
+    public void recordTask(ApprovalEventType type, ApprovalTask task) {
+        enqueue(new PendingEvent(type, task.getInstance().getId(), task.getId(),
+                task.getStep().getStepOrder(), task.getApproverId(), task.getComment()));
+    }
+
+    /**
+     * 记录实例状态变化
+     */
+    public void recordInstance(ApprovalEventType type, ApprovalInstance instance, Long operatorId, String comment) {
+        enqueue(new PendingEvent(type, instance.getId(), null, instance.getCurrentStep(), operatorId, comment));
+    }
+
+    /**
+     * 查询实例的审批时间线（按写入顺序）
+     */
+    public List<ApprovalJournalEvent> timeline(Long instanceId) {
+        long[] positions = instanceIndex.get(instanceId);
+        if (positions == null) {
+            List<ApprovalJournalEvent> events = new ArrayList<>();
+            replay(1, event -> {
+                if (instanceId.equals(event.instanceId())) {
+                    events.add(event);
+                }
+            });
+            return events;
+        }
+        List<ApprovalJournalEvent> events = new ArrayList<>(positions.length);
+        for (long position : positions) {
+            Segment segment;
+            synchronized (this) {
+                segment = segments.get((int) (position >>> 32));
+            }
+            events.add(decode(segment.buffer, (int) position));
+        }
+        return events;
+    }
+
+    /**
+     * 重放实例事件，重建实例状态；日志中没有该实例时返回 null
+     */
+    public ApprovalInstanceSnapshot rebuild(Long instanceId) {
+        List<ApprovalJournalEvent> events = timeline(instanceId);
+        if (events.isEmpty()) {
+            return null;
+        }
+        String status = null;
+        Integer currentStep = null;
+        Map<Long, String> taskStatuses = new LinkedHashMap<>();
+        for (ApprovalJournalEvent event : events) {
+            ApprovalEventType type = event.type();
+            if (type.isTaskEvent()) {
+                taskStatuses.put(event.taskId(), type.getStatus().getCode());
+                if (type == ApprovalEventType.TASK_PROCESSING) {
+                    currentStep = event.stepOrder();
+                }
+            } else {
+                status = type.getStatus().getCode();
+                if (event.stepOrder() != null) {
+                    currentStep = event.stepOrder();
+                }
+            }
+        }
+        return new ApprovalInstanceSnapshot(instanceId, status, currentStep, taskStatuses,
+                events.get(events.size() - 1).sequence(), false);
+    }
+
+    /**
+     * 从指定序号开始重放全部事件
+     */
+    public void replay(long fromSequence, Consumer<ApprovalJournalEvent> consumer) {
+        List<Segment> snapshot;
+        int activeLimit;
+        synchronized (this) {
+            snapshot = new ArrayList<>(segments);
+            activeLimit = active.writePosition;
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            boolean last = i == snapshot.size() - 1;
+            if (!last && snapshot.get(i + 1).baseSequence <= fromSequence) {
+                continue;
+            }
+            Segment segment = snapshot.get(i);
+            int limit = last ? activeLimit : segment.writePosition;
+            int offset = 0;
+            while (offset < limit) {
+                ApprovalJournalEvent event = decode(segment.buffer, offset);
+                if (event.sequence() >= fromSequence) {
+                    consumer.accept(event);
+                }
+                offset += HEADER_BYTES + segment.buffer.getInt(offset);
+            }
+        }
+    }
+
+    private void enqueue(PendingEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appendQuietly(List.of(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<PendingEvent> buffered = (List<PendingEvent>) TransactionSynchronizationManager.getResource(this);
+        if (buffered == null) {
+            List<PendingEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    // 内层独立事务期间解绑，内层的变更记入自己的缓冲区
+                    TransactionSynchronizationManager.unbindResource(ApprovalEventJournal.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(ApprovalEventJournal.this, events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ApprovalEventJournal.this);
+                    if (status == STATUS_COMMITTED) {
+                        appendQuietly(events);
+                    }
+                }
+            });
+            buffered = events;
+        }
+        buffered.add(event);
+    }
+
+    private void appendQuietly(List<PendingEvent> events) {
+        try {
+            append(events);
+        } catch (RuntimeException exception) {
+            log.error("写入审批事件日志失败，事件数: {}", events.size(), exception);
+        }
+    }
+
+    private synchronized void append(List<PendingEvent> events) {
+        long timestamp = System.currentTimeMillis();
+        List<Long> completed = new ArrayList<>();
+        for (PendingEvent event : events) {
+            byte[] comment = encodeComment(event.comment());
+            int bodyLength = FIXED_BODY_BYTES + comment.length;
+            // 预留 4 字节写入结束标记
+            if (active.writePosition + HEADER_BYTES + bodyLength + 4 > active.buffer.capacity()) {
+                roll();
+            }
+            int offset = active.writePosition;
+            MappedByteBuffer buffer = active.buffer;
+            int position = offset + HEADER_BYTES;
+            buffer.putLong(position, nextSequence);
+            buffer.putLong(position + 8, timestamp);
+            buffer.put(position + 16, event.type().getCode());
+            buffer.putLong(position + 17, orNull(event.instanceId()));
+            buffer.putLong(position + 25, orNull(event.taskId()));
+            buffer.putInt(position + 33, event.stepOrder() == null ? NULL_STEP : event.stepOrder());
+            buffer.putLong(position + 37, orNull(event.operatorId()));
+            buffer.putShort(position + 45, event.comment() == null ? NULL_COMMENT : (short) comment.length);
+            buffer.put(position + FIXED_BODY_BYTES, comment);
+            buffer.putInt(offset + 4, checksum(buffer, position, bodyLength));
+            buffer.putInt(offset + HEADER_BYTES + bodyLength, 0);
+            // 长度最后写入，读到非零长度即表示记录完整
+            buffer.putInt(offset, bodyLength);
+
+            active.writePosition = offset + HEADER_BYTES + bodyLength;
+            index(event.instanceId(), active.index, offset);
+            if (isCompletion(event.type()) && event.instanceId() != null) {
+                completed.add(event.instanceId());
+            }
+            nextSequence++;
+        }
+        // 同一事务中实例结束后仍可能有任务事件（跳过剩余任务），整批写完再移除索引
+        completed.forEach(instanceIndex::remove);
+        if (forceOnCommit) {
+            active.buffer.force();
+        }
+    }
+
+    private void recover(Segment segment, Set<Long> completed) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_BYTES <= buffer.capacity()) {
+            int bodyLength = buffer.getInt(offset);
+            if (bodyLength < FIXED_BODY_BYTES || offset + HEADER_BYTES + bodyLength > buffer.capacity()) {
+                break;
+            }
+            if (checksum(buffer, offset + HEADER_BYTES, bodyLength) != buffer.getInt(offset + 4)) {
+                log.warn("审批事件日志记录校验失败，截断于 {} 偏移 {}", segment.path.getFileName(), offset);
+                break;
+            }
+            ApprovalJournalEvent event = decode(buffer, offset);
+            index(event.instanceId(), segment.index, offset);
+            if (isCompletion(event.type()) && event.instanceId() != null) {
+                completed.add(event.instanceId());
+            }
+            nextSequence = Math.max(nextSequence, event.sequence() + 1);
+            offset += HEADER_BYTES + bodyLength;
+        }
+        segment.writePosition = offset;
+        nextSequence = Math.max(nextSequence, segment.baseSequence);
+    }
+
+    private void roll() {
+        if (active != null) {
+            active.buffer.force();
+        }
+        String name = SEGMENT_PREFIX + String.format("%020d", nextSequence) + SEGMENT_SUFFIX;
+        Segment segment = Segment.open(segments.size(), Paths.get(journalDir, name), (long) segmentSizeMb * 1024 * 1024);
+        segments.add(segment);
+        active = segment;
+        log.info("审批事件日志切换分段: {}", name);
+    }
+
+    private void index(Long instanceId, int segmentIndex, int offset) {
+        if (instanceId == null) {
+            return;
+        }
+        long position = ((long) segmentIndex << 32) | offset;
+        instanceIndex.merge(instanceId, new long[]{position}, (positions, added) -> {
+            long[] merged = Arrays.copyOf(positions, positions.length + 1);
+            merged[positions.length] = position;
+            return merged;
+        });
+    }
+
+    private static boolean isCompletion(ApprovalEventType type) {
+        return type == ApprovalEventType.INSTANCE_APPROVED || type == ApprovalEventType.INSTANCE_REJECTED;
+    }
+
+    private static ApprovalJournalEvent decode(ByteBuffer buffer, int offset) {
+        int position = offset + HEADER_BYTES;
+        short commentLength = buffer.getShort(position + 45);
+        String comment = null;
+        if (commentLength != NULL_COMMENT) {
+            byte[] bytes = new byte[commentLength];
+            buffer.get(position + FIXED_BODY_BYTES, bytes);
+            comment = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int stepOrder = buffer.getInt(position + 33);
+        return new ApprovalJournalEvent(
+                buffer.getLong(position),
+                buffer.getLong(position + 8),
+                ApprovalEventType.fromCode(buffer.get(position + 16)),
+                toNullable(buffer.getLong(position + 17)),
+                toNullable(buffer.getLong(position + 25)),
+                stepOrder == NULL_STEP ? null : stepOrder,
+                toNullable(buffer.getLong(position + 37)),
+                comment);
+    }
+
+    private static int checksum(ByteBuffer buffer, int position, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position, length));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encodeComment(String comment) {
+        if (comment == null) {
+            return new byte[0];
+        }
+        byte[] bytes = comment.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_COMMENT_BYTES) {
+            return bytes;
+        }
+        // 截断位置落在多字节字符中间时回退到该字符的首字节之前
+        int end = MAX_COMMENT_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+
+    private static long orNull(Long value) {
+        return value == null ? NULL_ID : value;
+    }
+
+    private static Long toNullable(long value) {
+        return value == NULL_ID ? null : value;
+    }
+
+    private record PendingEvent(ApprovalEventType type, Long instanceId, Long taskId,
+                                Integer stepOrder, Long operatorId, String comment) {
+    }
+
+    /**
+     * 日志分段文件，整个文件映射到内存
+     */
+    private static final class Segment {
+
+        private final int index;
+        private final Path path;
+        private final long baseSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private volatile int writePosition;
+
+        private Segment(int index, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            String name = path.getFileName().toString();
+            this.baseSequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(int index, Path path, long size) {
+            try {
+                FileChannel channel = FileChannel.open(path,
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                return new Segment(index, path, channel, buffer);
+            } catch (IOException exception) {
+                throw new UncheckedIOException("打开审批事件日志分段失败: " + path, exception);
+            }
+        }
+
+        void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException exception) {
+                log.warn("关闭审批事件日志分段失败: {}", path, exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.learnworkagent.domain.approval.journal;
+
+import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
+import lombok.Getter;
+
+/**
+ * 审批事件类型，code 为日志文件中的单字节编码，已写入的编码不可修改。
+ */
+@Getter
+public enum ApprovalEventType {
+
+    INSTANCE_CREATED((byte) 1, ApprovalStatusEnum.PENDING),
+    TASK_PENDING((byte) 2, ApprovalStatusEnum.PENDING),
+    TASK_PROCESSING((byte) 3, ApprovalStatusEnum.PROCESSING),
+    TASK_APPROVED((byte) 4, ApprovalStatusEnum.APPROVED),
+    TASK_REJECTED((byte) 5, ApprovalStatusEnum.REJECTED),
+    INSTANCE_APPROVED((byte) 6, ApprovalStatusEnum.APPROVED),
+    INSTANCE_REJECTED((byte) 7, ApprovalStatusEnum.REJECTED),
+    TASK_SKIPPED((byte) 8, ApprovalStatusEnum.SKIPPED);
+
+    private static final ApprovalEventType[] BY_CODE = new ApprovalEventType[9];
+
+    static {
+        for (ApprovalEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+    private final ApprovalStatusEnum status;
+
+    ApprovalEventType(byte code, ApprovalStatusEnum status) {
+        this.code = code;
+        this.status = status;
+    }
+
+    public boolean isTaskEvent() {
+        return this != INSTANCE_CREATED && this != INSTANCE_APPROVED && this != INSTANCE_REJECTED;
+    }
+
+    public static ApprovalEventType fromCode(byte code) {
+        ApprovalEventType type = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("未知的审批事件类型编码: " + code);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.learnworkagent.domain.approval.journal;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 由审批日志重放得到的实例状态。
+ * 日志只包含在本节点提交的事件，complete 表示重放结果与数据库中的实例状态和任务状态一致；
+ * 为 false 时本节点日志缺少该实例的部分事件（由其他节点处理），结果不完整。
+ *
+ * @param instanceId   审批实例ID
+ * @param status       实例状态
+ * @param currentStep  当前步骤
+ * @param taskStatuses 任务ID -> 任务状态（按首次出现顺序）
+ * @param lastSequence 最后一条事件序号
+ * @param complete     是否已与数据库核对一致
+ */
+public record ApprovalInstanceSnapshot(Long instanceId,
+                                       String status,
+                                       Integer currentStep,
+                                       Map<Long, String> taskStatuses,
+                                       long lastSequence,
+                                       boolean complete) {
+
+    /**
+     * 与数据库中的实例状态和任务状态核对
+     *
+     * @param expectedStatus       数据库中的实例状态
+     * @param expectedTaskStatuses 数据库中的任务ID -> 任务状态
+     * @return 带核对结果的快照
+     */
+    public ApprovalInstanceSnapshot verify(String expectedStatus, Map<Long, String> expectedTaskStatuses) {
+        boolean matched = Objects.equals(status, expectedStatus) && taskStatuses.equals(expectedTaskStatuses);
+        return new ApprovalInstanceSnapshot(instanceId, status, currentStep, taskStatuses, lastSequence, matched);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.learnworkagent.domain.approval.journal;
+
+/**
+ * 审批日志事件。
+ *
+ * @param sequence   全局递增序号
+ * @param timestamp  事件时间（毫秒时间戳）
+ * @param type       事件类型
+ * @param instanceId 审批实例ID
+ * @param taskId     审批任务ID（实例级事件为 null）
+ * @param stepOrder  步骤顺序
+ * @param operatorId 审批人/操作人ID
+ * @param comment    审批意见
+ */
+public record ApprovalJournalEvent(long sequence,
+                                   long timestamp,
+                                   ApprovalEventType type,
+                                   Long instanceId,
+                                   Long taskId,
+                                   Integer stepOrder,
+                                   Long operatorId,
+                                   String comment) {
+}
@@ -0,0 +1,202 @@
+package com.example.learnworkagent.domain.approval.reassign;
+
+import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
+import com.example.learnworkagent.common.enums.NotificationBusinessTypeEnum;
+import com.example.learnworkagent.common.enums.NotificationChannelEnum;
+import com.example.learnworkagent.common.enums.NotificationTypeEnum;
+import com.example.learnworkagent.common.enums.RoleEnum;
+import com.example.learnworkagent.common.enums.UserStatusEnum;
+import com.example.learnworkagent.common.exception.BusinessException;
+import com.example.learnworkagent.domain.approval.assignment.ApproverLoadBalancer;
+import com.example.learnworkagent.domain.approval.dto.ApprovalReassignResult;
+import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
+import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import com.example.learnworkagent.domain.approval.journal.ApprovalEventJournal;
+import com.example.learnworkagent.domain.approval.journal.ApprovalEventType;
+import com.example.learnworkagent.domain.approval.repository.ApprovalTaskRepository;
+import com.example.learnworkagent.domain.notification.entity.NotificationMessage;
+import com.example.learnworkagent.domain.notification.entity.NotificationRetraction;
+import com.example.learnworkagent.domain.notification.service.NotificationService;
+import com.example.learnworkagent.domain.process.projection.ProcessItemProjector;
+import com.example.learnworkagent.domain.user.entity.User;
+import com.example.learnworkagent.domain.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 审批任务批量转交。
+ * 学工人员离职或调岗时，把其名下全部未关闭（待审批、进行中）的任务转给接替人：按主键游标分批，
+ * 每批一条 UPDATE、一个短事务，只锁定本批行；新审批人在同一实例同一步骤已有任务的记录保留原状，需人工处理。
+ * 原审批人的待办随每批事务提交撤回，新审批人在全部转交完成后只收到一条汇总待办通知。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApprovalTaskReassigner {
+
+    private static final List<String> OPEN_STATUSES = List.of(
+            ApprovalStatusEnum.PENDING.getCode(),
+            ApprovalStatusEnum.PROCESSING.getCode()
+    );
+    private static final List<String> NOTIFICATION_CHANNELS = List.of(
+            NotificationChannelEnum.SITE.getCode(),
+            NotificationChannelEnum.EMAIL.getCode()
+    );
+
+    private final ApprovalTaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final ApprovalEventJournal eventJournal;
+    private final ApproverLoadBalancer loadBalancer;
+    private final NotificationService notificationService;
+    private final ProcessItemProjector processItemProjector;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${approval.reassign.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * 把原审批人名下的未关闭任务全部转交给新审批人
+     *
+     * @param operatorId     操作人ID（须为管理员）
+     * @param fromApproverId 原审批人ID
+     * @param toApproverId   新审批人ID
+     * @param reason         转交原因
+     * @return 转交结果
+     */
+    public ApprovalReassignResult reassign(Long operatorId, Long fromApproverId, Long toApproverId, String reason) {
+        User operator = userRepository.findById(operatorId)
+                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "用户不存在"));
+        if (!RoleEnum.ADMIN.getCode().equals(operator.getRole())) {
+            throw new BusinessException(ResultCode.FORBIDDEN, "仅管理员可转交审批任务");
+        }
+        if (fromApproverId.equals(toApproverId)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "原审批人与新审批人不能相同");
+        }
+        User target = userRepository.findById(toApproverId)
+                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "新审批人不存在"));
+        if (target.getStatus() != UserStatusEnum.ACTIVE
+                || Arrays.stream(RoleEnum.getStaffRoles()).noneMatch(role -> role.getCode().equals(target.getRole()))) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "新审批人必须是在职的学工人员");
+        }
+
+        long start = System.currentTimeMillis();
+        ApprovalReassignResult result = new ApprovalReassignResult();
+        result.setFromApproverId(fromApproverId);
+        result.setToApproverId(toApproverId);
+        Set<String> businessTypes = new LinkedHashSet<>();
+        long afterId = 0L;
+        while (true) {
+            long cursor = afterId;
+            Chunk chunk = transactionTemplate.execute(status -> moveChunk(fromApproverId, toApproverId, cursor));
+            if (chunk == null || chunk.lastId() == null) {
+                break;
+            }
+            result.setMovedCount(result.getMovedCount() + chunk.moved());
+            result.setProcessingCount(result.getProcessingCount() + chunk.processing());
+            businessTypes.addAll(chunk.businessTypes());
+            afterId = chunk.lastId();
+        }
+        result.setRemainingCount(taskRepository.countByApproverIdAndStatusIn(fromApproverId, OPEN_STATUSES));
+
+        if (result.getProcessingCount() > 0) {
+            User source = userRepository.findById(fromApproverId).orElse(null);
+            transactionTemplate.executeWithoutResult(status -> notificationService.sendApprovalNotifications(
+                    List.of(buildNotification(target, source, result.getProcessingCount(), businessTypes, reason))));
+        }
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("审批任务转交完成，操作人: {}, 原审批人: {}, 新审批人: {}, 转交数: {}, 进行中: {}, 剩余: {}, 耗时: {}ms",
+                operatorId, fromApproverId, toApproverId, result.getMovedCount(), result.getProcessingCount(),
+                result.getRemainingCount(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * 转交一批：查询主键、批量 UPDATE，再读回实际转交的任务记录事件日志并撤回原审批人的待办
+     */
+    private Chunk moveChunk(Long fromApproverId, Long toApproverId, long afterId) {
+        List<Long> ids = taskRepository.findReassignableTaskIds(fromApproverId, toApproverId, OPEN_STATUSES,
+                afterId, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return new Chunk(null, 0, 0, Set.of());
+        }
+        int updated = taskRepository.reassignOpenTasks(ids, fromApproverId, toApproverId, OPEN_STATUSES, LocalDateTime.now());
+        if (updated == 0) {
+            return new Chunk(ids.get(ids.size() - 1), 0, 0, Set.of());
+        }
+
+        // 查询与更新之间被处理的任务不会被更新，读回后按新审批人筛选
+        int processing = 0;
+        Set<String> businessTypes = new LinkedHashSet<>();
+        List<NotificationRetraction> retractions = new ArrayList<>();
+        for (ApprovalTask task : taskRepository.findAllWithInstanceAndStepByIdIn(ids)) {
+            if (!toApproverId.equals(task.getApproverId()) || !task.isOpen()) {
+                continue;
+            }
+            // 以新审批人重新记录任务当前状态，时间线和重放都能看到转交后的审批人
+            if (task.isProcessing()) {
+                eventJournal.recordTask(ApprovalEventType.TASK_PROCESSING, task);
+                ApprovalInstance instance = task.getInstance();
+                retractions.add(new NotificationRetraction(fromApproverId, instance.getBusinessType(),
+                        instance.getBusinessType(), instance.getBusinessId()));
+                businessTypes.add(instance.getBusinessType());
+                processItemProjector.taskWithdrawn(fromApproverId, instance);
+                processItemProjector.taskActivated(task);
+                processing++;
+            } else {
+                eventJournal.recordTask(ApprovalEventType.TASK_PENDING, task);
+            }
+        }
+        loadBalancer.recordTransferred(fromApproverId, toApproverId, processing);
+        notificationService.retractApprovalNotifications(retractions);
+        return new Chunk(ids.get(ids.size() - 1), updated, processing, businessTypes);
+    }
+
+    private NotificationMessage buildNotification(User target, User source, int count,
+                                                  Set<String> businessTypes, String reason) {
+        String type = businessTypes.size() == 1 ? businessTypes.iterator().next() : NotificationTypeEnum.SYSTEM.getCode();
+        String sourceName = source != null ? source.getRealName() : "原审批人";
+        return NotificationMessage.builder()
+                .userId(target.getId())
+                .phone(target.getPhone())
+                .email(target.getEmail())
+                .wechatOpenId(target.getWechatOpenId())
+                .weworkUserId(target.getWeworkUserId())
+                .type(type)
+                .title(String.format("您有%d条审批任务由%s转交", count, sourceName))
+                .content(String.format("%s名下的%d条待审批申请（涉及%s）已转交给您，请及时处理。%s",
+                        sourceName, count, businessTypes.stream().map(this::resolveBusinessName).collect(Collectors.joining("、")),
+                        reason != null && !reason.isBlank() ? "转交原因：" + reason : ""))
+                .businessType(type)
+                .channels(NOTIFICATION_CHANNELS)
+                .receiverName(target.getRealName())
+                .build();
+    }
+
+    private String resolveBusinessName(String businessType) {
+        return NotificationBusinessTypeEnum.LEAVE.getCode().equals(businessType) ? "请假申请" : "奖助申请";
+    }
+
+    /**
+     * 一批转交的结果
+     *
+     * @param lastId        本批最后一个任务ID（下一批的游标），没有可转交任务时为 null
+     * @param moved         实际转交的任务数
+     * @param processing    其中进行中的任务数
+     * @param businessTypes 进行中任务涉及的业务类型
+     */
+    private record Chunk(Long lastId, int moved, int processing, Set<String> businessTypes) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.learnworkagent.domain.approval.registry;
+
+import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.exception.BusinessException;
+import com.example.learnworkagent.domain.approval.entity.ApprovalProcess;
+import com.example.learnworkagent.domain.approval.entity.ApprovalStep;
+import com.example.learnworkagent.domain.approval.repository.ApprovalProcessRepository;
+import com.example.learnworkagent.domain.approval.repository.ApprovalStepRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 审批流程定义注册表。
+ * 按流程类型（启用的流程）和流程ID缓存编译后的流程定义，审批流转时不再访问流程表和步骤表。
+ * 流程配置变更时通过 Redis 频道广播失效消息，所有节点同时清空本地缓存。
+ * 缓存的是编译时复制的流程和步骤快照，不持有任何持久化上下文中的实体，调用方拿到的也是快照的副本。
+ * 每次清空缓存递增缓存代数，编译开始后发生过清空的结果只返回给本次调用，不写入缓存，
+ * 避免清空前开始的编译把旧定义重新放回缓存。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApprovalProcessRegistry implements MessageListener {
+
+    /**
+     * 流程定义失效广播频道
+     */
+    public static final String INVALIDATION_CHANNEL = "approval:process:invalidate";
+
+    private final ApprovalProcessRepository processRepository;
+    private final ApprovalStepRepository stepRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Map<String, CompiledApprovalProcess> enabledByType = new ConcurrentHashMap<>();
+    private final Map<Long, CompiledApprovalProcess> byProcessId = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 获取指定类型当前启用的流程定义。
+     *
+     * @param processType 流程类型
+     * @return 编译后的流程
+     */
+    public CompiledApprovalProcess getEnabled(String processType) {
+        CompiledApprovalProcess cached = enabledByType.get(processType);
+        if (cached != null) {
+            return cached;
+        }
+        long compiledGeneration = generation.get();
+        ApprovalProcess process = processRepository.findByProcessTypeAndEnabledTrue(processType)
+                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "未找到启用的审批流程: " + processType));
+        CompiledApprovalProcess compiled = compile(process);
+        publish(byProcessId, compiled.getProcessId(), compiled, compiledGeneration);
+        return publish(enabledByType, processType, compiled, compiledGeneration);
+    }
+
+    /**
+     * 根据流程ID获取流程定义（已创建实例按其绑定的流程流转）。
+     *
+     * @param processId 流程ID
+     * @return 编译后的流程
+     */
+    public CompiledApprovalProcess getByProcessId(Long processId) {
+        CompiledApprovalProcess cached = byProcessId.get(processId);
+        if (cached != null) {
+            return cached;
+        }
+        long compiledGeneration = generation.get();
+        ApprovalProcess process = processRepository.findById(processId)
+                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "流程不存在: " + processId));
+        return publish(byProcessId, processId, compile(process), compiledGeneration);
+    }
+
+    /**
+     * 流程配置变更后调用，清空本节点缓存并通知其他节点。
+     */
+    public void invalidate() {
+        evictLocal();
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, Long.toString(System.currentTimeMillis()));
+        } catch (Exception exception) {
+            log.error("广播审批流程失效消息失败", exception);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        log.info("收到审批流程失效消息，清空本地流程定义缓存");
+        evictLocal();
+    }
+
+    private void evictLocal() {
+        // 先递增代数再清空：清空前开始的编译在写入时必然看到新的代数
+        generation.incrementAndGet();
+        enabledByType.clear();
+        byProcessId.clear();
+    }
+
+    /**
+     * 编译期间缓存未被清空时写入缓存，已有其他线程写入时以缓存中的为准。
+     * 代数在 compute 内比较，与 clear 对同一分段加锁，比较通过后写入的条目一定会被随后的清空移除
+     */
+    private <K> CompiledApprovalProcess publish(Map<K, CompiledApprovalProcess> cache, K key,
+                                                CompiledApprovalProcess compiled, long compiledGeneration) {
+        CompiledApprovalProcess published = cache.compute(key, (ignored, current) -> {
+            if (current != null) {
+                return current;
+            }
+            return generation.get() == compiledGeneration ? compiled : null;
+        });
+        if (published == null) {
+            log.info("审批流程定义在编译期间失效，本次结果不写入缓存，key: {}", key);
+            return compiled;
+        }
+        return published;
+    }
+
+    private CompiledApprovalProcess compile(ApprovalProcess process) {
+        // 编译时复制为快照，查询出的实体仍留在调用方的持久化上下文中
+        List<ApprovalStep> steps = stepRepository.findByProcessOrderByStepOrderAsc(process);
+        CompiledApprovalProcess compiled = CompiledApprovalProcess.compile(process, steps);
+        log.info("编译审批流程定义，processId: {}, processType: {}, 步骤数: {}",
+                process.getId(), process.getProcessType(), compiled.getSteps().size());
+        return compiled;
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.learnworkagent.domain.approval.registry;
+
+import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.enums.ApprovalAssignmentModeEnum;
+import com.example.learnworkagent.common.exception.BusinessException;
+import com.example.learnworkagent.domain.approval.entity.ApprovalProcess;
+import com.example.learnworkagent.domain.approval.entity.ApprovalStep;
+import com.example.learnworkagent.domain.approval.rule.ApplicantContext;
+import com.example.learnworkagent.domain.approval.rule.RoutingRule;
+import com.example.learnworkagent.domain.approval.rule.RoutingRuleCompiler;
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 编译后的审批流程定义（只读）。
+ * 步骤按 stepOrder 升序排列，相邻且并行组相同的步骤合并为一个阶段（并行分支），其余步骤各自成为一个阶段。
+ * 预先计算好每个步骤所在阶段的起止下标和下一阶段的起始下标，流转时无需再查询步骤表。
+ * 步骤的路由条件在编译时转换为谓词，按申请人信息求值为 false 的步骤不参与该实例的审批；
+ * 阶段内的分支全部不适用时整个阶段被跳过。
+ * 编译时把流程和步骤复制为不属于任何持久化上下文的快照，对外返回的流程和步骤都是快照的副本，
+ * 调用方修改返回值不会影响其他请求；副本保留主键，可直接作为任务、实例的关联引用。
+ */
+public final class CompiledApprovalProcess {
+
+    private static final int NO_NEXT = -1;
+
+    private final ApprovalProcess process;
+    private final ApprovalStep[] steps;
+    private final int[] stepOrders;
+    private final int[] stageStarts;
+    private final int[] stageEnds;
+    private final RoutingRule[] rules;
+
+    private CompiledApprovalProcess(ApprovalProcess process, ApprovalStep[] steps) {
+        this.process = process;
+        this.steps = steps;
+        this.stepOrders = new int[steps.length];
+        this.stageStarts = new int[steps.length];
+        this.stageEnds = new int[steps.length];
+        this.rules = new RoutingRule[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            stepOrders[i] = steps[i].getStepOrder();
+            rules[i] = RoutingRuleCompiler.compile(steps[i].getRoutingCondition());
+            stageStarts[i] = i > 0 && sameStage(steps[i - 1], steps[i]) ? stageStarts[i - 1] : i;
+        }
+        for (int i = steps.length - 1; i >= 0; i--) {
+            stageEnds[i] = i < steps.length - 1 && stageStarts[i + 1] == stageStarts[i] ? stageEnds[i + 1] : i;
+        }
+    }
+
+    /**
+     * 编译流程定义。
+     *
+     * @param process 流程
+     * @param steps   流程下的步骤
+     * @return 编译后的流程
+     */
+    public static CompiledApprovalProcess compile(ApprovalProcess process, List<ApprovalStep> steps) {
+        ApprovalProcess snapshot = copyOf(process);
+        ApprovalStep[] sorted = steps.stream()
+                .sorted(Comparator.comparing(ApprovalStep::getStepOrder))
+                .map(step -> copyOf(step, snapshot))
+                .toArray(ApprovalStep[]::new);
+        return new CompiledApprovalProcess(snapshot, sorted);
+    }
+
+    /**
+     * 校验流程步骤定义：步骤顺序不能重复，同一并行组的步骤顺序必须相邻（中间不能夹其他步骤），路由条件必须能编译。
+     *
+     * @param steps 流程下的全部步骤
+     */
+    public static void validate(List<ApprovalStep> steps) {
+        ApprovalStep[] sorted = steps.stream()
+                .sorted(Comparator.comparing(ApprovalStep::getStepOrder))
+                .toArray(ApprovalStep[]::new);
+        Map<String, Integer> closedGroups = new HashMap<>();
+        for (int i = 0; i < sorted.length; i++) {
+            ApprovalStep step = sorted[i];
+            if (i > 0 && Objects.equals(sorted[i - 1].getStepOrder(), step.getStepOrder())) {
+                throw new BusinessException(ResultCode.PARAM_ERROR, "步骤顺序重复: " + step.getStepOrder());
+            }
+            RoutingRuleCompiler.compile(step.getRoutingCondition());
+            validateAssignmentMode(step);
+            if (!step.isParallel()) {
+                continue;
+            }
+            if (closedGroups.containsKey(step.getParallelGroup())) {
+                throw new BusinessException(ResultCode.PARAM_ERROR, String.format(
+                        "并行组 %s 的步骤顺序必须相邻，步骤 %d 与步骤 %d 之间存在其他步骤",
+                        step.getParallelGroup(), closedGroups.get(step.getParallelGroup()), step.getStepOrder()));
+            }
+            boolean groupEnds = i == sorted.length - 1 || !sameStage(step, sorted[i + 1]);
+            if (groupEnds) {
+                closedGroups.put(step.getParallelGroup(), step.getStepOrder());
+            }
+        }
+    }
+
+    private static void validateAssignmentMode(ApprovalStep step) {
+        if (step.getAssignmentMode() == null) {
+            return;
+        }
+        if (!ApprovalAssignmentModeEnum.isValid(step.getAssignmentMode())) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "未知的分配方式: " + step.getAssignmentMode());
+        }
+        if (step.isLeastLoadedAssignment() && (!step.isSingleApproval() || step.hasAssignedApprover())) {
+            throw new BusinessException(ResultCode.PARAM_ERROR,
+                    "步骤 " + step.getStepOrder() + " 按负载分配只适用于按角色解析审批人的单人审批步骤");
+        }
+    }
+
+    public ApprovalProcess getProcess() {
+        return copyOf(process);
+    }
+
+    public Long getProcessId() {
+        return process.getId();
+    }
+
+    public String getProcessType() {
+        return process.getProcessType();
+    }
+
+    public boolean isEmpty() {
+        return steps.length == 0;
+    }
+
+    /**
+     * 获取按顺序排列的全部步骤。
+     */
+    public List<ApprovalStep> getSteps() {
+        return copyOfRange(0, steps.length - 1);
+    }
+
+    /**
+     * 获取适用于申请人的全部步骤（按顺序）。
+     */
+    public List<ApprovalStep> getSteps(ApplicantContext context) {
+        List<ApprovalStep> applicable = new ArrayList<>(steps.length);
+        for (int i = 0; i < steps.length; i++) {
+            if (rules[i].test(context)) {
+                applicable.add(copyOf(steps[i]));
+            }
+        }
+        return applicable;
+    }
+
+    /**
+     * 获取适用于申请人的第一个步骤，没有适用步骤时返回 null。
+     */
+    public ApprovalStep getFirstStep(ApplicantContext context) {
+        int first = firstApplicableFrom(0, context);
+        return first == NO_NEXT ? null : copyOf(steps[first]);
+    }
+
+    /**
+     * 根据步骤顺序获取步骤，不存在时返回 null。
+     */
+    public ApprovalStep getStep(Integer stepOrder) {
+        int index = indexOf(stepOrder);
+        return index < 0 ? null : copyOf(steps[index]);
+    }
+
+    /**
+     * 获取步骤所在阶段的全部步骤（串行步骤只有自身），步骤不存在时返回空列表。
+     */
+    public List<ApprovalStep> getStage(Integer stepOrder) {
+        int index = indexOf(stepOrder);
+        return index < 0 ? List.of() : stageOf(index);
+    }
+
+    /**
+     * 获取步骤所在阶段中适用于申请人的步骤，步骤不存在时返回空列表。
+     */
+    public List<ApprovalStep> getStage(Integer stepOrder, ApplicantContext context) {
+        int index = indexOf(stepOrder);
+        if (index < 0) {
+            return List.of();
+        }
+        List<ApprovalStep> stage = new ArrayList<>(stageEnds[index] - stageStarts[index] + 1);
+        for (int i = stageStarts[index]; i <= stageEnds[index]; i++) {
+            if (rules[i].test(context)) {
+                stage.add(copyOf(steps[i]));
+            }
+        }
+        return stage;
+    }
+
+    /**
+     * 获取后续阶段中第一个适用于申请人的步骤（跳过当前阶段的并行分支和不适用的步骤），没有时返回 null。
+     */
+    public ApprovalStep findNextStep(Integer currentStepOrder, ApplicantContext context) {
+        if (currentStepOrder == null) {
+            return null;
+        }
+        int index = indexOf(currentStepOrder);
+        int next = index >= 0 ? nextStageStart(index) : firstIndexAfter(currentStepOrder);
+        next = next == NO_NEXT ? NO_NEXT : firstApplicableFrom(next, context);
+        return next == NO_NEXT ? null : copyOf(steps[next]);
+    }
+
+    private List<ApprovalStep> stageOf(int index) {
+        return copyOfRange(stageStarts[index], stageEnds[index]);
+    }
+
+    private List<ApprovalStep> copyOfRange(int from, int to) {
+        List<ApprovalStep> copies = new ArrayList<>(Math.max(to - from + 1, 0));
+        for (int i = from; i <= to; i++) {
+            copies.add(copyOf(steps[i]));
+        }
+        return copies;
+    }
+
+    private ApprovalStep copyOf(ApprovalStep step) {
+        return copyOf(step, copyOf(process));
+    }
+
+    /**
+     * 复制步骤并关联到给定流程（源步骤的流程关联可能是未初始化的懒加载代理，不复制）
+     */
+    private static ApprovalStep copyOf(ApprovalStep step, ApprovalProcess process) {
+        ApprovalStep copy = new ApprovalStep();
+        BeanUtils.copyProperties(step, copy, "process");
+        copy.setProcess(process);
+        return copy;
+    }
+
+    private static ApprovalProcess copyOf(ApprovalProcess process) {
+        ApprovalProcess copy = new ApprovalProcess();
+        BeanUtils.copyProperties(process, copy);
+        return copy;
+    }
+
+    private int nextStageStart(int index) {
+        int next = stageEnds[index] + 1;
+        return next < steps.length ? next : NO_NEXT;
+    }
+
+    private int firstApplicableFrom(int from, ApplicantContext context) {
+        for (int i = from; i < steps.length; i++) {
+            if (rules[i].test(context)) {
+                return i;
+            }
+        }
+        return NO_NEXT;
+    }
+
+    private int indexOf(Integer stepOrder) {
+        if (stepOrder == null) {
+            return NO_NEXT;
+        }
+        int index = Arrays.binarySearch(stepOrders, stepOrder);
+        return index >= 0 ? index : NO_NEXT;
+    }
+
+    private int firstIndexAfter(int stepOrder) {
+        for (int i = 0; i < stepOrders.length; i++) {
+            if (stepOrders[i] > stepOrder) {
+                return i;
+            }
+        }
+        return NO_NEXT;
+    }
+
+    private static boolean sameStage(ApprovalStep previous, ApprovalStep current) {
+        return previous.isParallel() && current.isParallel()
+                && previous.getParallelGroup().equals(current.getParallelGroup());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.learnworkagent.domain.approval.repository;
+
+import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
+import com.example.learnworkagent.domain.approval.dto.ArchivedApprovalTask;
+import com.example.learnworkagent.domain.approval.entity.ApprovalInstanceArchive;
+import com.example.learnworkagent.domain.approval.entity.ApprovalTaskArchive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 审批冷数据归档仓库。
+ * 已完成的审批实例连同其任务以 INSERT ... SELECT 搬入归档表后从热表删除，整批在调用方事务内完成；
+ * 领取待归档实例时使用 SKIP LOCKED，多个节点同时归档互不阻塞。
+ */
+@Repository
+@RequiredArgsConstructor
+public class ApprovalArchiveJdbcRepository {
+
+    private static final String INSTANCE_COLUMNS = "id, business_type, business_id, applicant_id, process_id, "
+            + "current_step, status, completed_time, applicant_info, lock_version, create_time, update_time, deleted";
+    private static final String TASK_COLUMNS = "id, instance_id, step_id, approver_id, status, comment, approval_time, "
+            + "task_order, activated_time, sla_level, lock_version, create_time, update_time, deleted";
+
+    private static final String LOCK_DUE_SQL = "SELECT id FROM approval_instance "
+            + "WHERE status IN (?, ?) AND completed_time < ? ORDER BY completed_time LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String FIND_ARCHIVED_TASKS_SQL = "SELECT i.business_type, i.business_id, t.status, "
+            + "i.create_time, t.approval_time FROM approval_task_archive t "
+            + "JOIN approval_instance_archive i ON i.id = t.instance_id "
+            + "WHERE t.approver_id = ? AND t.status IN (?, ?) ORDER BY t.approval_time DESC LIMIT ?";
+    private static final String FIND_ARCHIVED_INSTANCE_SQL = "SELECT " + INSTANCE_COLUMNS + ", archived_time "
+            + "FROM approval_instance_archive WHERE business_type = ? AND business_id = ? ORDER BY id DESC LIMIT 1";
+    private static final String FIND_ARCHIVED_INSTANCE_TASKS_SQL = "SELECT " + TASK_COLUMNS
+            + " FROM approval_task_archive WHERE instance_id = ? ORDER BY task_order";
+
+    private static final BeanPropertyRowMapper<ApprovalInstanceArchive> INSTANCE_MAPPER =
+            new BeanPropertyRowMapper<>(ApprovalInstanceArchive.class);
+    private static final BeanPropertyRowMapper<ApprovalTaskArchive> TASK_MAPPER =
+            new BeanPropertyRowMapper<>(ApprovalTaskArchive.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 锁定一批完成时间早于截止时间的实例
+     *
+     * @return 实例ID
+     */
+    public List<Long> lockDueInstanceIds(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.queryForList(LOCK_DUE_SQL, Long.class,
+                ApprovalStatusEnum.APPROVED.getCode(), ApprovalStatusEnum.REJECTED.getCode(),
+                Timestamp.valueOf(cutoff), limit);
+    }
+
+    /**
+     * 把实例及其任务搬入归档表并从热表删除
+     *
+     * @return 归档的任务数
+     */
+    public int archive(Collection<Long> instanceIds, LocalDateTime archivedTime) {
+        String placeholders = placeholders(instanceIds.size());
+        List<Object> args = new ArrayList<>(instanceIds.size() + 1);
+        args.add(Timestamp.valueOf(archivedTime));
+        args.addAll(instanceIds);
+        Object[] ids = instanceIds.toArray();
+
+        jdbcTemplate.update("INSERT INTO approval_instance_archive (" + INSTANCE_COLUMNS + ", archived_time) "
+                + "SELECT " + INSTANCE_COLUMNS + ", ? FROM approval_instance WHERE id IN (" + placeholders + ")",
+                args.toArray());
+        int tasks = jdbcTemplate.update("INSERT INTO approval_task_archive (" + TASK_COLUMNS + ") "
+                + "SELECT " + TASK_COLUMNS + " FROM approval_task WHERE instance_id IN (" + placeholders + ")", ids);
+        jdbcTemplate.update("DELETE FROM approval_task WHERE instance_id IN (" + placeholders + ")", ids);
+        jdbcTemplate.update("DELETE FROM approval_instance WHERE id IN (" + placeholders + ")", ids);
+        return tasks;
+    }
+
+    /**
+     * 查询审批人已归档的已完成任务（按审批时间倒序）
+     */
+    public List<ArchivedApprovalTask> findArchivedCompletedTasks(Long approverId, int limit) {
+        return jdbcTemplate.query(FIND_ARCHIVED_TASKS_SQL, (rs, rowNum) -> new ArchivedApprovalTask(
+                        rs.getString(1),
+                        rs.getLong(2),
+                        rs.getString(3),
+                        toLocalDateTime(rs.getTimestamp(4)),
+                        toLocalDateTime(rs.getTimestamp(5))),
+                approverId, ApprovalStatusEnum.APPROVED.getCode(), ApprovalStatusEnum.REJECTED.getCode(), limit);
+    }
+
+    /**
+     * 查询业务对应的已归档实例
+     */
+    public Optional<ApprovalInstanceArchive> findArchivedInstance(String businessType, Long businessId) {
+        return jdbcTemplate.query(FIND_ARCHIVED_INSTANCE_SQL, INSTANCE_MAPPER, businessType, businessId)
+                .stream().findFirst();
+    }
+
+    /**
+     * 查询已归档实例的全部任务（按任务顺序）
+     */
+    public List<ApprovalTaskArchive> findArchivedTasks(Long instanceId) {
+        return jdbcTemplate.query(FIND_ARCHIVED_INSTANCE_TASKS_SQL, TASK_MAPPER, instanceId);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
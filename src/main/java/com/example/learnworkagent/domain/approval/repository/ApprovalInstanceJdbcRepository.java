@@ -0,0 +1,76 @@
+package com.example.learnworkagent.domain.approval.repository;
+
+import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 审批实例 JDBC 批量写入仓库
+ * 批量发起审批时实例走 JDBC batch 插入，并通过自增主键回填实例ID
+ */
+@Repository
+@RequiredArgsConstructor
+public class ApprovalInstanceJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO approval_instance "
+            + "(business_type, business_id, applicant_id, process_id, current_step, status, applicant_info, "
+            + "create_time, update_time, deleted, lock_version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 批量插入审批实例，插入后回填 id 和 lockVersion
+     *
+     * @param instances 待插入的实例（同一批次）
+     */
+    public void batchInsert(List<ApprovalInstance> instances) {
+        if (instances.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ApprovalInstance instance = instances.get(i);
+                        ps.setString(1, instance.getBusinessType());
+                        ps.setLong(2, instance.getBusinessId());
+                        ps.setObject(3, instance.getApplicantId());
+                        ps.setLong(4, instance.getProcess().getId());
+                        ps.setObject(5, instance.getCurrentStep());
+                        ps.setString(6, instance.getStatus());
+                        ps.setString(7, instance.getApplicantInfo());
+                        ps.setTimestamp(8, now);
+                        ps.setTimestamp(9, now);
+                        ps.setBoolean(10, false);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return instances.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < instances.size(); i++) {
+            ApprovalInstance instance = instances.get(i);
+            instance.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            instance.setLockVersion(0L);
+            instance.setCreateTime(now.toLocalDateTime());
+            instance.setUpdateTime(now.toLocalDateTime());
+        }
+    }
+}
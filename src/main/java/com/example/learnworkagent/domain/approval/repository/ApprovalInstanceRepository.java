@@ -1,6 +1,7 @@
 package com.example.learnworkagent.domain.approval.repository;
 
 import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -13,7 +14,8 @@ import java.util.Optional;
 public interface ApprovalInstanceRepository extends JpaRepository<ApprovalInstance, Long> {
 
     /**
-     * 根据业务类型和业务ID查询审批实例
+     * 根据业务类型和业务ID查询审批实例（预取流程定义）
      */
+    @EntityGraph(attributePaths = "process")
     Optional<ApprovalInstance> findByBusinessTypeAndBusinessId(String businessType, Long businessId);
 }
@@ -0,0 +1,34 @@
+package com.example.learnworkagent.domain.approval.repository;
+
+import com.example.learnworkagent.domain.approval.entity.ApprovalStatsDaily;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 审批统计日快照仓库
+ */
+@Repository
+public interface ApprovalStatsDailyRepository extends JpaRepository<ApprovalStatsDaily, Long> {
+
+    /**
+     * 锁定同一天同一维度下的多行快照（增量合并用）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ApprovalStatsDaily s WHERE s.statDate = :statDate AND s.scope = :scope AND s.scopeId IN :scopeIds")
+    List<ApprovalStatsDaily> lockForMerge(@Param("statDate") LocalDate statDate,
+                                          @Param("scope") String scope,
+                                          @Param("scopeIds") Collection<Long> scopeIds);
+
+    /**
+     * 查询某维度在若干天的快照
+     */
+    List<ApprovalStatsDaily> findByScopeAndScopeIdAndStatDateIn(String scope, Long scopeId, Collection<LocalDate> statDates);
+}
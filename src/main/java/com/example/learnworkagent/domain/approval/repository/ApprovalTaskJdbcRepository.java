@@ -0,0 +1,62 @@
+package com.example.learnworkagent.domain.approval.repository;
+
+import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 审批任务 JDBC 批量写入仓库
+ * 审批任务主键为 IDENTITY，Hibernate 无法批量插入，批量场景改走 JDBC batch（配合 rewriteBatchedStatements 合并为多值 INSERT）
+ */
+@Repository
+@RequiredArgsConstructor
+public class ApprovalTaskJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO approval_task "
+            + "(instance_id, step_id, approver_id, status, task_order, activated_time, sla_level, "
+            + "create_time, update_time, deleted, lock_version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?, ?, 0)";
+    private static final String ADVANCE_SLA_SQL = "UPDATE approval_task "
+            + "SET sla_level = ?, update_time = ?, lock_version = lock_version + 1 "
+            + "WHERE id = ? AND status = 'PROCESSING' AND sla_level < ?";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 批量插入审批任务（任务对象只读取字段，不会回填ID）
+     *
+     * @param tasks 待插入的任务
+     */
+    public void batchInsert(List<ApprovalTask> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, tasks, BATCH_SIZE, (ps, task) -> {
+            ps.setLong(1, task.getInstance().getId());
+            ps.setLong(2, task.getStep().getId());
+            ps.setLong(3, task.getApproverId());
+            ps.setString(4, task.getStatus());
+            ps.setInt(5, task.getTaskOrder());
+            ps.setTimestamp(6, task.getActivatedTime() == null ? null : Timestamp.valueOf(task.getActivatedTime()));
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+            ps.setBoolean(9, false);
+        });
+    }
+
+    /**
+     * 推进任务 SLA 级别（仅进行中且级别更低的任务），同时递增乐观锁版本
+     *
+     * @return 是否推进成功
+     */
+    public boolean advanceSlaLevel(Long taskId, int level) {
+        return jdbcTemplate.update(ADVANCE_SLA_SQL, level, Timestamp.valueOf(LocalDateTime.now()), taskId, level) == 1;
+    }
+}
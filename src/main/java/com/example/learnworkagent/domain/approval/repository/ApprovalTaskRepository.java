@@ -2,30 +2,151 @@ package com.example.learnworkagent.domain.approval.repository;
 
 import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
 import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
- * 审批任务仓库
+ * 审批任务仓库。
+ * 任务的实例和步骤关联为懒加载，会访问这两个关联的查询统一挂实体图，避免逐条回表。
  */
 @Repository
 public interface ApprovalTaskRepository extends JpaRepository<ApprovalTask, Long> {
 
+    /**
+     * 按ID查询任务（预取实例和步骤）
+     */
+    @EntityGraph(ApprovalTask.GRAPH_INSTANCE_AND_STEP)
+    Optional<ApprovalTask> findWithInstanceAndStepById(Long id);
+
     /**
      * 根据审批人ID和状态查询待审批任务
      */
+    @EntityGraph(ApprovalTask.GRAPH_INSTANCE_AND_STEP)
     List<ApprovalTask> findByApproverIdAndStatus(Long approverId, String status);
 
     /**
      * 根据审批人ID和状态列表查询任务
      */
+    @EntityGraph(ApprovalTask.GRAPH_INSTANCE_AND_STEP)
     List<ApprovalTask> findByApproverIdAndStatusIn(Long approverId, List<String> statuses);
 
     /**
      * 根据审批实例和步骤顺序查询任务
      */
+    @EntityGraph(ApprovalTask.GRAPH_INSTANCE_AND_STEP)
     List<ApprovalTask> findByInstanceAndStepStepOrderOrderByTaskOrderAsc(ApprovalInstance instance, Integer stepOrder);
 
+    /**
+     * 根据审批实例和一组步骤顺序查询任务（并行阶段的全部分支）
+     */
+    @EntityGraph(ApprovalTask.GRAPH_INSTANCE_AND_STEP)
+    List<ApprovalTask> findByInstanceAndStepStepOrderInOrderByTaskOrderAsc(ApprovalInstance instance,
+                                                                          Collection<Integer> stepOrders);
+
+    /**
+     * 查询审批实例的全部任务
+     */
+    @EntityGraph(ApprovalTask.GRAPH_INSTANCE_AND_STEP)
+    List<ApprovalTask> findByInstanceOrderByTaskOrderAsc(ApprovalInstance instance);
+
+    /**
+     * 批量查询多个审批实例的全部任务
+     */
+    @EntityGraph(ApprovalTask.GRAPH_INSTANCE_AND_STEP)
+    List<ApprovalTask> findByInstanceInOrderByTaskOrderAsc(Collection<ApprovalInstance> instances);
+
+    /**
+     * 按业务键一次查询审批实例的全部任务（抓取实例和步骤）及请假单据，结果行为 [任务, 单据]
+     */
+    @Query("SELECT t, a FROM ApprovalTask t JOIN FETCH t.instance i JOIN FETCH t.step "
+            + "JOIN LeaveApplication a ON a.id = i.businessId "
+            + "WHERE i.businessType = :businessType AND i.businessId = :businessId ORDER BY t.taskOrder")
+    List<Object[]> findDecisionContextWithLeave(@Param("businessType") String businessType,
+                                                @Param("businessId") Long businessId);
+
+    /**
+     * 按业务键一次查询审批实例的全部任务（抓取实例和步骤）及奖助单据，结果行为 [任务, 单据]
+     */
+    @Query("SELECT t, a FROM ApprovalTask t JOIN FETCH t.instance i JOIN FETCH t.step "
+            + "JOIN AwardApplication a ON a.id = i.businessId "
+            + "WHERE i.businessType = :businessType AND i.businessId = :businessId ORDER BY t.taskOrder")
+    List<Object[]> findDecisionContextWithAward(@Param("businessType") String businessType,
+                                                @Param("businessId") Long businessId);
+
+    /**
+     * 根据ID批量查询任务，同时抓取审批实例和步骤
+     */
+    @Query("SELECT t FROM ApprovalTask t JOIN FETCH t.instance JOIN FETCH t.step WHERE t.id IN :ids")
+    List<ApprovalTask> findAllWithInstanceAndStepByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按实例ID批量查询任务（预取实例和步骤）
+     */
+    @Query("SELECT t FROM ApprovalTask t JOIN FETCH t.instance i JOIN FETCH t.step WHERE i.id IN :instanceIds ORDER BY i.id, t.taskOrder")
+    List<ApprovalTask> findAllWithInstanceAndStepByInstanceIdIn(@Param("instanceIds") Collection<Long> instanceIds);
+
+    /**
+     * 查询配置了 SLA 且尚未升级的进行中任务（SLA 时间轮重建用）
+     */
+    @Query("SELECT t FROM ApprovalTask t JOIN FETCH t.step s WHERE t.status = :status AND t.slaLevel < :maxLevel "
+            + "AND (s.reminderMinutes IS NOT NULL OR s.escalationMinutes IS NOT NULL)")
+    List<ApprovalTask> findSlaTrackedTasks(@Param("status") String status, @Param("maxLevel") Integer maxLevel);
+
+    /**
+     * 按审批人统计指定状态的任务数（审批人负载校准用），返回 [审批人ID, 任务数]
+     */
+    @Query("SELECT t.approverId, COUNT(t) FROM ApprovalTask t WHERE t.status = :status GROUP BY t.approverId")
+    List<Object[]> countByApproverAndStatus(@Param("status") String status);
+
+    /**
+     * 一条语句把仍未处理的任务置为终态（只更新状态在 openStatuses 中的行，并递增版本号使并发审批冲突重试）
+     *
+     * @return 更新行数
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ApprovalTask t SET t.status = :status, t.approvalTime = :time, t.updateTime = :time, "
+            + "t.lockVersion = t.lockVersion + 1 WHERE t.id IN :ids AND t.status IN :openStatuses")
+    int closeOpenTasks(@Param("ids") Collection<Long> ids, @Param("openStatuses") Collection<String> openStatuses,
+                       @Param("status") String status, @Param("time") LocalDateTime time);
+
+    /**
+     * 按主键游标查询可转交的未关闭任务ID（排除目标审批人在同一实例同一步骤已有任务的记录）
+     */
+    @Query("SELECT t.id FROM ApprovalTask t WHERE t.approverId = :fromApproverId AND t.status IN :openStatuses "
+            + "AND t.id > :afterId AND NOT EXISTS (SELECT 1 FROM ApprovalTask o WHERE o.instance = t.instance "
+            + "AND o.step = t.step AND o.approverId = :toApproverId) ORDER BY t.id")
+    List<Long> findReassignableTaskIds(@Param("fromApproverId") Long fromApproverId,
+                                       @Param("toApproverId") Long toApproverId,
+                                       @Param("openStatuses") Collection<String> openStatuses,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
+    /**
+     * 一条语句把仍属于原审批人且未关闭的任务转交给新审批人，并递增版本号使原审批人的并发审批冲突重试
+     *
+     * @return 更新行数
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ApprovalTask t SET t.approverId = :toApproverId, t.updateTime = :time, "
+            + "t.lockVersion = t.lockVersion + 1 WHERE t.id IN :ids AND t.approverId = :fromApproverId "
+            + "AND t.status IN :openStatuses")
+    int reassignOpenTasks(@Param("ids") Collection<Long> ids, @Param("fromApproverId") Long fromApproverId,
+                          @Param("toApproverId") Long toApproverId,
+                          @Param("openStatuses") Collection<String> openStatuses,
+                          @Param("time") LocalDateTime time);
+
+    /**
+     * 统计审批人名下指定状态的任务数
+     */
+    long countByApproverIdAndStatusIn(Long approverId, Collection<String> statuses);
 }
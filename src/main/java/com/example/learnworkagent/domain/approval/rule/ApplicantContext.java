@@ -0,0 +1,77 @@
+package com.example.learnworkagent.domain.approval.rule;
+
+import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.exception.BusinessException;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 申请人信息（审批实例 applicantInfo 快照的类型化视图）。
+ * 每个实例只解析一次，供路由条件求值和审批人解析共用。
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ApplicantContext {
+
+    /**
+     * 学院ID
+     */
+    private Long departmentId;
+
+    /**
+     * 年级
+     */
+    private String grade;
+
+    /**
+     * 班级
+     */
+    private String className;
+
+    /**
+     * 学生姓名
+     */
+    private String studentName;
+
+    /**
+     * 请假类型（请假申请）
+     */
+    private String leaveType;
+
+    /**
+     * 请假天数（请假申请）
+     */
+    private Integer leaveDays;
+
+    /**
+     * 申请类型（奖助申请）
+     */
+    private String applicationType;
+
+    /**
+     * 申请金额（奖助申请）
+     */
+    private BigDecimal amount;
+
+    /**
+     * 解析申请人信息快照，快照为空时返回空上下文
+     *
+     * @param objectMapper  JSON 解析器
+     * @param applicantInfo 申请人信息（JSON格式）
+     * @return 申请人信息
+     */
+    public static ApplicantContext parse(ObjectMapper objectMapper, String applicantInfo) {
+        if (applicantInfo == null || applicantInfo.isBlank()) {
+            return new ApplicantContext();
+        }
+        try {
+            return objectMapper.readValue(applicantInfo, ApplicantContext.class);
+        } catch (JsonProcessingException exception) {
+            throw new BusinessException(ResultCode.SYSTEM_ERROR, "申请人信息解析失败");
+        }
+    }
+}
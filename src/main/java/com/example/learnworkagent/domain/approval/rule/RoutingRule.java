@@ -0,0 +1,21 @@
+package com.example.learnworkagent.domain.approval.rule;
+
+/**
+ * 编译后的步骤路由条件，判断步骤是否参与本次审批。
+ */
+@FunctionalInterface
+public interface RoutingRule {
+
+    /**
+     * 无条件，步骤总是参与审批
+     */
+    RoutingRule ALWAYS = context -> true;
+
+    /**
+     * 对申请人信息求值
+     *
+     * @param context 申请人信息
+     * @return 步骤是否参与审批
+     */
+    boolean test(ApplicantContext context);
+}
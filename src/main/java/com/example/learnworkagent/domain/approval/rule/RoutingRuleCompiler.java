@@ -0,0 +1,272 @@
+package com.example.learnworkagent.domain.approval.rule;
+
+import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.exception.BusinessException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.function.Function;
+
+/**
+ * 步骤路由条件编译器。
+ * 条件由比较式通过 &&、||、! 和括号组合而成，比较式为「字段 运算符 常量」：
+ * 数值字段支持 == != &gt; &gt;= &lt; &lt;=，文本字段支持 == != 和 in ("A", "B")，
+ * 例如 {@code leaveDays > 3 && leaveType in ("SICK", "PERSONAL")}。
+ * 字段名、运算符和常量类型在编译期校验，编译结果是由 lambda 组成的谓词树，求值时不再解析字符串。
+ * 申请人信息缺少比较字段时该比较式为 false。
+ */
+public final class RoutingRuleCompiler {
+
+    private static final Map<String, Function<ApplicantContext, Number>> NUMBER_FIELDS = Map.of(
+            "leaveDays", ApplicantContext::getLeaveDays,
+            "amount", ApplicantContext::getAmount,
+            "departmentId", ApplicantContext::getDepartmentId);
+
+    private static final Map<String, Function<ApplicantContext, String>> TEXT_FIELDS = Map.of(
+            "leaveType", ApplicantContext::getLeaveType,
+            "applicationType", ApplicantContext::getApplicationType,
+            "grade", ApplicantContext::getGrade,
+            "className", ApplicantContext::getClassName);
+
+    private static final Set<String> TWO_CHAR_OPERATORS = Set.of("&&", "||", "==", "!=", ">=", "<=");
+    private static final String ONE_CHAR_OPERATORS = "!><(),";
+
+    private final String source;
+    private final List<Token> tokens;
+    private int position;
+
+    private RoutingRuleCompiler(String source) {
+        this.source = source;
+        this.tokens = tokenize(source);
+    }
+
+    /**
+     * 编译路由条件，条件为空时返回 {@link RoutingRule#ALWAYS}。
+     *
+     * @param condition 条件表达式
+     * @return 编译后的条件
+     */
+    public static RoutingRule compile(String condition) {
+        if (condition == null || condition.isBlank()) {
+            return RoutingRule.ALWAYS;
+        }
+        RoutingRuleCompiler compiler = new RoutingRuleCompiler(condition);
+        RoutingRule rule = compiler.parseOr();
+        Token rest = compiler.peek();
+        if (rest.type() != TokenType.END) {
+            throw compiler.error(rest, "存在多余内容 " + rest.text());
+        }
+        return rule;
+    }
+
+    private RoutingRule parseOr() {
+        RoutingRule rule = parseAnd();
+        while (accept("||")) {
+            RoutingRule left = rule;
+            RoutingRule right = parseAnd();
+            rule = context -> left.test(context) || right.test(context);
+        }
+        return rule;
+    }
+
+    private RoutingRule parseAnd() {
+        RoutingRule rule = parseUnary();
+        while (accept("&&")) {
+            RoutingRule left = rule;
+            RoutingRule right = parseUnary();
+            rule = context -> left.test(context) && right.test(context);
+        }
+        return rule;
+    }
+
+    private RoutingRule parseUnary() {
+        if (accept("!")) {
+            RoutingRule operand = parseUnary();
+            return context -> !operand.test(context);
+        }
+        if (accept("(")) {
+            RoutingRule inner = parseOr();
+            expect(")");
+            return inner;
+        }
+        return parseComparison();
+    }
+
+    private RoutingRule parseComparison() {
+        Token field = next();
+        if (field.type() != TokenType.IDENTIFIER) {
+            throw error(field, "应为字段名");
+        }
+        Function<ApplicantContext, Number> numberField = NUMBER_FIELDS.get(field.text());
+        if (numberField != null) {
+            return numberComparison(numberField);
+        }
+        Function<ApplicantContext, String> textField = TEXT_FIELDS.get(field.text());
+        if (textField != null) {
+            return textComparison(textField);
+        }
+        throw error(field, "未知字段 " + field.text());
+    }
+
+    private RoutingRule numberComparison(Function<ApplicantContext, Number> field) {
+        Token operator = next();
+        Token literal = next();
+        if (literal.type() != TokenType.NUMBER) {
+            throw error(literal, "数值字段只能与数字比较");
+        }
+        double expected = parseNumber(literal);
+        DoublePredicate predicate = switch (operator.text()) {
+            case "==" -> actual -> actual == expected;
+            case "!=" -> actual -> actual != expected;
+            case ">" -> actual -> actual > expected;
+            case ">=" -> actual -> actual >= expected;
+            case "<" -> actual -> actual < expected;
+            case "<=" -> actual -> actual <= expected;
+            default -> throw error(operator, "数值字段不支持运算符 " + operator.text());
+        };
+        return context -> {
+            Number actual = field.apply(context);
+            return actual != null && predicate.test(actual.doubleValue());
+        };
+    }
+
+    private RoutingRule textComparison(Function<ApplicantContext, String> field) {
+        Token operator = next();
+        switch (operator.text()) {
+            case "==" -> {
+                String expected = expectString();
+                return context -> expected.equals(field.apply(context));
+            }
+            case "!=" -> {
+                String expected = expectString();
+                return context -> {
+                    String actual = field.apply(context);
+                    return actual != null && !expected.equals(actual);
+                };
+            }
+            case "in" -> {
+                Set<String> expected = expectStringList();
+                return context -> {
+                    String actual = field.apply(context);
+                    return actual != null && expected.contains(actual);
+                };
+            }
+            default -> throw error(operator, "文本字段不支持运算符 " + operator.text());
+        }
+    }
+
+    private String expectString() {
+        Token literal = next();
+        if (literal.type() != TokenType.STRING) {
+            throw error(literal, "文本字段只能与字符串比较");
+        }
+        return literal.text();
+    }
+
+    private Set<String> expectStringList() {
+        expect("(");
+        Set<String> values = new HashSet<>();
+        do {
+            values.add(expectString());
+        } while (accept(","));
+        expect(")");
+        return Set.copyOf(values);
+    }
+
+    private double parseNumber(Token literal) {
+        try {
+            return Double.parseDouble(literal.text());
+        } catch (NumberFormatException exception) {
+            throw error(literal, "数字格式错误 " + literal.text());
+        }
+    }
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    private Token next() {
+        Token token = tokens.get(position);
+        if (token.type() != TokenType.END) {
+            position++;
+        }
+        return token;
+    }
+
+    private boolean accept(String operator) {
+        Token token = peek();
+        if (token.type() == TokenType.OPERATOR && token.text().equals(operator)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String operator) {
+        if (!accept(operator)) {
+            throw error(peek(), "缺少 " + operator);
+        }
+    }
+
+    private BusinessException error(Token token, String message) {
+        return syntaxError(source, token.position(), message);
+    }
+
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isLetter(c) || c == '_') {
+                while (i < length && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_')) {
+                    i++;
+                }
+                String word = source.substring(start, i);
+                tokens.add(new Token("in".equals(word) ? TokenType.OPERATOR : TokenType.IDENTIFIER, word, start));
+            } else if (Character.isDigit(c) || (c == '-' && i + 1 < length && Character.isDigit(source.charAt(i + 1)))) {
+                i++;
+                while (i < length && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.NUMBER, source.substring(start, i), start));
+            } else if (c == '"' || c == '\'') {
+                int end = source.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw syntaxError(source, start, "字符串缺少结束引号");
+                }
+                tokens.add(new Token(TokenType.STRING, source.substring(i + 1, end), start));
+                i = end + 1;
+            } else if (i + 1 < length && TWO_CHAR_OPERATORS.contains(source.substring(i, i + 2))) {
+                tokens.add(new Token(TokenType.OPERATOR, source.substring(i, i + 2), start));
+                i += 2;
+            } else if (ONE_CHAR_OPERATORS.indexOf(c) >= 0) {
+                tokens.add(new Token(TokenType.OPERATOR, String.valueOf(c), start));
+                i++;
+            } else {
+                throw syntaxError(source, start, "无法识别的字符 " + c);
+            }
+        }
+        tokens.add(new Token(TokenType.END, "", length));
+        return tokens;
+    }
+
+    private static BusinessException syntaxError(String source, int position, String message) {
+        return new BusinessException(ResultCode.PARAM_ERROR,
+                String.format("路由条件 [%s] 第 %d 个字符处: %s", source, position + 1, message));
+    }
+
+    private enum TokenType {
+        IDENTIFIER, NUMBER, STRING, OPERATOR, END
+    }
+
+    private record Token(TokenType type, String text, int position) {
+    }
+}
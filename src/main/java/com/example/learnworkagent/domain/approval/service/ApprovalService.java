@@ -1,7 +1,16 @@
 package com.example.learnworkagent.domain.approval.service;
 
+import com.example.learnworkagent.domain.approval.dto.ApprovalDecisionResult;
+import com.example.learnworkagent.domain.approval.dto.ApprovalInstanceDraft;
+import com.example.learnworkagent.domain.approval.dto.ApprovalStatsView;
+import com.example.learnworkagent.domain.approval.dto.ApprovalTimelineEntry;
+import com.example.learnworkagent.domain.approval.dto.BatchApprovalResult;
 import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
 import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import com.example.learnworkagent.domain.approval.journal.ApprovalInstanceSnapshot;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
 
 /**
  * 审批服务
@@ -18,6 +27,17 @@ public interface ApprovalService {
      */
     void createApprovalInstance(String businessType, Long businessId, Long applicantId, String applicantInfo);
 
+    /**
+     * 批量创建审批流程实例（集体公假等场景）。
+     * 审批人按申请人信息只解析一次，实例和任务分批 JDBC 批量写入，待办通知按审批人合并后一次投递。
+     * 业务单据的审批状态由调用方维护。
+     *
+     * @param businessType 业务类型
+     * @param drafts       待创建的实例
+     * @return 业务ID -> 第一步审批人ID
+     */
+    java.util.Map<Long, Long> bulkCreateApprovalInstances(String businessType, java.util.List<ApprovalInstanceDraft> drafts);
+
     /**
      * 处理审批任务
      * @param taskId 任务ID
@@ -28,6 +48,40 @@ public interface ApprovalService {
      */
     ApprovalTask processApprovalTask(Long taskId, Long approverId, String status, String comment);
 
+    /**
+     * 按业务键审批：一次连接查询加载实例、实例任务和业务单据，定位审批人当前进行中的任务并处理，
+     * 返回处理后的状态，调用方无需再查询实例或单据
+     * @param businessType 业务类型
+     * @param businessId 业务ID
+     * @param approverId 审批人ID
+     * @param status 审批状态
+     * @param comment 审批意见
+     * @param precondition 业务前置校验（审批前对单据执行，不满足时抛出业务异常）
+     * @return 审批结果
+     * @param <T> 业务单据类型
+     */
+    <T> ApprovalDecisionResult<T> processApprovalByBusiness(String businessType, Long businessId, Long approverId,
+                                                            String status, String comment, Consumer<? super T> precondition);
+
+    /**
+     * 按业务键审批（无业务前置校验）
+     */
+    default <T> ApprovalDecisionResult<T> processApprovalByBusiness(String businessType, Long businessId, Long approverId,
+                                                                    String status, String comment) {
+        return processApprovalByBusiness(businessType, businessId, approverId, status, comment, application -> {
+        });
+    }
+
+    /**
+     * 批量处理审批任务（批量加载后统一提交，失败条目不影响其余任务，逐条返回处理结果）
+     * @param taskIds 任务ID列表
+     * @param approverId 审批人ID
+     * @param status 审批状态
+     * @param comment 审批意见
+     * @return 批量处理结果
+     */
+    BatchApprovalResult batchProcessApprovalTasks(java.util.List<Long> taskIds, Long approverId, String status, String comment);
+
     /**
      * 获取审批实例
      * @param businessType 业务类型
@@ -49,4 +103,31 @@ public interface ApprovalService {
      * @return 当前任务
      */
     java.util.List<ApprovalTask> getCurrentTasks(ApprovalInstance instance);
+
+    /**
+     * 获取审批时间线（由实例和任务记录生成，已归档的实例读取归档表）
+     * @param businessType 业务类型
+     * @param businessId 业务ID
+     * @return 按发生顺序排列的时间线条目
+     */
+    java.util.List<ApprovalTimelineEntry> getApprovalTimeline(String businessType, Long businessId);
+
+    /**
+     * 重放本节点的审批事件日志，重建实例状态并与数据库核对（用于排查，日志只含本节点提交的事件）
+     * @param businessType 业务类型
+     * @param businessId 业务ID
+     * @return 重建的实例状态（complete 为 false 表示本节点日志不完整），本节点日志中无记录时为 null
+     */
+    ApprovalInstanceSnapshot replayApprovalInstance(String businessType, Long businessId);
+
+    /**
+     * 查询审批吞吐和耗时统计（读取日快照，不扫描任务表）
+     * @param operatorId 查询人ID（仅学工人员）
+     * @param scope 统计维度（APPROVER/STEP/DEPARTMENT/PROCESS）
+     * @param scopeId 维度ID
+     * @param fromDate 起始日期（含）
+     * @param toDate 结束日期（含）
+     * @return 统计视图
+     */
+    ApprovalStatsView getApprovalStats(Long operatorId, String scope, Long scopeId, LocalDate fromDate, LocalDate toDate);
 }
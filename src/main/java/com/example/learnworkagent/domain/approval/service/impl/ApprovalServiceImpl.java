@@ -1,40 +1,79 @@
 package com.example.learnworkagent.domain.approval.service.impl;
 
 import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.annotation.OptimisticRetry;
+import com.example.learnworkagent.common.enums.ApprovalStatsScopeEnum;
 import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
 import com.example.learnworkagent.common.enums.LeaveTypeEnum;
 import com.example.learnworkagent.common.enums.NotificationBusinessTypeEnum;
 import com.example.learnworkagent.common.enums.NotificationChannelEnum;
 import com.example.learnworkagent.common.enums.NotificationTypeEnum;
+import com.example.learnworkagent.common.enums.RoleEnum;
 import com.example.learnworkagent.common.exception.BusinessException;
+import com.example.learnworkagent.domain.approval.assignment.ApproverLoadBalancer;
+import com.example.learnworkagent.domain.approval.dto.ApprovalDecisionResult;
+import com.example.learnworkagent.domain.approval.dto.ApprovalInstanceDraft;
+import com.example.learnworkagent.domain.approval.dto.ApprovalStatsView;
+import com.example.learnworkagent.domain.approval.dto.ApprovalTimelineEntry;
+import com.example.learnworkagent.domain.approval.dto.BatchApprovalResult;
 import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
-import com.example.learnworkagent.domain.approval.entity.ApprovalProcess;
+import com.example.learnworkagent.domain.approval.entity.ApprovalInstanceArchive;
 import com.example.learnworkagent.domain.approval.entity.ApprovalStep;
 import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import com.example.learnworkagent.domain.approval.entity.ApprovalTaskArchive;
+import com.example.learnworkagent.domain.approval.journal.ApprovalEventJournal;
+import com.example.learnworkagent.domain.approval.journal.ApprovalEventType;
+import com.example.learnworkagent.domain.approval.journal.ApprovalInstanceSnapshot;
+import com.example.learnworkagent.domain.approval.registry.ApprovalProcessRegistry;
+import com.example.learnworkagent.domain.approval.registry.CompiledApprovalProcess;
+import com.example.learnworkagent.domain.approval.repository.ApprovalArchiveJdbcRepository;
+import com.example.learnworkagent.domain.approval.repository.ApprovalInstanceJdbcRepository;
 import com.example.learnworkagent.domain.approval.repository.ApprovalInstanceRepository;
-import com.example.learnworkagent.domain.approval.repository.ApprovalProcessRepository;
-import com.example.learnworkagent.domain.approval.repository.ApprovalStepRepository;
+import com.example.learnworkagent.domain.approval.repository.ApprovalTaskJdbcRepository;
 import com.example.learnworkagent.domain.approval.repository.ApprovalTaskRepository;
+import com.example.learnworkagent.domain.approval.rule.ApplicantContext;
+import com.example.learnworkagent.domain.approval.sla.ApprovalSlaScheduler;
+import com.example.learnworkagent.domain.approval.stats.ApprovalStatsAggregator;
 import com.example.learnworkagent.domain.approval.service.ApprovalService;
 import com.example.learnworkagent.domain.award.entity.AwardApplication;
 import com.example.learnworkagent.domain.award.repository.AwardApplicationRepository;
 import com.example.learnworkagent.domain.leave.entity.LeaveApplication;
 import com.example.learnworkagent.domain.leave.repository.LeaveApplicationRepository;
 import com.example.learnworkagent.domain.notification.entity.NotificationMessage;
+import com.example.learnworkagent.domain.notification.entity.NotificationRetraction;
 import com.example.learnworkagent.domain.notification.service.NotificationService;
+import com.example.learnworkagent.domain.process.projection.ProcessItemProjector;
 import com.example.learnworkagent.domain.user.entity.User;
 import com.example.learnworkagent.domain.user.repository.UserRepository;
+import com.example.learnworkagent.domain.user.service.OrgDirectory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.example.learnworkagent.common.enums.RoleEnum.COLLEGE_LEADER;
 import static com.example.learnworkagent.common.enums.RoleEnum.COUNSELOR;
@@ -62,21 +101,45 @@ public class ApprovalServiceImpl implements ApprovalService {
     private static final String INSTANCE_PENDING  = ApprovalStatusEnum.PENDING.getCode();
     private static final String INSTANCE_APPROVED = ApprovalStatusEnum.APPROVED.getCode();
     private static final String INSTANCE_REJECTED = ApprovalStatusEnum.REJECTED.getCode();
+    private static final String TASK_PENDING      = ApprovalStatusEnum.PENDING.getCode();
     private static final String TASK_PROCESSING   = ApprovalStatusEnum.PROCESSING.getCode();
     private static final String TASK_APPROVED     = ApprovalStatusEnum.APPROVED.getCode();
     private static final String TASK_REJECTED     = ApprovalStatusEnum.REJECTED.getCode();
+    private static final String TASK_SKIPPED      = ApprovalStatusEnum.SKIPPED.getCode();
     private static final String STATUS_TEXT_APPROVED = "已通过";
     private static final String STATUS_TEXT_REJECTED = "未通过";
+    /** 批量发起审批时每批写入的实例数 */
+    private static final int BULK_CHUNK_SIZE = 500;
 
     private final ApprovalInstanceRepository instanceRepository;
     private final ApprovalTaskRepository     taskRepository;
-    private final ApprovalProcessRepository  processRepository;
-    private final ApprovalStepRepository     stepRepository;
+    private final ApprovalProcessRegistry    processRegistry;
     private final AwardApplicationRepository awardApplicationRepository;
     private final LeaveApplicationRepository leaveApplicationRepository;
     private final UserRepository             userRepository;
+    private final OrgDirectory               orgDirectory;
+    private final ApprovalTaskJdbcRepository taskJdbcRepository;
+    private final ApprovalInstanceJdbcRepository instanceJdbcRepository;
     private final NotificationService        notificationService;
     private final ObjectMapper               objectMapper;
+    private final ApprovalEventJournal       eventJournal;
+    private final ApprovalSlaScheduler       slaScheduler;
+    private final ApprovalStatsAggregator    statsAggregator;
+    private final ApproverLoadBalancer       loadBalancer;
+    private final ProcessItemProjector       processItemProjector;
+    private final TransactionTemplate        transactionTemplate;
+    private final ApprovalArchiveJdbcRepository archiveRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** 是否延迟物化审批任务（仅在步骤激活时创建该步骤任务） */
+    @Value("${approval.task.lazy-materialization:true}")
+    private boolean lazyTaskMaterialization;
+
+    /** 批量审批最多回滚重放的轮数 */
+    @Value("${approval.batch.max-rollback-rounds:3}")
+    private int maxBatchRollbackRounds;
 
     // =======================================================
     // 公开接口
@@ -85,10 +148,8 @@ public class ApprovalServiceImpl implements ApprovalService {
     @Override
     public void createApprovalInstance(String businessType, Long businessId,
                                        Long applicantId, String applicantInfo) {
-        ApprovalProcess process = processRepository.findByProcessTypeAndEnabledTrue(businessType)
-                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "未找到启用的审批流程: " + businessType));
-        List<ApprovalStep> steps = stepRepository.findByProcessOrderByStepOrderAsc(process);
-        if (steps.isEmpty()) {
+        CompiledApprovalProcess process = processRegistry.getEnabled(businessType);
+        if (process.isEmpty()) {
             throw new BusinessException(ResultCode.PARAM_ERROR, "审批流程未配置审批步骤: " + businessType);
         }
 
@@ -96,41 +157,266 @@ public class ApprovalServiceImpl implements ApprovalService {
         instance.setBusinessType(businessType);
         instance.setBusinessId(businessId);
         instance.setApplicantId(applicantId);
-        instance.setProcess(process);
-        instance.markPending(steps.get(0).getStepOrder());
+        instance.setProcess(process.getProcess());
+        instance.setApplicantInfo(applicantInfo);
+        ApplicantContext context = applicantContext(instance);
+        instance.markPending(firstApplicableStep(process, context).getStepOrder());
         instance = instanceRepository.save(instance);
+        eventJournal.recordInstance(ApprovalEventType.INSTANCE_CREATED, instance, applicantId, null);
+        processItemProjector.applicationSubmitted(instance);
 
-        for (ApprovalStep step : steps) {
-            createApprovalTasks(instance, step, applicantInfo);
+        // 延迟物化模式下只在步骤激活时创建该步骤的任务，否则一次性创建全部适用步骤的任务
+        List<ApprovalTask> instanceTasks = new ArrayList<>();
+        if (!lazyTaskMaterialization) {
+            for (ApprovalStep step : process.getSteps(context)) {
+                instanceTasks.addAll(createApprovalTasks(instance, step));
+            }
         }
-        activateStep(instance, instance.getCurrentStep());
-        updateBusinessStatus(instance, null, null);
+        List<NotificationMessage> notifications = new ArrayList<>();
+        activateStage(instance, instanceTasks, instance.getCurrentStep(), notifications);
+        updateBusinessStatus(instance, instanceTasks, null, null);
+        publishNotifications(notifications);
     }
 
     @Override
+    public Map<Long, Long> bulkCreateApprovalInstances(String businessType, List<ApprovalInstanceDraft> drafts) {
+        CompiledApprovalProcess process = processRegistry.getEnabled(businessType);
+        if (process.isEmpty()) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "审批流程未配置审批步骤: " + businessType);
+        }
+        // applicantInfo 含学生姓名、请假天数等逐人不同的字段，审批人按 (步骤, 选人依据字段) 分组，每组只解析一次
+        Map<String, List<Long>> approverCache = new HashMap<>();
+        Map<Long, Long> currentApproverByBusinessId = new LinkedHashMap<>();
+        List<NotificationMessage> notifications = new ArrayList<>();
+
+        for (int from = 0; from < drafts.size(); from += BULK_CHUNK_SIZE) {
+            List<ApprovalInstanceDraft> chunk = drafts.subList(from, Math.min(from + BULK_CHUNK_SIZE, drafts.size()));
+            List<ApprovalInstance> instances = new ArrayList<>(chunk.size());
+            for (ApprovalInstanceDraft draft : chunk) {
+                ApprovalInstance instance = new ApprovalInstance();
+                instance.setBusinessType(businessType);
+                instance.setBusinessId(draft.businessId());
+                instance.setApplicantId(draft.applicantId());
+                instance.setProcess(process.getProcess());
+                instance.setApplicantInfo(draft.applicantInfo());
+                ApplicantContext context = ApplicantContext.parse(objectMapper, draft.applicantInfo());
+                instance.setApplicantContext(context);
+                instance.markPending(firstApplicableStep(process, context).getStepOrder());
+                instances.add(instance);
+            }
+            instanceJdbcRepository.batchInsert(instances);
+
+            // 按负载分配的步骤先统计本批各审批人分组的实例数，每组只调用一次选人脚本
+            Map<String, Integer> leastLoadedDemand = new HashMap<>();
+            for (ApprovalInstance instance : instances) {
+                for (ApprovalStep step : initialSteps(process, instance)) {
+                    if (step.isLeastLoadedAssignment()) {
+                        leastLoadedDemand.merge(approverGroupKey(step, instance.getApplicantContext()), 1, Integer::sum);
+                    }
+                }
+            }
+            Map<String, Iterator<Long>> leastLoadedPicks = new HashMap<>();
+
+            List<ApprovalTask> tasks = new ArrayList<>();
+            for (ApprovalInstance instance : instances) {
+                ApplicantContext context = instance.getApplicantContext();
+                Set<Integer> firstStageOrders = process.getStage(instance.getCurrentStep(), context).stream()
+                        .map(ApprovalStep::getStepOrder)
+                        .collect(Collectors.toSet());
+                for (ApprovalStep step : initialSteps(process, instance)) {
+                    boolean firstStage = firstStageOrders.contains(step.getStepOrder());
+                    String cacheKey = approverGroupKey(step, context);
+                    List<Long> candidates = approverCache.computeIfAbsent(cacheKey, key -> resolveApprovers(step, context));
+                    List<Long> approvers = candidates;
+                    if (step.isLeastLoadedAssignment()) {
+                        Iterator<Long> picks = leastLoadedPicks.computeIfAbsent(cacheKey, key -> loadBalancer
+                                .pick(candidates, leastLoadedDemand.get(key), firstStage).iterator());
+                        approvers = List.of(picks.next());
+                    }
+                    for (int i = 0; i < approvers.size(); i++) {
+                        ApprovalTask task = new ApprovalTask();
+                        task.setInstance(instance);
+                        task.setStep(step);
+                        task.setApproverId(approvers.get(i));
+                        if (firstStage) {
+                            task.markProcessing();
+                        } else {
+                            task.markPending();
+                        }
+                        task.setTaskOrder(i + 1);
+                        tasks.add(task);
+                    }
+                    if (firstStage && !approvers.isEmpty()) {
+                        currentApproverByBusinessId.putIfAbsent(instance.getBusinessId(), approvers.get(0));
+                    }
+                }
+            }
+            taskJdbcRepository.batchInsert(tasks);
+
+            // 一次读回本批任务，记录事件日志、登记 SLA、生成待办通知
+            List<Long> instanceIds = instances.stream().map(ApprovalInstance::getId).toList();
+            instances.forEach(instance -> {
+                eventJournal.recordInstance(ApprovalEventType.INSTANCE_CREATED, instance, instance.getApplicantId(), null);
+                processItemProjector.applicationSubmitted(instance);
+            });
+            preloadBusinessApplications(instances);
+            for (ApprovalTask task : taskRepository.findAllWithInstanceAndStepByInstanceIdIn(instanceIds)) {
+                if (task.isProcessing()) {
+                    eventJournal.recordTask(ApprovalEventType.TASK_PROCESSING, task);
+                    trackActivated(task, task.getStep().isLeastLoadedAssignment());
+                    notifyApprover(task, task.getInstance(), notifications);
+                } else {
+                    eventJournal.recordTask(ApprovalEventType.TASK_PENDING, task);
+                }
+            }
+        }
+
+        publishAggregatedNotifications(notifications);
+        log.info("批量发起审批完成，业务类型: {}, 实例数: {}, 审批人解析次数: {}",
+                businessType, drafts.size(), approverCache.size());
+        return currentApproverByBusinessId;
+    }
+
+    @Override
+    @OptimisticRetry
     public ApprovalTask processApprovalTask(Long taskId, Long approverId, String status, String comment) {
-        ApprovalTask task = taskRepository.findById(taskId)
+        ApprovalTask task = taskRepository.findWithInstanceAndStepById(taskId)
                 .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "审批任务不存在: " + taskId));
-        if (!task.isProcessing()) {
-            throw new BusinessException(ResultCode.PARAM_ERROR, "当前任务未到审批阶段或已处理");
+        validateApprovalStatus(status);
+        List<ApprovalTask> instanceTasks = new ArrayList<>(taskRepository.findByInstanceOrderByTaskOrderAsc(task.getInstance()));
+
+        List<NotificationMessage> notifications = new ArrayList<>();
+        applyDecision(task, instanceTasks, approverId, status, comment, notifications);
+        publishNotifications(notifications);
+        return task;
+    }
+
+    @Override
+    @OptimisticRetry
+    public <T> ApprovalDecisionResult<T> processApprovalByBusiness(String businessType, Long businessId, Long approverId,
+                                                                   String status, String comment,
+                                                                   Consumer<? super T> precondition) {
+        validateApprovalStatus(status);
+        List<Object[]> rows = loadDecisionContext(businessType, businessId);
+        if (rows.isEmpty()) {
+            throw missingDecisionContext(businessType, businessId);
         }
-        if (!task.getApproverId().equals(approverId)) {
-            throw new BusinessException(ResultCode.FORBIDDEN, "无权审批此任务");
+        @SuppressWarnings("unchecked")
+        T application = (T) rows.get(0)[1];
+        precondition.accept(application);
+
+        List<ApprovalTask> instanceTasks = new ArrayList<>(rows.size());
+        rows.forEach(row -> instanceTasks.add((ApprovalTask) row[0]));
+        ApprovalTask task = instanceTasks.stream()
+                .filter(candidate -> Objects.equals(candidate.getApproverId(), approverId))
+                .filter(ApprovalTask::isProcessing)
+                .findFirst()
+                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "当前没有可处理的审批任务"));
+
+        List<NotificationMessage> notifications = new ArrayList<>();
+        applyDecision(task, instanceTasks, approverId, status, comment, notifications);
+        publishNotifications(notifications);
+        return new ApprovalDecisionResult<>(task, task.getInstance(), application);
+    }
+
+    /**
+     * 每一轮在独立事务中批量处理。任务状态变更后才失败的条目（如下一步骤找不到审批人）无法单独撤销，
+     * 此时整轮回滚，记录该条失败后重新处理其余任务，最终提交的事务只包含成功的条目；
+     * 变更前即可判定的失败（任务已处理、非本人任务）直接记录，不触发重放。
+     * 回滚轮数达到上限后不再逐条剔除：再次失败时从该条起的剩余任务全部记为未处理，只重放它之前已成功的条目。
+     */
+    @Override
+    @OptimisticRetry
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchApprovalResult batchProcessApprovalTasks(List<Long> taskIds, Long approverId,
+                                                         String status, String comment) {
+        validateApprovalStatus(status);
+        List<Long> distinctTaskIds = taskIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctTaskIds.isEmpty()) {
+            return new BatchApprovalResult();
         }
-        if (!TASK_APPROVED.equals(status) && !TASK_REJECTED.equals(status)) {
-            throw new BusinessException(ResultCode.PARAM_ERROR, "无效的审批状态: " + status);
+
+        Map<Long, BatchItemRollback> rolledBack = new LinkedHashMap<>();
+        int[] cutoff = {distinctTaskIds.size()};
+        while (true) {
+            try {
+                BatchApprovalResult result = transactionTemplate.execute(transaction ->
+                        processBatch(distinctTaskIds, approverId, status, comment, rolledBack, cutoff[0]));
+                log.info("批量审批完成，审批人: {}, 总数: {}, 成功: {}, 失败: {}, 回滚重放次数: {}",
+                        approverId, result.getTotal(), result.getSuccessCount(), result.getFailureCount(), rolledBack.size());
+                return result;
+            } catch (BatchItemRollback rollback) {
+                log.warn("批量审批中任务处理失败，回滚后重放其余任务，taskId: {}, 原因: {}", rollback.taskId, rollback.getMessage());
+                if (rolledBack.size() >= maxBatchRollbackRounds) {
+                    cutoff[0] = distinctTaskIds.indexOf(rollback.taskId);
+                    log.warn("批量审批回滚轮数达到上限，剩余任务不再处理，审批人: {}, 未处理数: {}",
+                            approverId, distinctTaskIds.size() - cutoff[0] - 1);
+                }
+                rolledBack.put(rollback.taskId, rollback);
+            }
         }
+    }
 
-        task.markApproved(comment);
-        if (TASK_REJECTED.equals(status)) {
-            task.markRejected(comment);
+    /**
+     * 处理一轮批量审批
+     *
+     * @param cutoff 下标不小于该值的任务不处理（失败条目自身仍按回滚原因记录）
+     */
+    private BatchApprovalResult processBatch(List<Long> taskIds, Long approverId, String status, String comment,
+                                             Map<Long, BatchItemRollback> rolledBack, int cutoff) {
+        BatchApprovalResult result = new BatchApprovalResult();
+        List<Long> candidateIds = taskIds.subList(0, cutoff).stream()
+                .filter(taskId -> !rolledBack.containsKey(taskId))
+                .toList();
+
+        // 批量预加载：任务、同实例任务、业务单据、通知相关用户都进入持久化上下文，逐条处理时不再回表
+        Map<Long, ApprovalTask> tasksById = candidateIds.isEmpty() ? Map.of()
+                : taskRepository.findAllWithInstanceAndStepByIdIn(candidateIds).stream()
+                .collect(Collectors.toMap(ApprovalTask::getId, Function.identity()));
+        List<ApprovalInstance> instances = tasksById.values().stream()
+                .map(ApprovalTask::getInstance)
+                .distinct()
+                .toList();
+        Map<Long, List<ApprovalTask>> tasksByInstance = instances.isEmpty() ? Map.of()
+                : taskRepository.findByInstanceInOrderByTaskOrderAsc(instances).stream()
+                .collect(Collectors.groupingBy(task -> task.getInstance().getId()));
+        preloadBusinessApplications(instances);
+        preloadUsers(instances, tasksByInstance, approverId);
+
+        List<NotificationMessage> notifications = new ArrayList<>();
+        for (int i = 0; i < taskIds.size(); i++) {
+            Long taskId = taskIds.get(i);
+            BatchItemRollback previous = rolledBack.get(taskId);
+            if (previous != null) {
+                result.addFailure(taskId, previous.businessType, previous.businessId, previous.getMessage());
+                continue;
+            }
+            if (i >= cutoff) {
+                result.addFailure(taskId, null, null, "批量审批中失败的任务过多，该任务未处理，请重新提交");
+                continue;
+            }
+            ApprovalTask task = tasksById.get(taskId);
+            if (task == null) {
+                result.addFailure(taskId, null, null, "审批任务不存在: " + taskId);
+                continue;
+            }
+            ApprovalInstance instance = task.getInstance();
+            try {
+                checkDecidable(task, approverId);
+            } catch (BusinessException exception) {
+                result.addFailure(taskId, instance.getBusinessType(), instance.getBusinessId(), exception.getMessage());
+                continue;
+            }
+            try {
+                applyDecision(task, tasksByInstance.get(instance.getId()), approverId, status, comment, notifications);
+            } catch (BusinessException exception) {
+                throw new BatchItemRollback(taskId, instance.getBusinessType(), instance.getBusinessId(), exception.getMessage());
+            }
+            result.addSuccess(taskId, instance.getBusinessType(), instance.getBusinessId(), instance.getStatus());
         }
-        task = taskRepository.save(task);
 
-        ApprovalInstance instance = task.getInstance();
-        handleStepProgress(instance, task.getStep().getStepOrder(), status, approverId, comment);
-        updateBusinessStatus(instance, approverId, comment);
-        return task;
+        publishAggregatedNotifications(notifications);
+        return result;
     }
 
     @Override
@@ -146,28 +432,224 @@ public class ApprovalServiceImpl implements ApprovalService {
     @Override
     public List<ApprovalTask> getCurrentTasks(ApprovalInstance instance) {
         if (instance == null || instance.getCurrentStep() == null) return List.of();
-        return taskRepository.findByInstanceAndStepStepOrderOrderByTaskOrderAsc(instance, instance.getCurrentStep());
+        return taskRepository.findByInstanceAndStepStepOrderInOrderByTaskOrderAsc(
+                instance, stageOrders(instance, instance.getCurrentStep()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ApprovalTimelineEntry> getApprovalTimeline(String businessType, Long businessId) {
+        List<ApprovalTimelineEntry> timeline = new ArrayList<>();
+        ApprovalInstance instance = getApprovalInstance(businessType, businessId);
+        if (instance != null) {
+            addCreatedEntry(timeline, instance.getCreateTime(), instance.getApplicantId(), instance.getCurrentStep());
+            for (ApprovalTask task : taskRepository.findByInstanceOrderByTaskOrderAsc(instance)) {
+                addTaskEntries(timeline, task.getId(), task.getStep().getStepOrder(), task.getApproverId(),
+                        task.getStatus(), task.getComment(), task.getCreateTime(), task.getActivatedTime(),
+                        task.getApprovalTime());
+            }
+            addCompletedEntry(timeline, instance.getStatus(), instance.getCompletedTime(), instance.getCurrentStep());
+        } else {
+            ApprovalInstanceArchive archived = archiveRepository.findArchivedInstance(businessType, businessId).orElse(null);
+            if (archived == null) {
+                return List.of();
+            }
+            Map<Long, Integer> stepOrders = new HashMap<>();
+            processRegistry.getByProcessId(archived.getProcessId()).getSteps()
+                    .forEach(step -> stepOrders.put(step.getId(), step.getStepOrder()));
+            addCreatedEntry(timeline, archived.getCreateTime(), archived.getApplicantId(), archived.getCurrentStep());
+            for (ApprovalTaskArchive task : archiveRepository.findArchivedTasks(archived.getId())) {
+                addTaskEntries(timeline, task.getId(), stepOrders.get(task.getStepId()), task.getApproverId(),
+                        task.getStatus(), task.getComment(), task.getCreateTime(), task.getActivatedTime(),
+                        task.getApprovalTime());
+            }
+            addCompletedEntry(timeline, archived.getStatus(), archived.getCompletedTime(), archived.getCurrentStep());
+        }
+        // 稳定排序：同一时刻的事件保持实例创建、任务、实例结束的顺序
+        timeline.sort(Comparator.comparing(ApprovalTimelineEntry::time, Comparator.nullsLast(Comparator.naturalOrder())));
+        return timeline;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApprovalInstanceSnapshot replayApprovalInstance(String businessType, Long businessId) {
+        Map<Long, String> taskStatuses = new LinkedHashMap<>();
+        ApprovalInstance instance = getApprovalInstance(businessType, businessId);
+        Long instanceId;
+        String status;
+        if (instance != null) {
+            instanceId = instance.getId();
+            status = instance.getStatus();
+            taskRepository.findByInstanceOrderByTaskOrderAsc(instance)
+                    .forEach(task -> taskStatuses.put(task.getId(), task.getStatus()));
+        } else {
+            ApprovalInstanceArchive archived = archiveRepository.findArchivedInstance(businessType, businessId).orElse(null);
+            if (archived == null) {
+                return null;
+            }
+            instanceId = archived.getId();
+            status = archived.getStatus();
+            archiveRepository.findArchivedTasks(instanceId)
+                    .forEach(task -> taskStatuses.put(task.getId(), task.getStatus()));
+        }
+        ApprovalInstanceSnapshot snapshot = eventJournal.rebuild(instanceId);
+        return snapshot == null ? null : snapshot.verify(status, taskStatuses);
+    }
+
+    private static void addCreatedEntry(List<ApprovalTimelineEntry> timeline, LocalDateTime createTime,
+                                        Long applicantId, Integer currentStep) {
+        timeline.add(new ApprovalTimelineEntry(createTime, ApprovalEventType.INSTANCE_CREATED, null,
+                currentStep, applicantId, null));
+    }
+
+    private static void addCompletedEntry(List<ApprovalTimelineEntry> timeline, String status,
+                                          LocalDateTime completedTime, Integer currentStep) {
+        if (TASK_APPROVED.equals(status)) {
+            timeline.add(new ApprovalTimelineEntry(completedTime, ApprovalEventType.INSTANCE_APPROVED, null,
+                    currentStep, null, null));
+        } else if (TASK_REJECTED.equals(status)) {
+            timeline.add(new ApprovalTimelineEntry(completedTime, ApprovalEventType.INSTANCE_REJECTED, null,
+                    currentStep, null, null));
+        }
+    }
+
+    /**
+     * 任务的时间线：创建后未立即激活时先有待处理条目，激活时间对应进行中条目，审批时间对应处理结果
+     */
+    private static void addTaskEntries(List<ApprovalTimelineEntry> timeline, Long taskId, Integer stepOrder,
+                                       Long approverId, String status, String comment, LocalDateTime createTime,
+                                       LocalDateTime activatedTime, LocalDateTime approvalTime) {
+        if (createTime != null && (activatedTime == null || activatedTime.isAfter(createTime))) {
+            timeline.add(new ApprovalTimelineEntry(createTime, ApprovalEventType.TASK_PENDING, taskId,
+                    stepOrder, approverId, null));
+        }
+        if (activatedTime != null) {
+            timeline.add(new ApprovalTimelineEntry(activatedTime, ApprovalEventType.TASK_PROCESSING, taskId,
+                    stepOrder, approverId, null));
+        }
+        ApprovalEventType result = TASK_APPROVED.equals(status) ? ApprovalEventType.TASK_APPROVED
+                : TASK_REJECTED.equals(status) ? ApprovalEventType.TASK_REJECTED
+                : TASK_SKIPPED.equals(status) ? ApprovalEventType.TASK_SKIPPED : null;
+        if (result != null) {
+            timeline.add(new ApprovalTimelineEntry(approvalTime, result, taskId, stepOrder, approverId, comment));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApprovalStatsView getApprovalStats(Long operatorId, String scope, Long scopeId,
+                                              LocalDate fromDate, LocalDate toDate) {
+        User operator = userRepository.findById(operatorId)
+                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "用户不存在"));
+        if (Arrays.stream(RoleEnum.getStaffRoles()).noneMatch(role -> role.getCode().equals(operator.getRole()))) {
+            throw new BusinessException(ResultCode.FORBIDDEN, "仅学工人员可查看审批统计");
+        }
+        ApprovalStatsScopeEnum scopeEnum = Arrays.stream(ApprovalStatsScopeEnum.values())
+                .filter(value -> value.getCode().equalsIgnoreCase(scope))
+                .findFirst()
+                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "不支持的统计维度: " + scope));
+        return statsAggregator.query(scopeEnum, scopeId, fromDate, toDate);
     }
 
     // =======================================================
     // 审批流程内部逻辑
     // =======================================================
 
-    private void createApprovalTasks(ApprovalInstance instance, ApprovalStep step, String applicantInfo) {
+    private List<ApprovalTask> createApprovalTasks(ApprovalInstance instance, ApprovalStep step) {
+        // 待审批任务此时不预占负载，进入进行中时再计入
+        List<Long> approvers = assignApprovers(step, resolveApprovers(step, applicantContext(instance)), false);
+        List<ApprovalTask> tasks = new ArrayList<>(approvers.size());
+        for (int i = 0; i < approvers.size(); i++) {
+            ApprovalTask task = new ApprovalTask();
+            task.setInstance(instance);
+            task.setStep(step);
+            task.setApproverId(approvers.get(i));
+            task.markPending();
+            task.setTaskOrder(i + 1);
+            ApprovalTask saved = taskRepository.save(task);
+            eventJournal.recordTask(ApprovalEventType.TASK_PENDING, saved);
+            tasks.add(saved);
+        }
+        return tasks;
+    }
+
+    /**
+     * 延迟物化：步骤激活时才创建该步骤的任务，直接以进行中状态批量插入后再一次性读回
+     */
+    private List<ApprovalTask> materializeStepTasks(ApprovalInstance instance, Integer stepOrder) {
+        ApprovalStep step = processRegistry.getByProcessId(instance.getProcess().getId()).getStep(stepOrder);
+        if (step == null) {
+            throw new BusinessException(ResultCode.SYSTEM_ERROR, "审批步骤不存在 stepOrder=" + stepOrder);
+        }
+        List<Long> approvers = assignApprovers(step, resolveApprovers(step, applicantContext(instance)), true);
+        List<ApprovalTask> tasks = new ArrayList<>(approvers.size());
+        for (int i = 0; i < approvers.size(); i++) {
+            ApprovalTask task = new ApprovalTask();
+            task.setInstance(instance);
+            task.setStep(step);
+            task.setApproverId(approvers.get(i));
+            task.markProcessing();
+            task.setTaskOrder(i + 1);
+            tasks.add(task);
+        }
+        taskJdbcRepository.batchInsert(tasks);
+        List<ApprovalTask> materialized = taskRepository.findByInstanceAndStepStepOrderOrderByTaskOrderAsc(instance, stepOrder);
+        materialized.forEach(task -> eventJournal.recordTask(ApprovalEventType.TASK_PROCESSING, task));
+        return materialized;
+    }
+
+    /**
+     * 按步骤分配方式确定任务审批人：按负载分配的步骤只分配给候选人中负载最低的一位
+     *
+     * @param reserve 任务是否直接进入进行中（是则在选人时预占负载）
+     */
+    private List<Long> assignApprovers(ApprovalStep step, List<Long> candidates, boolean reserve) {
+        if (!step.isLeastLoadedAssignment()) {
+            return candidates;
+        }
+        return loadBalancer.pick(candidates, 1, reserve);
+    }
+
+    /**
+     * 任务进入进行中后的登记：SLA、统计、流程列表和审批人负载（选人时已预占负载的任务不再计入）
+     */
+    private void trackActivated(ApprovalTask task, boolean loadReserved) {
+        slaScheduler.track(task);
+        statsAggregator.recordActivated(task);
+        processItemProjector.taskActivated(task);
+        if (!loadReserved) {
+            loadBalancer.recordOpened(task);
+        }
+    }
+
+    /**
+     * 发起时需要创建任务的步骤：延迟物化模式下只有首个阶段，否则为全部适用步骤
+     */
+    private List<ApprovalStep> initialSteps(CompiledApprovalProcess process, ApprovalInstance instance) {
+        ApplicantContext context = applicantContext(instance);
+        return lazyTaskMaterialization
+                ? process.getStage(instance.getCurrentStep(), context)
+                : process.getSteps(context);
+    }
+
+    /**
+     * 审批人分组键：只包含 {@link #findApprovers} 对该步骤实际读取的申请人字段，候选审批人相同的申请落在同一组
+     */
+    private String approverGroupKey(ApprovalStep step, ApplicantContext context) {
+        if (step.isCounselorStep()) {
+            return step.getId() + "|" + context.getDepartmentId() + "|" + context.getGrade();
+        }
+        if (step.isCollegeLeaderStep()) {
+            return step.getId() + "|" + context.getDepartmentId();
+        }
+        return String.valueOf(step.getId());
+    }
+
+    private List<Long> resolveApprovers(ApprovalStep step, ApplicantContext context) {
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> data = objectMapper.readValue(applicantInfo, Map.class);
-            List<Long> approvers = findApprovers(step, data).stream().distinct().toList();
+            List<Long> approvers = findApprovers(step, context).stream().distinct().toList();
             if (approvers.isEmpty()) throw new BusinessException("审批步骤未找到审批人: " + step.getStepName());
-            for (int i = 0; i < approvers.size(); i++) {
-                ApprovalTask task = new ApprovalTask();
-                task.setInstance(instance);
-                task.setStep(step);
-                task.setApproverId(approvers.get(i));
-                task.markPending();
-                task.setTaskOrder(i + 1);
-                taskRepository.save(task);
-            }
+            return approvers;
         } catch (BusinessException exception) {
             throw exception;
         } catch (Exception exception) {
@@ -176,32 +658,27 @@ public class ApprovalServiceImpl implements ApprovalService {
         }
     }
 
-    private List<Long> findApprovers(ApprovalStep step, Map<String, Object> data) {
+    private List<Long> findApprovers(ApprovalStep step, ApplicantContext context) {
         List<Long> approvers = new ArrayList<>();
-        Object deptIdObj = data.get("departmentId");
-        String grade = (String) data.get("grade");
-        Long departmentId;
+        Long departmentId = context.getDepartmentId();
+        String grade = context.getGrade();
 
         if (step.isCounselorStep()) {
-            if (deptIdObj == null) {
+            if (departmentId == null) {
                 throw new BusinessException("本次申请学院id为空！");
             }
             if (grade == null || grade.isEmpty()) {
                 throw new BusinessException("本次申请年级为空！");
             }
-            departmentId = Long.valueOf(deptIdObj.toString());
-            userRepository.findByDepartmentIdAndGradeAndRole(departmentId, grade, COUNSELOR.getCode())
-                    .forEach(user -> approvers.add(user.getId()));
+            addApprovers(approvers, orgDirectory.findApprovers(departmentId, grade, COUNSELOR.getCode()));
             return approvers;
         }
 
         if (step.isCollegeLeaderStep()) {
-            if (deptIdObj == null) {
+            if (departmentId == null) {
                 throw new BusinessException("本次申请学院id为空！");
             }
-            departmentId = Long.valueOf(deptIdObj.toString());
-            userRepository.findByDepartmentIdAndRole(departmentId, COLLEGE_LEADER.getCode())
-                    .forEach(user -> approvers.add(user.getId()));
+            addApprovers(approvers, orgDirectory.findApprovers(departmentId, COLLEGE_LEADER.getCode()));
             return approvers;
         }
 
@@ -215,18 +692,93 @@ public class ApprovalServiceImpl implements ApprovalService {
             if (departmentId == null) {
                 throw new BusinessException("部门领导审批，但未设置领导的部门！");
             }
-            userRepository.findByDepartmentIdAndRole(departmentId, DEPARTMENT_LEADER.getCode())
-                    .forEach(user -> approvers.add(user.getId()));
+            addApprovers(approvers, orgDirectory.findApprovers(departmentId, DEPARTMENT_LEADER.getCode()));
             return approvers;
         }
 
         throw new BusinessException("未知的审批人角色: " + step.getApproverRole());
     }
 
-    private void handleStepProgress(ApprovalInstance instance, Integer stepOrder,
-                                    String taskStatus, Long approverId, String comment) {
-        List<ApprovalTask> stepTasks = taskRepository
-                .findByInstanceAndStepStepOrderOrderByTaskOrderAsc(instance, stepOrder);
+    private void addApprovers(List<Long> approvers, long[] approverIds) {
+        for (long approverId : approverIds) {
+            approvers.add(approverId);
+        }
+    }
+
+    /**
+     * 按业务类型选择连接查询，一次取回实例全部任务和业务单据
+     */
+    private List<Object[]> loadDecisionContext(String businessType, Long businessId) {
+        if (BUSINESS_TYPE_LEAVE.equals(businessType)) {
+            return taskRepository.findDecisionContextWithLeave(businessType, businessId);
+        }
+        if (BUSINESS_TYPE_AWARD.equals(businessType)) {
+            return taskRepository.findDecisionContextWithAward(businessType, businessId);
+        }
+        throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的业务类型: " + businessType);
+    }
+
+    /**
+     * 连接查询无结果时区分单据不存在和审批流程不存在（仅异常路径多一次查询）
+     */
+    private BusinessException missingDecisionContext(String businessType, Long businessId) {
+        if (BUSINESS_TYPE_LEAVE.equals(businessType) && !leaveApplicationRepository.existsById(businessId)) {
+            return new BusinessException(ResultCode.LEAVE_APPLICATION_NOT_FOUND);
+        }
+        if (BUSINESS_TYPE_AWARD.equals(businessType) && !awardApplicationRepository.existsById(businessId)) {
+            return new BusinessException(ResultCode.AWARD_APPLICATION_NOT_FOUND);
+        }
+        return new BusinessException(ResultCode.PARAM_ERROR, "审批流程不存在");
+    }
+
+    private void validateApprovalStatus(String status) {
+        if (!TASK_APPROVED.equals(status) && !TASK_REJECTED.equals(status)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "无效的审批状态: " + status);
+        }
+    }
+
+    /**
+     * 审批前置校验，不修改任何状态
+     */
+    private void checkDecidable(ApprovalTask task, Long approverId) {
+        if (!task.isProcessing()) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "当前任务未到审批阶段或已处理");
+        }
+        if (!task.getApproverId().equals(approverId)) {
+            throw new BusinessException(ResultCode.FORBIDDEN, "无权审批此任务");
+        }
+    }
+
+    /**
+     * 对单个任务执行审批决定并推进流程，instanceTasks 为该实例的全部任务（与 task 同属一个持久化上下文）
+     */
+    private void applyDecision(ApprovalTask task, List<ApprovalTask> instanceTasks, Long approverId,
+                               String status, String comment, List<NotificationMessage> notifications) {
+        checkDecidable(task, approverId);
+
+        if (TASK_REJECTED.equals(status)) {
+            task.markRejected(comment);
+            eventJournal.recordTask(ApprovalEventType.TASK_REJECTED, task);
+        } else {
+            task.markApproved(comment);
+            eventJournal.recordTask(ApprovalEventType.TASK_APPROVED, task);
+        }
+        taskRepository.save(task);
+        statsAggregator.recordDecision(task);
+        loadBalancer.recordClosed(task);
+        processItemProjector.taskDecided(task);
+
+        // 无论实例字段是否变化都递增版本：多人会签时并发审批的同级任务会在实例行上冲突，冲突方重试后能看到对方结果
+        ApprovalInstance instance = task.getInstance();
+        entityManager.lock(instance, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        handleStepProgress(instance, instanceTasks, task.getStep().getStepOrder(), status, approverId, comment, notifications);
+        updateBusinessStatus(instance, instanceTasks, approverId, comment);
+    }
+
+    private void handleStepProgress(ApprovalInstance instance, List<ApprovalTask> instanceTasks, Integer stepOrder,
+                                    String taskStatus, Long approverId, String comment,
+                                    List<NotificationMessage> notifications) {
+        List<ApprovalTask> stepTasks = tasksOfStep(instanceTasks, stepOrder);
         if (stepTasks.isEmpty()) {
             throw new BusinessException(ResultCode.SYSTEM_ERROR, "审批步骤任务不存在 stepOrder=" + stepOrder);
         }
@@ -235,26 +787,42 @@ public class ApprovalServiceImpl implements ApprovalService {
         if (TASK_REJECTED.equals(taskStatus) && !canContinueAfterReject(step)) {
             instance.markRejected();
             instanceRepository.save(instance);
-            notifyApplicant(instance, INSTANCE_REJECTED, approverId, comment);
+            processItemProjector.applicationCompleted(instance);
+            skipOpenTasks(instance, instanceTasks);
+            eventJournal.recordInstance(ApprovalEventType.INSTANCE_REJECTED, instance, approverId, comment);
+            notifyApplicant(instance, INSTANCE_REJECTED, approverId, comment, notifications);
             return;
         }
 
-        if (!isStepApproved(stepTasks)) {
-            instance.markPending(stepOrder);
+        // 任一审批人通过即完成的步骤，其余审批人的任务不再需要处理
+        if (isStepApproved(stepTasks)) {
+            skipOpenTasks(instance, stepTasks);
+        }
+
+        // 并行阶段在全部适用分支通过后汇合；串行步骤的阶段只有自身
+        List<Integer> stageOrders = applicableStageOrders(instance, stepOrder);
+        boolean stageApproved = stageOrders.stream().allMatch(order -> {
+            List<ApprovalTask> branchTasks = tasksOfStep(instanceTasks, order);
+            return !branchTasks.isEmpty() && isStepApproved(branchTasks);
+        });
+        if (!stageApproved) {
+            instance.markPending(stageOrders.get(0));
             instanceRepository.save(instance);
             return;
         }
 
-        ApprovalStep nextStep = findNextStep(instance.getProcess(), stepOrder);
+        ApprovalStep nextStep = findNextStep(instance, stepOrder);
         if (nextStep != null) {
             instance.markPending(nextStep.getStepOrder());
             instanceRepository.save(instance);
-            activateStep(instance, nextStep.getStepOrder());
+            activateStage(instance, instanceTasks, nextStep.getStepOrder(), notifications);
         } else {
             instance.markApproved();
             instance.setCurrentStep(stepOrder);
             instanceRepository.save(instance);
-            notifyApplicant(instance, INSTANCE_APPROVED, approverId, comment);
+            processItemProjector.applicationCompleted(instance);
+            eventJournal.recordInstance(ApprovalEventType.INSTANCE_APPROVED, instance, approverId, comment);
+            notifyApplicant(instance, INSTANCE_APPROVED, approverId, comment, notifications);
         }
     }
 
@@ -266,32 +834,116 @@ public class ApprovalServiceImpl implements ApprovalService {
         return stepTasks.stream().anyMatch(ApprovalTask::isApproved);
     }
 
+    /**
+     * 关闭不再需要处理的任务：一条批量 UPDATE 置为已跳过，已通知到审批人的待办随事务提交撤回
+     */
+    private void skipOpenTasks(ApprovalInstance instance, List<ApprovalTask> candidates) {
+        List<ApprovalTask> openTasks = candidates.stream().filter(ApprovalTask::isOpen).toList();
+        if (openTasks.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        taskRepository.closeOpenTasks(openTasks.stream().map(ApprovalTask::getId).toList(),
+                List.of(TASK_PENDING, TASK_PROCESSING), TASK_SKIPPED, now);
+        List<NotificationRetraction> retractions = new ArrayList<>();
+        for (ApprovalTask task : openTasks) {
+            if (task.isProcessing()) {
+                retractions.add(new NotificationRetraction(task.getApproverId(), instance.getBusinessType(),
+                        instance.getBusinessType(), instance.getBusinessId()));
+                loadBalancer.recordClosed(task);
+                processItemProjector.taskWithdrawn(task.getApproverId(), instance);
+            }
+            // 数据库行已由批量 UPDATE 更新，脱离持久化上下文后再同步内存状态，避免脏检查逐行重复更新
+            entityManager.detach(task);
+            task.markSkipped(now);
+            eventJournal.recordTask(ApprovalEventType.TASK_SKIPPED, task);
+        }
+        notificationService.retractApprovalNotifications(retractions);
+    }
+
     private boolean canContinueAfterReject(ApprovalStep step) {
         return step.allowsRejectContinue();
     }
 
-    private void activateStep(ApprovalInstance instance, Integer stepOrder) {
-        taskRepository.findByInstanceAndStepStepOrderOrderByTaskOrderAsc(instance, stepOrder)
-                .forEach(task -> {
-                    if (task.isPending()) {
-                        task.markProcessing();
-                        taskRepository.save(task);
-                        notifyApprover(task, instance);
-                    }
-                });
+    /**
+     * 激活步骤所在阶段：并行阶段中适用于申请人的各分支同时进入进行中
+     */
+    private void activateStage(ApprovalInstance instance, List<ApprovalTask> instanceTasks, Integer stepOrder,
+                               List<NotificationMessage> notifications) {
+        applicableStageOrders(instance, stepOrder).forEach(order -> activateStep(instance, instanceTasks, order, notifications));
+    }
+
+    private void activateStep(ApprovalInstance instance, List<ApprovalTask> instanceTasks, Integer stepOrder,
+                              List<NotificationMessage> notifications) {
+        List<ApprovalTask> stepTasks = tasksOfStep(instanceTasks, stepOrder);
+        if (stepTasks.isEmpty()) {
+            List<ApprovalTask> materialized = materializeStepTasks(instance, stepOrder);
+            instanceTasks.addAll(materialized);
+            materialized.forEach(task -> {
+                trackActivated(task, task.getStep().isLeastLoadedAssignment());
+                notifyApprover(task, instance, notifications);
+            });
+            return;
+        }
+        stepTasks.forEach(task -> {
+            if (task.isPending()) {
+                task.markProcessing();
+                taskRepository.save(task);
+                eventJournal.recordTask(ApprovalEventType.TASK_PROCESSING, task);
+                trackActivated(task, false);
+                notifyApprover(task, instance, notifications);
+            }
+        });
     }
 
-    private ApprovalStep findNextStep(ApprovalProcess process, Integer currentStepOrder) {
-        return stepRepository.findByProcessOrderByStepOrderAsc(process).stream()
-                .filter(s -> s.getStepOrder() > currentStepOrder)
-                .min(Comparator.comparing(ApprovalStep::getStepOrder))
-                .orElse(null);
+    private List<ApprovalTask> tasksOfStep(List<ApprovalTask> instanceTasks, Integer stepOrder) {
+        return instanceTasks.stream()
+                .filter(task -> Objects.equals(task.getStep().getStepOrder(), stepOrder))
+                .toList();
     }
 
-    private void updateBusinessStatus(ApprovalInstance instance, Long fallbackApproverId, String approvalComment) {
+    /**
+     * 步骤所在阶段的全部步骤顺序（升序，第一个为阶段的代表步骤）
+     */
+    private List<Integer> stageOrders(ApprovalInstance instance, Integer stepOrder) {
+        List<ApprovalStep> stage = processRegistry.getByProcessId(instance.getProcess().getId()).getStage(stepOrder);
+        return stage.isEmpty() ? List.of(stepOrder) : stage.stream().map(ApprovalStep::getStepOrder).toList();
+    }
+
+    /**
+     * 步骤所在阶段中适用于申请人的步骤顺序（升序），用于激活和汇合
+     */
+    private List<Integer> applicableStageOrders(ApprovalInstance instance, Integer stepOrder) {
+        List<ApprovalStep> stage = processRegistry.getByProcessId(instance.getProcess().getId())
+                .getStage(stepOrder, applicantContext(instance));
+        return stage.isEmpty() ? List.of(stepOrder) : stage.stream().map(ApprovalStep::getStepOrder).toList();
+    }
+
+    private ApprovalStep findNextStep(ApprovalInstance instance, Integer currentStepOrder) {
+        return processRegistry.getByProcessId(instance.getProcess().getId())
+                .findNextStep(currentStepOrder, applicantContext(instance));
+    }
+
+    private ApprovalStep firstApplicableStep(CompiledApprovalProcess process, ApplicantContext context) {
+        ApprovalStep first = process.getFirstStep(context);
+        if (first == null) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "审批流程没有适用于本次申请的审批步骤: " + process.getProcessType());
+        }
+        return first;
+    }
+
+    /**
+     * 申请人信息按实例只解析一次，解析结果挂在实例上供路由条件和审批人解析复用
+     */
+    private ApplicantContext applicantContext(ApprovalInstance instance) {
+        return instance.resolveApplicantContext(objectMapper);
+    }
+
+    private void updateBusinessStatus(ApprovalInstance instance, List<ApprovalTask> instanceTasks,
+                                      Long fallbackApproverId, String approvalComment) {
         String status = instance.getStatus();
         Long businessId = instance.getBusinessId();
-        Long approverId = resolveApproverId(instance, fallbackApproverId);
+        Long approverId = resolveApproverId(instance, instanceTasks, fallbackApproverId);
         try {
             if (BUSINESS_TYPE_LEAVE.equals(instance.getBusinessType())) {
                 leaveApplicationRepository.findById(businessId).ifPresent(application -> {
@@ -333,24 +985,101 @@ public class ApprovalServiceImpl implements ApprovalService {
         application.setApprovalTime(LocalDateTime.now());
     }
 
-    private Long resolveApproverId(ApprovalInstance instance, Long fallbackApproverId) {
-        Long currentApproverId = getCurrentApproverId(instance);
+    private Long resolveApproverId(ApprovalInstance instance, List<ApprovalTask> instanceTasks, Long fallbackApproverId) {
+        Long currentApproverId = getCurrentApproverId(instance, instanceTasks);
         return currentApproverId != null ? currentApproverId : fallbackApproverId;
     }
 
-    private Long getCurrentApproverId(ApprovalInstance instance) {
-        return getCurrentTasks(instance).stream()
+    private Long getCurrentApproverId(ApprovalInstance instance, List<ApprovalTask> instanceTasks) {
+        if (instance.getCurrentStep() == null) {
+            return null;
+        }
+        List<Integer> stageOrders = stageOrders(instance, instance.getCurrentStep());
+        return instanceTasks.stream()
+                .filter(task -> stageOrders.contains(task.getStep().getStepOrder()))
                 .filter(ApprovalTask::isProcessing)
                 .map(ApprovalTask::getApproverId)
                 .findFirst().orElse(null);
     }
 
+    private void preloadBusinessApplications(List<ApprovalInstance> instances) {
+        List<Long> leaveIds = businessIdsOf(instances, BUSINESS_TYPE_LEAVE);
+        if (!leaveIds.isEmpty()) {
+            leaveApplicationRepository.findAllById(leaveIds);
+        }
+        List<Long> awardIds = businessIdsOf(instances, BUSINESS_TYPE_AWARD);
+        if (!awardIds.isEmpty()) {
+            awardApplicationRepository.findAllById(awardIds);
+        }
+    }
+
+    private List<Long> businessIdsOf(List<ApprovalInstance> instances, String businessType) {
+        return instances.stream()
+                .filter(instance -> businessType.equals(instance.getBusinessType()))
+                .map(ApprovalInstance::getBusinessId)
+                .distinct()
+                .toList();
+    }
+
+    private void preloadUsers(List<ApprovalInstance> instances, Map<Long, List<ApprovalTask>> tasksByInstance,
+                              Long approverId) {
+        Set<Long> userIds = new HashSet<>();
+        userIds.add(approverId);
+        instances.forEach(instance -> userIds.add(instance.getApplicantId()));
+        tasksByInstance.values().forEach(tasks -> tasks.forEach(task -> userIds.add(task.getApproverId())));
+        userIds.remove(null);
+        userRepository.findAllById(userIds);
+    }
+
     // =======================================================
     // 通知方法
     // =======================================================
 
+    private void publishNotifications(List<NotificationMessage> notifications) {
+        notifications.forEach(notificationService::sendAwardApprovalNotification);
+    }
+
+    /** 批量审批：同一审批者的多条待办合并为一条，所有通知一次性投递 */
+    private void publishAggregatedNotifications(List<NotificationMessage> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        Map<Long, List<NotificationMessage>> approverNotifications = new LinkedHashMap<>();
+        List<NotificationMessage> aggregated = new ArrayList<>();
+        for (NotificationMessage message : notifications) {
+            if (NotificationTypeEnum.APPROVAL_RESULT.getCode().equals(message.getType())) {
+                aggregated.add(message);
+            } else {
+                approverNotifications.computeIfAbsent(message.getUserId(), key -> new ArrayList<>()).add(message);
+            }
+        }
+        approverNotifications.values().forEach(messages -> aggregated.add(
+                messages.size() == 1 ? messages.get(0) : mergeApproverNotifications(messages)));
+        notificationService.sendApprovalNotifications(aggregated);
+    }
+
+    private NotificationMessage mergeApproverNotifications(List<NotificationMessage> messages) {
+        NotificationMessage first = messages.get(0);
+        String businessNos = messages.stream()
+                .map(message -> "#" + message.getBusinessId())
+                .collect(Collectors.joining("、"));
+        return NotificationMessage.builder()
+                .userId(first.getUserId())
+                .phone(first.getPhone())
+                .email(first.getEmail())
+                .wechatOpenId(first.getWechatOpenId())
+                .weworkUserId(first.getWeworkUserId())
+                .type(first.getType())
+                .title(String.format("您有%d条新的申请待审批", messages.size()))
+                .content(String.format("您有%d条新的申请（编号 %s）需要您审批，请及时处理。", messages.size(), businessNos))
+                .businessType(first.getBusinessType())
+                .channels(first.getChannels())
+                .receiverName(first.getReceiverName())
+                .build();
+    }
+
     /** 通知审批者：您有新的待审批任务 */
-    private void notifyApprover(ApprovalTask task, ApprovalInstance instance) {
+    private void notifyApprover(ApprovalTask task, ApprovalInstance instance, List<NotificationMessage> notifications) {
         try {
             User approver = userRepository.findById(task.getApproverId()).orElse(null);
             if (approver == null) {
@@ -367,7 +1096,7 @@ public class ApprovalServiceImpl implements ApprovalService {
                     String.format("您有一条新的%s（编号 #%d）需要您进行【%s】审批，请及时处理。",
                             businessName, instance.getBusinessId(), stepName)
             );
-            notificationService.sendAwardApprovalNotification(msg);
+            notifications.add(msg);
         } catch (Exception exception) {
             log.error("发送审批者通知失败，approverId: {}", task.getApproverId(), exception);
         }
@@ -375,7 +1104,7 @@ public class ApprovalServiceImpl implements ApprovalService {
 
     /** 通知申请者：审批最终结果（通过或拒绝） */
     private void notifyApplicant(ApprovalInstance instance, String finalStatus,
-                                 Long approverId, String comment) {
+                                 Long approverId, String comment, List<NotificationMessage> notifications) {
         try {
             Long applicantId = instance.getApplicantId();
             if (applicantId == null) {
@@ -402,7 +1131,7 @@ public class ApprovalServiceImpl implements ApprovalService {
             msg.setApprovalStatus(finalStatus);
             msg.setApprovalComment(comment);
             msg.setApproverName(approver != null ? approver.getRealName() : "系统");
-            notificationService.sendAwardApprovalNotification(msg);
+            notifications.add(msg);
         } catch (Exception exception) {
             log.error("发送申请者通知失败，instanceId: {}", instance.getId(), exception);
         }
@@ -463,4 +1192,21 @@ public class ApprovalServiceImpl implements ApprovalService {
     private String resolveApplicantStatusText(String finalStatus) {
         return INSTANCE_APPROVED.equals(finalStatus) ? STATUS_TEXT_APPROVED : STATUS_TEXT_REJECTED;
     }
+
+    /**
+     * 批量审批中任务状态变更后失败的条目，抛出后回滚本轮事务
+     */
+    private static final class BatchItemRollback extends RuntimeException {
+
+        private final Long taskId;
+        private final String businessType;
+        private final Long businessId;
+
+        private BatchItemRollback(Long taskId, String businessType, Long businessId, String message) {
+            super(message, null, false, false);
+            this.taskId = taskId;
+            this.businessType = businessType;
+            this.businessId = businessId;
+        }
+    }
 }
@@ -0,0 +1,429 @@
+package com.example.learnworkagent.domain.approval.sla;
+
+import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
+import com.example.learnworkagent.common.enums.NotificationBusinessTypeEnum;
+import com.example.learnworkagent.common.enums.NotificationChannelEnum;
+import com.example.learnworkagent.common.enums.NotificationTypeEnum;
+import com.example.learnworkagent.common.enums.RoleEnum;
+import com.example.learnworkagent.common.util.HashedTimingWheel;
+import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
+import com.example.learnworkagent.domain.approval.entity.ApprovalStep;
+import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import com.example.learnworkagent.domain.approval.repository.ApprovalTaskJdbcRepository;
+import com.example.learnworkagent.domain.approval.repository.ApprovalTaskRepository;
+import com.example.learnworkagent.domain.notification.entity.NotificationMessage;
+import com.example.learnworkagent.domain.notification.service.NotificationService;
+import com.example.learnworkagent.domain.user.entity.User;
+import com.example.learnworkagent.domain.user.repository.UserRepository;
+import com.example.learnworkagent.domain.user.service.OrgDirectory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 审批 SLA 调度器。
+ * 步骤配置了催办/升级时限时，任务进入进行中后在哈希时间轮上登记到期时间，到期后催办审批人或升级通知，
+ * 每个 tick 只处理一个槽位，不扫描审批任务表。
+ * 集群内通过 Redis 租约选出一个主节点持有时间轮：主节点当选时从数据库重建，其他节点激活任务后经 Redis 频道转交主节点登记。
+ * 到期时重新读取任务状态，已处理的任务直接丢弃。
+ * 频道消息不持久化，主节点交接期间（旧主节点失去租约到新主节点当选）发出的登记消息会丢失；
+ * 登记消息都在任务事务提交后发出，新主节点先置为主节点再清空时间轮并查询数据库，
+ * 交接期间激活的任务已提交，由重建查询补登，当选后到达的消息照常登记。
+ */
+@Slf4j
+@Component
+public class ApprovalSlaScheduler implements MessageListener {
+
+    /**
+     * SLA 登记频道，消息格式：taskId:level:dueAtMillis
+     */
+    public static final String TRACK_CHANNEL = "approval:sla:track";
+
+    public static final int LEVEL_NONE = 0;
+    public static final int LEVEL_REMINDED = 1;
+    public static final int LEVEL_ESCALATED = 2;
+
+    private static final String LEADER_KEY = "approval:sla:leader";
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final List<String> NOTIFICATION_CHANNELS = List.of(
+            NotificationChannelEnum.SITE.getCode(),
+            NotificationChannelEnum.EMAIL.getCode()
+    );
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final ApprovalTaskRepository taskRepository;
+    private final ApprovalTaskJdbcRepository taskJdbcRepository;
+    private final UserRepository userRepository;
+    private final OrgDirectory orgDirectory;
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor taskExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<Long, HashedTimingWheel.Timeout<SlaTimer>> timersByTask = new ConcurrentHashMap<>();
+    private volatile boolean leader;
+    private HashedTimingWheel<SlaTimer> wheel;
+    private Counter reminderCounter;
+    private Counter escalationCounter;
+
+    @Value("${approval.sla.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${approval.sla.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${approval.sla.leader-lease-ms:30000}")
+    private long leaderLeaseMillis;
+
+    public ApprovalSlaScheduler(ApprovalTaskRepository taskRepository,
+                                ApprovalTaskJdbcRepository taskJdbcRepository,
+                                UserRepository userRepository,
+                                OrgDirectory orgDirectory,
+                                NotificationService notificationService,
+                                ObjectMapper objectMapper,
+                                RedisTemplate<String, Object> redisTemplate,
+                                StringRedisTemplate stringRedisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                TransactionTemplate transactionTemplate,
+                                @Qualifier("taskExecutor") Executor taskExecutor,
+                                MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.taskJdbcRepository = taskJdbcRepository;
+        this.userRepository = userRepository;
+        this.orgDirectory = orgDirectory;
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        wheel = new HashedTimingWheel<>("approval-sla-wheel", tickMillis, wheelSize,
+                this::dispatchTimeout);
+        wheel.start();
+        reminderCounter = Counter.builder("approval.sla.fired").tag("level", "reminder").register(meterRegistry);
+        escalationCounter = Counter.builder("approval.sla.fired").tag("level", "escalation").register(meterRegistry);
+        Gauge.builder("approval.sla.wheel.pending", wheel, HashedTimingWheel::pendingCount).register(meterRegistry);
+        Gauge.builder("approval.sla.wheel.occupied_buckets", wheel, HashedTimingWheel::occupiedBuckets).register(meterRegistry);
+        Gauge.builder("approval.sla.wheel.size", wheel, HashedTimingWheel::wheelSize).register(meterRegistry);
+        Gauge.builder("approval.sla.leader", this, scheduler -> scheduler.leader ? 1 : 0).register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(TRACK_CHANNEL));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        if (leader) {
+            try {
+                stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(LEADER_KEY), nodeId);
+            } catch (Exception exception) {
+                log.warn("释放 SLA 主节点租约失败: {}", exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 任务进入进行中后登记 SLA（事务提交后经频道转交主节点）
+     */
+    public void track(ApprovalTask task) {
+        SlaTimer timer = nextTimer(task.getId(), task.getActivatedTime(), task.getSlaLevel(), task.getStep());
+        if (timer == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(timer);
+                }
+            });
+        } else {
+            broadcast(timer);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!leader) {
+            return;
+        }
+        Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (payload == null) {
+            return;
+        }
+        String[] parts = payload.toString().split(":");
+        schedule(new SlaTimer(Long.valueOf(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2])));
+    }
+
+    /**
+     * 竞选/续约主节点租约，当选时从数据库重建时间轮，失去租约时清空
+     */
+    @Scheduled(fixedDelayString = "${approval.sla.leader-renew-ms:10000}")
+    public void maintainLeadership() {
+        try {
+            if (leader) {
+                Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(LEADER_KEY), nodeId, String.valueOf(leaderLeaseMillis));
+                if (renewed == null || renewed == 0) {
+                    log.warn("SLA 主节点租约丢失，清空时间轮，nodeId: {}", nodeId);
+                    resign();
+                }
+                return;
+            }
+            Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(LEADER_KEY, nodeId, Duration.ofMillis(leaderLeaseMillis));
+            if (Boolean.TRUE.equals(acquired)) {
+                leader = true;
+                rebuild();
+            }
+        } catch (Exception exception) {
+            log.error("SLA 主节点租约维护失败", exception);
+            if (leader) {
+                resign();
+            }
+        }
+    }
+
+    private void resign() {
+        leader = false;
+        timersByTask.clear();
+        wheel.clear();
+    }
+
+    private void rebuild() {
+        // 只清空此前登记的定时任务，下面重新登记的不受影响
+        wheel.clear();
+        timersByTask.clear();
+        List<ApprovalTask> tasks = taskRepository.findSlaTrackedTasks(ApprovalStatusEnum.PROCESSING.getCode(), LEVEL_ESCALATED);
+        int scheduled = 0;
+        for (ApprovalTask task : tasks) {
+            SlaTimer timer = nextTimer(task.getId(), task.getActivatedTime(), task.getSlaLevel(), task.getStep());
+            if (timer != null) {
+                schedule(timer);
+                scheduled++;
+            }
+        }
+        log.info("当选 SLA 主节点，时间轮重建完成，nodeId: {}, 登记任务数: {}", nodeId, scheduled);
+    }
+
+    private void schedule(SlaTimer timer) {
+        HashedTimingWheel.Timeout<SlaTimer> timeout = wheel.schedule(timer, timer.dueAtMillis());
+        HashedTimingWheel.Timeout<SlaTimer> previous = timersByTask.put(timer.taskId(), timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void broadcast(SlaTimer timer) {
+        try {
+            redisTemplate.convertAndSend(TRACK_CHANNEL, timer.taskId() + ":" + timer.level() + ":" + timer.dueAtMillis());
+        } catch (Exception exception) {
+            log.error("登记审批 SLA 失败，taskId: {}", timer.taskId(), exception);
+        }
+    }
+
+    /**
+     * 到期回调在时间轮线程上触发，实际处理交给线程池，线程池满时在当前线程处理
+     */
+    private void dispatchTimeout(SlaTimer timer) {
+        try {
+            taskExecutor.execute(() -> handleTimeout(timer));
+        } catch (RejectedExecutionException exception) {
+            handleTimeout(timer);
+        }
+    }
+
+    private void handleTimeout(SlaTimer timer) {
+        timersByTask.computeIfPresent(timer.taskId(), (taskId, timeout) -> timeout.payload() == timer ? null : timeout);
+        if (!leader) {
+            return;
+        }
+        try {
+            SlaTimer next = transactionTemplate.execute(status -> fire(timer));
+            if (next != null) {
+                schedule(next);
+            }
+        } catch (Exception exception) {
+            log.error("处理审批 SLA 到期失败，taskId: {}, level: {}", timer.taskId(), timer.level(), exception);
+        }
+    }
+
+    private SlaTimer fire(SlaTimer timer) {
+        List<ApprovalTask> found = taskRepository.findAllWithInstanceAndStepByIdIn(List.of(timer.taskId()));
+        if (found.isEmpty()) {
+            return null;
+        }
+        ApprovalTask task = found.get(0);
+        if (!task.isProcessing() || task.getSlaLevel() >= timer.level()) {
+            return null;
+        }
+        if (!taskJdbcRepository.advanceSlaLevel(task.getId(), timer.level())) {
+            return null;
+        }
+
+        if (timer.level() == LEVEL_REMINDED) {
+            remind(task);
+            reminderCounter.increment();
+        } else {
+            escalate(task);
+            escalationCounter.increment();
+        }
+        return nextTimer(task.getId(), task.getActivatedTime(), timer.level(), task.getStep());
+    }
+
+    private void remind(ApprovalTask task) {
+        ApprovalInstance instance = task.getInstance();
+        User approver = userRepository.findById(task.getApproverId()).orElse(null);
+        if (approver == null) {
+            return;
+        }
+        String businessName = resolveBusinessName(instance.getBusinessType());
+        notificationService.sendAwardApprovalNotification(buildMessage(approver, instance,
+                NotificationTypeEnum.APPROVAL_REMINDER.getCode(),
+                businessName + "审批催办",
+                String.format("您有一条%s（编号 #%d）的【%s】审批已等待 %d 分钟，请尽快处理。",
+                        businessName, instance.getBusinessId(), task.getStep().getStepName(),
+                        task.getStep().getReminderMinutes())));
+        log.info("审批任务催办，taskId: {}, approverId: {}", task.getId(), task.getApproverId());
+    }
+
+    private void escalate(ApprovalTask task) {
+        ApprovalInstance instance = task.getInstance();
+        ApprovalStep step = task.getStep();
+        String businessName = resolveBusinessName(instance.getBusinessType());
+        User approver = userRepository.findById(task.getApproverId()).orElse(null);
+        String approverName = approver != null ? approver.getRealName() : String.valueOf(task.getApproverId());
+
+        Set<Long> receivers = new LinkedHashSet<>(resolveEscalationReceivers(step, instance));
+        receivers.remove(task.getApproverId());
+        for (User receiver : userRepository.findAllById(receivers)) {
+            notificationService.sendAwardApprovalNotification(buildMessage(receiver, instance,
+                    NotificationTypeEnum.APPROVAL_ESCALATION.getCode(),
+                    businessName + "审批超时",
+                    String.format("%s（编号 #%d）的【%s】审批已由 %s 超时 %d 分钟未处理，请关注。",
+                            businessName, instance.getBusinessId(), step.getStepName(), approverName,
+                            step.getEscalationMinutes())));
+        }
+        if (approver != null) {
+            notificationService.sendAwardApprovalNotification(buildMessage(approver, instance,
+                    NotificationTypeEnum.APPROVAL_ESCALATION.getCode(),
+                    businessName + "审批超时",
+                    String.format("您的%s（编号 #%d）【%s】审批已超时并上报，请立即处理。",
+                            businessName, instance.getBusinessId(), step.getStepName())));
+        }
+        log.info("审批任务超时升级，taskId: {}, 升级通知人数: {}", task.getId(), receivers.size());
+    }
+
+    private List<Long> resolveEscalationReceivers(ApprovalStep step, ApprovalInstance instance) {
+        if (step.getEscalationUserId() != null) {
+            return List.of(step.getEscalationUserId());
+        }
+        if (!step.isCounselorStep()) {
+            return List.of();
+        }
+        try {
+            Long departmentId = instance.resolveApplicantContext(objectMapper).getDepartmentId();
+            if (departmentId == null) {
+                return List.of();
+            }
+            List<Long> receivers = new ArrayList<>();
+            for (long id : orgDirectory.findApprovers(departmentId, RoleEnum.COLLEGE_LEADER.getCode())) {
+                receivers.add(id);
+            }
+            return receivers;
+        } catch (Exception exception) {
+            log.warn("解析升级通知对象失败，instanceId: {}", instance.getId(), exception);
+            return List.of();
+        }
+    }
+
+    private NotificationMessage buildMessage(User receiver, ApprovalInstance instance, String type,
+                                             String title, String content) {
+        return NotificationMessage.builder()
+                .userId(receiver.getId())
+                .phone(receiver.getPhone())
+                .email(receiver.getEmail())
+                .wechatOpenId(receiver.getWechatOpenId())
+                .weworkUserId(receiver.getWeworkUserId())
+                .type(type)
+                .title(title)
+                .content(content)
+                .businessId(instance.getBusinessId())
+                .businessType(instance.getBusinessType())
+                .channels(NOTIFICATION_CHANNELS)
+                .receiverName(receiver.getRealName())
+                .build();
+    }
+
+    private String resolveBusinessName(String businessType) {
+        return NotificationBusinessTypeEnum.LEAVE.getCode().equals(businessType) ? "请假申请" : "奖助申请";
+    }
+
+    /**
+     * 计算任务的下一个 SLA 到期点，无后续级别时返回 null
+     */
+    static SlaTimer nextTimer(Long taskId, LocalDateTime activatedTime, Integer slaLevel, ApprovalStep step) {
+        if (taskId == null || activatedTime == null || step == null || !step.hasSla()) {
+            return null;
+        }
+        int level = slaLevel == null ? LEVEL_NONE : slaLevel;
+        long activatedMillis = activatedTime.atZone(ZONE).toInstant().toEpochMilli();
+        if (level < LEVEL_REMINDED && step.getReminderMinutes() != null) {
+            return new SlaTimer(taskId, LEVEL_REMINDED, activatedMillis + step.getReminderMinutes() * 60_000L);
+        }
+        if (level < LEVEL_ESCALATED && step.getEscalationMinutes() != null) {
+            return new SlaTimer(taskId, LEVEL_ESCALATED, activatedMillis + step.getEscalationMinutes() * 60_000L);
+        }
+        return null;
+    }
+
+    /**
+     * 时间轮上的 SLA 定时项
+     */
+    record SlaTimer(Long taskId, int level, long dueAtMillis) {
+    }
+}
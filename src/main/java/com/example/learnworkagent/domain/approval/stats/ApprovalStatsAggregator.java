@@ -0,0 +1,350 @@
+package com.example.learnworkagent.domain.approval.stats;
+
+import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.enums.ApprovalStatsScopeEnum;
+import com.example.learnworkagent.common.exception.BusinessException;
+import com.example.learnworkagent.common.util.LatencyHistogram;
+import com.example.learnworkagent.domain.approval.dto.ApprovalStatsView;
+import com.example.learnworkagent.domain.approval.entity.ApprovalStatsDaily;
+import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import com.example.learnworkagent.domain.approval.repository.ApprovalStatsDailyRepository;
+import com.example.learnworkagent.domain.user.entity.User;
+import com.example.learnworkagent.domain.user.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 审批统计增量聚合器。
+ * 审批引擎在任务进入进行中、被批准或拒绝时上报事件，事务提交后累加到内存中的 (日期, 审批人, 步骤, 流程) 单元，
+ * 单元内保存计数和定长耗时直方图。定时任务取走全部单元，按审批人、步骤、院系、流程四个维度汇总后，
+ * 锁定对应的日快照行做增量合并；写库失败时单元放回内存，下一轮重试。
+ * 查询只按 (维度, 维度ID, 日期) 读取快照行并合并直方图，不扫描任务表；快照行在本地缓存一个刷新周期，
+ * 其他节点的增量最多延迟一个刷新周期可见。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApprovalStatsAggregator {
+
+    private static final int ACTIVATED = 0;
+    private static final int APPROVED = 1;
+    private static final int REJECTED = 2;
+    private static final long NO_LATENCY = -1L;
+    private static final Snapshot EMPTY = new Snapshot(0, 0, 0, null);
+
+    private final ApprovalStatsDailyRepository statsRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<CellKey, Cell> cells = new ConcurrentHashMap<>();
+
+    @Value("${approval.stats.flush-interval-ms:30000}")
+    private long flushIntervalMillis;
+
+    @Value("${approval.stats.max-range-days:92}")
+    private int maxRangeDays;
+
+    @Value("${approval.stats.cache-size:50000}")
+    private long cacheSize;
+
+    private Cache<RowKey, Snapshot> snapshotCache;
+    private Timer flushTimer;
+    private Counter flushFailureCounter;
+
+    @PostConstruct
+    public void init() {
+        snapshotCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMillis(flushIntervalMillis))
+                .build();
+        flushTimer = Timer.builder("approval.stats.flush").register(meterRegistry);
+        flushFailureCounter = Counter.builder("approval.stats.flush.failures").register(meterRegistry);
+        Gauge.builder("approval.stats.pending_cells", cells, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * 任务进入进行中
+     */
+    public void recordActivated(ApprovalTask task) {
+        LocalDateTime activatedTime = task.getActivatedTime() != null ? task.getActivatedTime() : LocalDateTime.now();
+        enqueue(new StatEvent(cellKey(task, activatedTime), ACTIVATED, NO_LATENCY));
+    }
+
+    /**
+     * 任务被批准或拒绝，耗时从进入进行中算起
+     */
+    public void recordDecision(ApprovalTask task) {
+        LocalDateTime decisionTime = task.getApprovalTime() != null ? task.getApprovalTime() : LocalDateTime.now();
+        long latency = task.getActivatedTime() == null ? NO_LATENCY
+                : Math.max(0, Duration.between(task.getActivatedTime(), decisionTime).toSeconds());
+        enqueue(new StatEvent(cellKey(task, decisionTime), task.isRejected() ? REJECTED : APPROVED, latency));
+    }
+
+    /**
+     * 查询某维度在日期区间内的统计，按天读取快照（命中缓存时不访问数据库）
+     */
+    public ApprovalStatsView query(ApprovalStatsScopeEnum scope, Long scopeId, LocalDate fromDate, LocalDate toDate) {
+        if (scopeId == null || fromDate == null || toDate == null || fromDate.isAfter(toDate)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "统计参数不合法");
+        }
+        long days = ChronoUnit.DAYS.between(fromDate, toDate) + 1;
+        if (days > maxRangeDays) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "统计区间不能超过 " + maxRangeDays + " 天");
+        }
+
+        Map<LocalDate, Snapshot> snapshots = new HashMap<>();
+        List<LocalDate> misses = new ArrayList<>();
+        for (LocalDate day = fromDate; !day.isAfter(toDate); day = day.plusDays(1)) {
+            Snapshot cached = snapshotCache.getIfPresent(new RowKey(day, scope.getCode(), scopeId));
+            if (cached != null) {
+                snapshots.put(day, cached);
+            } else {
+                misses.add(day);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<LocalDate, ApprovalStatsDaily> loaded = statsRepository
+                    .findByScopeAndScopeIdAndStatDateIn(scope.getCode(), scopeId, misses).stream()
+                    .collect(Collectors.toMap(ApprovalStatsDaily::getStatDate, Function.identity()));
+            for (LocalDate day : misses) {
+                ApprovalStatsDaily row = loaded.get(day);
+                Snapshot snapshot = row == null ? EMPTY : new Snapshot(row.getActivatedCount(),
+                        row.getApprovedCount(), row.getRejectedCount(), row.getLatencyHistogram());
+                snapshotCache.put(new RowKey(day, scope.getCode(), scopeId), snapshot);
+                snapshots.put(day, snapshot);
+            }
+        }
+
+        ApprovalStatsView view = new ApprovalStatsView();
+        view.setScope(scope.getCode());
+        view.setScopeId(scopeId);
+        view.setFromDate(fromDate);
+        view.setToDate(toDate);
+        LatencyHistogram latency = new LatencyHistogram();
+        for (Snapshot snapshot : snapshots.values()) {
+            view.setActivatedCount(view.getActivatedCount() + snapshot.activated());
+            view.setApprovedCount(view.getApprovedCount() + snapshot.approved());
+            view.setRejectedCount(view.getRejectedCount() + snapshot.rejected());
+            if (snapshot.latency() != null) {
+                latency.merge(LatencyHistogram.fromBytes(snapshot.latency()));
+            }
+        }
+        view.setAvgLatencySeconds(latency.getMean());
+        view.setP50LatencySeconds(latency.valueAtPercentile(50));
+        view.setP90LatencySeconds(latency.valueAtPercentile(90));
+        view.setP99LatencySeconds(latency.valueAtPercentile(99));
+        view.setMaxLatencySeconds(latency.getMax());
+        return view;
+    }
+
+    /**
+     * 定时把内存增量合并到日快照
+     */
+    @Scheduled(fixedDelayString = "${approval.stats.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        if (cells.isEmpty()) {
+            return;
+        }
+        Map<CellKey, Cell> drained = new HashMap<>();
+        for (CellKey key : cells.keySet()) {
+            Cell cell = cells.remove(key);
+            if (cell != null) {
+                drained.put(key, cell);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Set<RowKey> merged = persist(drained);
+            snapshotCache.invalidateAll(merged);
+            log.debug("审批统计增量已合并，单元数: {}, 快照行数: {}", drained.size(), merged.size());
+        } catch (Exception exception) {
+            flushFailureCounter.increment();
+            log.warn("审批统计增量合并失败，单元放回内存等待下一轮，单元数: {}, 原因: {}",
+                    drained.size(), exception.getMessage());
+            drained.forEach((key, cell) -> cells.merge(key, cell, Cell::mergeFrom));
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Set<RowKey> persist(Map<CellKey, Cell> drained) {
+        Set<Long> approverIds = drained.keySet().stream().map(CellKey::approverId).collect(Collectors.toSet());
+        Map<Long, Long> departmentByApprover = new HashMap<>();
+        for (User user : userRepository.findAllById(approverIds)) {
+            if (user.getDepartmentId() != null) {
+                departmentByApprover.put(user.getId(), user.getDepartmentId());
+            }
+        }
+
+        // 细粒度单元汇总到四个维度；按 (日期, 维度) 分组并排序，多节点同时合并时加锁顺序一致
+        Map<RowKey, Cell> rows = new HashMap<>();
+        drained.forEach((key, cell) -> {
+            rollup(rows, key.day(), ApprovalStatsScopeEnum.APPROVER, key.approverId(), cell);
+            rollup(rows, key.day(), ApprovalStatsScopeEnum.STEP, key.stepId(), cell);
+            rollup(rows, key.day(), ApprovalStatsScopeEnum.PROCESS, key.processId(), cell);
+            Long departmentId = departmentByApprover.get(key.approverId());
+            if (departmentId != null) {
+                rollup(rows, key.day(), ApprovalStatsScopeEnum.DEPARTMENT, departmentId, cell);
+            }
+        });
+        Map<RowKey, Map<Long, Cell>> groups = new TreeMap<>(Comparator.comparing(RowKey::day).thenComparing(RowKey::scope));
+        rows.forEach((key, cell) -> groups
+                .computeIfAbsent(new RowKey(key.day(), key.scope(), 0L), group -> new TreeMap<>())
+                .put(key.scopeId(), cell));
+
+        transactionTemplate.executeWithoutResult(status -> groups.forEach((group, cellsById) -> {
+            Map<Long, ApprovalStatsDaily> existing = statsRepository
+                    .lockForMerge(group.day(), group.scope(), cellsById.keySet()).stream()
+                    .collect(Collectors.toMap(ApprovalStatsDaily::getScopeId, Function.identity()));
+            List<ApprovalStatsDaily> changed = new ArrayList<>(cellsById.size());
+            cellsById.forEach((scopeId, cell) -> {
+                ApprovalStatsDaily row = existing.get(scopeId);
+                if (row == null) {
+                    row = new ApprovalStatsDaily();
+                    row.setStatDate(group.day());
+                    row.setScope(group.scope());
+                    row.setScopeId(scopeId);
+                }
+                row.merge(cell.activated, cell.approved, cell.rejected, cell.latency);
+                changed.add(row);
+            });
+            statsRepository.saveAll(changed);
+        }));
+        return new HashSet<>(rows.keySet());
+    }
+
+    private void rollup(Map<RowKey, Cell> rows, LocalDate day, ApprovalStatsScopeEnum scope, long scopeId, Cell cell) {
+        rows.computeIfAbsent(new RowKey(day, scope.getCode(), scopeId), key -> new Cell()).mergeFrom(cell);
+    }
+
+    private CellKey cellKey(ApprovalTask task, LocalDateTime time) {
+        return new CellKey(time.toLocalDate(), task.getApproverId(),
+                task.getStep().getId(), task.getStep().getProcess().getId());
+    }
+
+    private void enqueue(StatEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(List.of(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<StatEvent> buffered = (List<StatEvent>) TransactionSynchronizationManager.getResource(this);
+        if (buffered == null) {
+            List<StatEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(ApprovalStatsAggregator.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(ApprovalStatsAggregator.this, events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ApprovalStatsAggregator.this);
+                    if (status == STATUS_COMMITTED) {
+                        apply(events);
+                    }
+                }
+            });
+            buffered = events;
+        }
+        buffered.add(event);
+    }
+
+    private void apply(List<StatEvent> events) {
+        for (StatEvent event : events) {
+            cells.compute(event.key(), (key, cell) -> {
+                Cell target = cell != null ? cell : new Cell();
+                target.add(event.kind(), event.latencySeconds());
+                return target;
+            });
+        }
+    }
+
+    private record CellKey(LocalDate day, long approverId, long stepId, long processId) {
+    }
+
+    private record RowKey(LocalDate day, String scope, long scopeId) {
+    }
+
+    private record StatEvent(CellKey key, int kind, long latencySeconds) {
+    }
+
+    private record Snapshot(long activated, long approved, long rejected, byte[] latency) {
+    }
+
+    /**
+     * 统计单元：计数和耗时直方图，只在 ConcurrentHashMap 的 compute/merge 中修改
+     */
+    private static final class Cell {
+
+        private long activated;
+        private long approved;
+        private long rejected;
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        void add(int kind, long latencySeconds) {
+            switch (kind) {
+                case ACTIVATED -> activated++;
+                case APPROVED -> approved++;
+                default -> rejected++;
+            }
+            if (latencySeconds != NO_LATENCY) {
+                latency.record(latencySeconds);
+            }
+        }
+
+        Cell mergeFrom(Cell other) {
+            activated += other.activated;
+            approved += other.approved;
+            rejected += other.rejected;
+            latency.merge(other.latency);
+            return this;
+        }
+    }
+}
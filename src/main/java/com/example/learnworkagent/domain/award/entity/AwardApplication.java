@@ -16,7 +16,9 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Comment("奖助申请表")
-@Table(name = "award_application")
+@Table(name = "award_application", indexes = {
+        @Index(name = "idx_award_applicant_time", columnList = "applicant_id, create_time")
+})
 public class AwardApplication extends BaseEntity {
 
     /**
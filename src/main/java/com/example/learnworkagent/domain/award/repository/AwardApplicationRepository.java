@@ -1,8 +1,11 @@
 package com.example.learnworkagent.domain.award.repository;
 
 import com.example.learnworkagent.domain.award.entity.AwardApplication;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
@@ -18,6 +21,15 @@ public interface AwardApplicationRepository extends JpaRepository<AwardApplicati
      */
     Page<AwardApplication> findByApplicantIdAndDeletedFalseOrderByCreateTimeDesc(Long applicantId, Pageable pageable);
 
+    /**
+     * 游标分页查询学生的奖助申请
+     */
+    Window<AwardApplication> findByApplicantIdAndDeletedFalseOrderByCreateTimeDescIdDesc(Long applicantId,
+                                                                                         ScrollPosition position,
+                                                                                         Limit limit);
+
+    long countByApplicantIdAndDeletedFalse(Long applicantId);
+
     /**
      * 根据申请人ID和审批状态查询
      */
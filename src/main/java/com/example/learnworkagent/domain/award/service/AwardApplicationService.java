@@ -1,13 +1,13 @@
 package com.example.learnworkagent.domain.award.service;
 
 import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.annotation.OptimisticRetry;
 import com.example.learnworkagent.common.dto.PageRequest;
 import com.example.learnworkagent.common.dto.PageResult;
+import com.example.learnworkagent.common.util.KeysetPaging;
 import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
 import com.example.learnworkagent.common.enums.NotificationBusinessTypeEnum;
 import com.example.learnworkagent.common.exception.BusinessException;
-import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
-import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
 import com.example.learnworkagent.domain.approval.service.ApprovalService;
 import com.example.learnworkagent.domain.award.dto.AwardApplicationRequest;
 import com.example.learnworkagent.domain.award.entity.AwardApplication;
@@ -94,18 +94,12 @@ public class AwardApplicationService {
      * @param approvalStatus 审批状态
      * @param approvalComment 审批意见
      */
+    @OptimisticRetry
     @Transactional
     public void approveAwardApplication(Long applicationId, Long approverId,
                                         String approvalStatus, String approvalComment) {
-        AwardApplication application = getApplicationById(applicationId);
-
-        if (!MATERIAL_STATUS_PASSED.equals(application.getMaterialStatus())) {
-            throw new BusinessException(ResultCode.PARAM_ERROR, "材料预审未通过，无法审批");
-        }
-
-        ApprovalInstance approvalInstance = approvalService.getApprovalInstance(BUSINESS_TYPE_AWARD, applicationId);
-        ApprovalTask currentTask = getCurrentTask(approvalInstance, approverId);
-        approvalService.processApprovalTask(currentTask.getId(), approverId, approvalStatus, approvalComment);
+        approvalService.<AwardApplication>processApprovalByBusiness(BUSINESS_TYPE_AWARD, applicationId, approverId,
+                approvalStatus, approvalComment, this::requireMaterialsPassed);
     }
 
     /**
@@ -124,6 +118,11 @@ public class AwardApplicationService {
      * @return 奖助申请分页查询结果
      */
     public PageResult<AwardApplication> getUserApplications(Long userId, PageRequest pageRequest) {
+        if (pageRequest.isKeysetMode()) {
+            return KeysetPaging.toPageResult(awardApplicationRepository.findByApplicantIdAndDeletedFalseOrderByCreateTimeDescIdDesc(
+                            userId, KeysetPaging.position(pageRequest), KeysetPaging.limit(pageRequest)),
+                    pageRequest, () -> awardApplicationRepository.countByApplicantIdAndDeletedFalse(userId));
+        }
         Pageable pageable = buildPageable(pageRequest);
         Page<AwardApplication> page = awardApplicationRepository
                 .findByApplicantIdAndDeletedFalseOrderByCreateTimeDesc(userId, pageable);
@@ -238,12 +237,13 @@ public class AwardApplicationService {
     }
 
     private Map<String, Object> buildApplicantInfo(AwardApplicationRequest request) {
-        Map<String, Object> applicantInfo = new HashMap<>(5);
+        Map<String, Object> applicantInfo = new HashMap<>(8);
         applicantInfo.put("departmentId", request.getDepartmentId());
         applicantInfo.put("grade", request.getGrade());
         applicantInfo.put("className", request.getClassName());
         applicantInfo.put("studentName", request.getStudentName());
         applicantInfo.put("applicationType", request.getApplicationType());
+        applicantInfo.put("amount", request.getAmount());
         return applicantInfo;
     }
 
@@ -261,16 +261,10 @@ public class AwardApplicationService {
         return output == null ? "" : output.toString().toLowerCase();
     }
 
-    private ApprovalTask getCurrentTask(ApprovalInstance approvalInstance, Long approverId) {
-        if (approvalInstance == null) {
-            throw new BusinessException(ResultCode.PARAM_ERROR, "审批流程不存在");
+    private void requireMaterialsPassed(AwardApplication application) {
+        if (!MATERIAL_STATUS_PASSED.equals(application.getMaterialStatus())) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "材料预审未通过，无法审批");
         }
-
-        return approvalService.getCurrentTasks(approvalInstance).stream()
-                .filter(task -> Objects.equals(task.getApproverId(), approverId))
-                .filter(task -> ApprovalStatusEnum.PROCESSING.getCode().equals(task.getStatus()))
-                .findFirst()
-                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "当前没有可处理的审批任务"));
     }
 
     private boolean isBlank(String value) {
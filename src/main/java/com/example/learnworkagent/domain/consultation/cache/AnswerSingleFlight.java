@@ -0,0 +1,320 @@
+package com.example.learnworkagent.domain.consultation.cache;
+
+import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.exception.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 相同问题的 AI 调用合并（single-flight）。
+ * 同一归一化问题同时只有一个上游调用：本节点内后到的请求直接订阅同一个可重放的 Flux；
+ * 跨节点由 Redis 租约选出领头节点，领头节点把答案分片追加到以租约令牌命名的 Redis Stream，
+ * 其他节点从头读取该 Stream 重放。领头节点异常退出导致长时间没有新分片时，
+ * 尚未收到任何分片的跟随者改为自行调用上游。
+ * 跟随者开始读取前在租约令牌对应的跟随者计数上登记。领头节点的订阅者全部取消时，没有跟随者登记则关闭计数并取消上游调用，
+ * 之后到达的跟随者看到已关闭的计数改为自行调用；已有跟随者登记时上游调用和转发继续到回答结束，
+ * 完整回答交给调用方写入答案缓存，不因本节点的请求已断开而丢弃（跟随者的登记不撤销）。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnswerSingleFlight {
+
+    private static final String LEASE_KEY_PREFIX = "consultation:flight:lease:";
+    private static final String STREAM_KEY_PREFIX = "consultation:flight:stream:";
+    private static final String FOLLOWERS_KEY_PREFIX = "consultation:flight:followers:";
+    private static final String FIELD_CHUNK = "chunk";
+    private static final String FIELD_DONE = "done";
+    private static final String FIELD_ERROR = "error";
+    private static final int PUBLISH_BATCH_SIZE = 32;
+    private static final Duration PUBLISH_BATCH_WINDOW = Duration.ofMillis(100);
+    private static final Duration READ_BLOCK = Duration.ofSeconds(1);
+
+    /**
+     * KEYS[1] 租约；ARGV: 令牌, 租约毫秒。抢到租约返回自己的令牌，否则返回当前持有者的令牌
+     */
+    private static final DefaultRedisScript<String> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+              return ARGV[1]
+            end
+            return redis.call('GET', KEYS[1])
+            """, String.class);
+
+    /**
+     * KEYS[1] 租约；ARGV[1] 令牌。只释放自己持有的租约
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * KEYS[1] 跟随者计数；ARGV[1] 过期毫秒。领头节点已关闭时返回 0，否则登记并返回 1
+     */
+    private static final DefaultRedisScript<Long> FOLLOW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == 'closed' then
+              return 0
+            end
+            redis.call('INCR', KEYS[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS[1] 跟随者计数；ARGV[1] 过期毫秒。没有跟随者登记时关闭并返回 1，否则返回 0
+     */
+    private static final DefaultRedisScript<Long> CLOSE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+              return 0
+            end
+            redis.call('SET', KEYS[1], 'closed', 'PX', ARGV[1])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Flux<String>> inflight = new ConcurrentHashMap<>();
+
+    @Value("${consultation.single-flight.lease-ms:120000}")
+    private long leaseMillis;
+
+    @Value("${consultation.single-flight.idle-timeout-ms:30000}")
+    private long idleTimeoutMillis;
+
+    @Value("${consultation.single-flight.replay-retention-ms:60000}")
+    private long replayRetentionMillis;
+
+    /**
+     * 加入相同问题的进行中调用，没有时由当前请求发起
+     *
+     * @param questionKey 问题标识（{@link SemanticAnswerCache#questionKey}）
+     * @param upstream    实际的上游调用
+     * @param onOrphaned  本节点订阅者全部取消、为其他节点继续生成的回答完整结束后回调（完整答案），在阻塞线程池执行
+     * @return 可被多个订阅者共享的答案分片流
+     */
+    public Flux<String> join(String questionKey, Supplier<Flux<String>> upstream, Consumer<String> onOrphaned) {
+        Flux<String> existing = inflight.get(questionKey);
+        if (existing != null) {
+            record("local");
+            return existing;
+        }
+        AtomicBoolean created = new AtomicBoolean();
+        Flux<String> flight = inflight.computeIfAbsent(questionKey, key -> {
+            created.set(true);
+            return Flux.defer(() -> start(key, upstream, onOrphaned))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doFinally(signal -> inflight.remove(key))
+                    .replay()
+                    .refCount(1);
+        });
+        if (!created.get()) {
+            record("local");
+        }
+        return flight;
+    }
+
+    private Flux<String> start(String questionKey, Supplier<Flux<String>> upstream, Consumer<String> onOrphaned) {
+        String token = UUID.randomUUID().toString();
+        String holder;
+        try {
+            holder = stringRedisTemplate.execute(ACQUIRE_SCRIPT, List.of(LEASE_KEY_PREFIX + questionKey),
+                    token, String.valueOf(leaseMillis));
+        } catch (Exception exception) {
+            log.warn("获取问题调用租约失败，本节点直接调用，原因: {}", exception.getMessage());
+            record("leader");
+            return upstream.get();
+        }
+        if (holder == null || holder.equals(token)) {
+            record("leader");
+            return lead(questionKey, token, upstream.get(), onOrphaned);
+        }
+        if (!registerFollower(FOLLOWERS_KEY_PREFIX + questionKey + ":" + holder)) {
+            log.info("领头节点已取消相同问题的调用，本节点直接调用，questionKey: {}", questionKey);
+            record("leader");
+            return upstream.get();
+        }
+        record("remote");
+        AtomicBoolean received = new AtomicBoolean();
+        return follow(STREAM_KEY_PREFIX + questionKey + ":" + holder)
+                .doOnNext(chunk -> received.set(true))
+                .onErrorResume(error -> !received.get(), error -> {
+                    log.warn("等待其他节点的相同问题回答失败，改为自行调用，原因: {}", error.getMessage());
+                    return upstream.get();
+                });
+    }
+
+    /**
+     * 领头节点：上游分片照常下发，同时按批追加到 Redis Stream 供其他节点重放。
+     * 转发是上游的常驻订阅者；本节点订阅者全部取消时按跟随者登记决定取消上游，还是继续生成并在结束后回调 onOrphaned
+     */
+    private Flux<String> lead(String questionKey, String token, Flux<String> upstream, Consumer<String> onOrphaned) {
+        String leaseKey = LEASE_KEY_PREFIX + questionKey;
+        String streamKey = STREAM_KEY_PREFIX + questionKey + ":" + token;
+        String followersKey = FOLLOWERS_KEY_PREFIX + questionKey + ":" + token;
+        AtomicReference<Disposable> connection = new AtomicReference<>();
+        AtomicBoolean orphaned = new AtomicBoolean();
+        StringBuilder answer = new StringBuilder();
+        Flux<String> shared = upstream.publish().autoConnect(2, connection::set);
+        Disposable relay = shared.bufferTimeout(PUBLISH_BATCH_SIZE, PUBLISH_BATCH_WINDOW)
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(
+                        chunks -> {
+                            String text = String.join("", chunks);
+                            answer.append(text);
+                            append(streamKey, FIELD_CHUNK, text);
+                        },
+                        error -> finish(leaseKey, streamKey, token, FIELD_ERROR,
+                                error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName()),
+                        () -> {
+                            finish(leaseKey, streamKey, token, FIELD_DONE, "1");
+                            if (orphaned.get()) {
+                                deliverOrphaned(questionKey, answer.toString(), onOrphaned);
+                            }
+                        });
+        return shared.doOnCancel(() -> {
+            orphaned.set(true);
+            Schedulers.boundedElastic().schedule(() -> {
+                if (!closeUnfollowed(followersKey)) {
+                    log.info("本节点订阅者已全部取消，其他节点仍在等待回答，继续生成，questionKey: {}", questionKey);
+                    return;
+                }
+                log.info("本节点订阅者已全部取消且没有其他节点等待，取消上游调用，questionKey: {}", questionKey);
+                relay.dispose();
+                Disposable upstreamConnection = connection.get();
+                if (upstreamConnection != null) {
+                    upstreamConnection.dispose();
+                }
+                finish(leaseKey, streamKey, token, FIELD_ERROR, "领头节点已取消");
+            });
+        });
+    }
+
+    private void deliverOrphaned(String questionKey, String answer, Consumer<String> onOrphaned) {
+        try {
+            onOrphaned.accept(answer);
+        } catch (Exception exception) {
+            log.error("处理无本地订阅者的问题回答失败，questionKey: {}", questionKey, exception);
+        }
+    }
+
+    /**
+     * 登记为跟随者
+     *
+     * @return 领头节点已取消调用（或登记失败）时返回 false
+     */
+    private boolean registerFollower(String followersKey) {
+        try {
+            Long registered = stringRedisTemplate.execute(FOLLOW_SCRIPT, List.of(followersKey),
+                    String.valueOf(leaseMillis + replayRetentionMillis));
+            return registered != null && registered == 1;
+        } catch (Exception exception) {
+            log.warn("登记问题调用跟随者失败，followersKey: {}, 原因: {}", followersKey, exception.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 没有跟随者登记时关闭跟随者计数，Redis 不可用时跟随者也无法读取分片，同样视为没有跟随者
+     */
+    private boolean closeUnfollowed(String followersKey) {
+        try {
+            Long closed = stringRedisTemplate.execute(CLOSE_SCRIPT, List.of(followersKey),
+                    String.valueOf(leaseMillis + replayRetentionMillis));
+            return closed == null || closed == 1;
+        } catch (Exception exception) {
+            log.warn("关闭问题调用跟随者计数失败，followersKey: {}, 原因: {}", followersKey, exception.getMessage());
+            return true;
+        }
+    }
+
+    private void append(String streamKey, String field, String value) {
+        try {
+            stringRedisTemplate.opsForStream().add(streamKey, Map.of(field, value));
+            stringRedisTemplate.expire(streamKey, Duration.ofMillis(leaseMillis + replayRetentionMillis));
+        } catch (Exception exception) {
+            log.warn("转发问题回答分片失败，streamKey: {}, 原因: {}", streamKey, exception.getMessage());
+        }
+    }
+
+    private void finish(String leaseKey, String streamKey, String token, String field, String value) {
+        append(streamKey, field, value);
+        try {
+            stringRedisTemplate.expire(streamKey, Duration.ofMillis(replayRetentionMillis));
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey), token);
+        } catch (Exception exception) {
+            log.warn("释放问题调用租约失败，leaseKey: {}, 原因: {}", leaseKey, exception.getMessage());
+        }
+    }
+
+    /**
+     * 跟随节点：从头读取领头节点的分片流，直到结束标记
+     */
+    private Flux<String> follow(String streamKey) {
+        return Flux.create(sink -> Schedulers.boundedElastic().schedule(() -> read(streamKey, sink)));
+    }
+
+    private void read(String streamKey, FluxSink<String> sink) {
+        String lastId = "0-0";
+        long lastProgress = System.currentTimeMillis();
+        try {
+            while (!sink.isCancelled()) {
+                List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+                        StreamReadOptions.empty().count(PUBLISH_BATCH_SIZE).block(READ_BLOCK),
+                        StreamOffset.create(streamKey, ReadOffset.from(lastId)));
+                if (records == null || records.isEmpty()) {
+                    if (System.currentTimeMillis() - lastProgress > idleTimeoutMillis) {
+                        sink.error(new BusinessException(ResultCode.SYSTEM_ERROR, "等待相同问题的回答超时"));
+                        return;
+                    }
+                    continue;
+                }
+                lastProgress = System.currentTimeMillis();
+                for (MapRecord<String, Object, Object> record : records) {
+                    lastId = record.getId().getValue();
+                    Map<Object, Object> fields = record.getValue();
+                    if (fields.containsKey(FIELD_CHUNK)) {
+                        sink.next(fields.get(FIELD_CHUNK).toString());
+                    } else if (fields.containsKey(FIELD_DONE)) {
+                        sink.complete();
+                        return;
+                    } else if (fields.containsKey(FIELD_ERROR)) {
+                        sink.error(new BusinessException(ResultCode.SYSTEM_ERROR, fields.get(FIELD_ERROR).toString()));
+                        return;
+                    }
+                }
+            }
+        } catch (Exception exception) {
+            sink.error(exception);
+        }
+    }
+
+    private void record(String role) {
+        meterRegistry.counter("consultation.answer.flight", "role", role).increment();
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.learnworkagent.domain.consultation.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 咨询答案近似缓存。
+ * 问题文本先归一化（全角转半角、转小写、去掉标点和空白），按分类隔离：
+ * 归一化文本相同直接命中；否则以去掉语气词后的字符二元组 MinHash 签名分段建立 LSH 索引，
+ * 同一分段完全相同的缓存问题作为候选。候选只有在两个问题除语气词外的字符完全相同（只允许语气词增减和语序微调），
+ * 且去掉语气词后二元组集合的 Jaccard 相似度超过阈值时才命中：
+ * "奖学金"与"助学金"、"可以"与"不可以"这类只差一个实义字的问题二元组相似度很高，但答案不同，不能互相命中。
+ * 缓存条目和索引都保存在 Redis，随过期时间自然淘汰，索引中已过期的条目在查询时清理。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SemanticAnswerCache {
+
+    private static final String KEY_PREFIX = "consultation:answer:";
+    private static final String DEFAULT_CATEGORY = "general";
+    private static final String FIELD_TEXT = "text";
+    private static final String FIELD_ANSWER = "answer";
+
+    /**
+     * 签名长度和分段：16 个哈希分为 8 段、每段 2 个，Jaccard 0.8 的问题成为候选的概率高于 99.9%
+     */
+    private static final int SIGNATURE_SIZE = 16;
+    private static final int BAND_ROWS = 2;
+    private static final int BAND_COUNT = SIGNATURE_SIZE / BAND_ROWS;
+    private static final long[] SEEDS = seeds();
+
+    /**
+     * 不改变问题含义的语气词，近似匹配时忽略
+     */
+    private static final String PARTICLES = "吗呢吧啊呀哦嘛啦呗的";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${consultation.answer-cache.similarity-threshold:0.9}")
+    private double similarityThreshold;
+
+    @Value("${consultation.answer-cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${consultation.answer-cache.max-candidates:32}")
+    private int maxCandidates;
+
+    /**
+     * 查询与问题相同或近似的缓存答案
+     *
+     * @param category     问题分类
+     * @param questionText 问题文本
+     * @return 缓存答案，未命中时为 null
+     */
+    public String get(String category, String questionText) {
+        String normalized = normalize(questionText);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        String scope = scope(category);
+        String entryKey = entryKey(scope, fingerprint(normalized));
+        List<String> bandKeys = bandKeys(scope, signature(shingles(stripParticles(normalized))));
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                stringConnection.hMGet(entryKey, FIELD_TEXT, FIELD_ANSWER);
+                bandKeys.forEach(stringConnection::sMembers);
+                return null;
+            });
+            String exact = matchedAnswer(results.get(0), normalized);
+            if (exact != null) {
+                record("exact");
+                return exact;
+            }
+            String similar = findSimilar(normalized, entryKey, bandKeys, results.subList(1, results.size()));
+            record(similar != null ? "similar" : "miss");
+            return similar;
+        } catch (Exception exception) {
+            log.warn("读取咨询答案缓存失败，分类: {}, 原因: {}", scope, exception.getMessage());
+            record("error");
+            return null;
+        }
+    }
+
+    /**
+     * 缓存问题的答案并写入近似索引
+     *
+     * @param category     问题分类
+     * @param questionText 问题文本
+     * @param answer       答案
+     */
+    public void put(String category, String questionText, String answer) {
+        String normalized = normalize(questionText);
+        if (normalized.isEmpty() || answer == null || answer.isBlank()) {
+            return;
+        }
+        String scope = scope(category);
+        String entryKey = entryKey(scope, fingerprint(normalized));
+        List<String> bandKeys = bandKeys(scope, signature(shingles(stripParticles(normalized))));
+        long ttlMillis = ttlMinutes * 60_000L;
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                stringConnection.hMSet(entryKey, Map.of(FIELD_TEXT, normalized, FIELD_ANSWER, answer));
+                stringConnection.pExpire(entryKey, ttlMillis);
+                for (String bandKey : bandKeys) {
+                    stringConnection.sAdd(bandKey, entryKey);
+                    stringConnection.pExpire(bandKey, ttlMillis);
+                }
+                return null;
+            });
+        } catch (Exception exception) {
+            log.warn("写入咨询答案缓存失败，分类: {}, 原因: {}", scope, exception.getMessage());
+        }
+    }
+
+    /**
+     * 问题的归一化标识（分类 + 归一化文本指纹），归一化后为空时返回 null
+     */
+    public static String questionKey(String category, String questionText) {
+        String normalized = normalize(questionText);
+        return normalized.isEmpty() ? null : scope(category) + ":" + Long.toHexString(fingerprint(normalized));
+    }
+
+    /**
+     * 归一化问题文本：NFKC（全角转半角）、转小写，只保留字母和数字（含汉字）
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder builder = new StringBuilder(folded.length());
+        folded.codePoints().filter(Character::isLetterOrDigit).forEach(builder::appendCodePoint);
+        return builder.toString();
+    }
+
+    private String findSimilar(String normalized, String exactKey, List<String> bandKeys, List<Object> bandMembers) {
+        Set<String> candidates = new LinkedHashSet<>();
+        for (Object members : bandMembers) {
+            if (members instanceof Collection<?> collection) {
+                collection.forEach(member -> candidates.add(member.toString()));
+            }
+        }
+        candidates.remove(exactKey);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        List<String> keys = candidates.stream().limit(maxCandidates).toList();
+        List<Object> entries = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            keys.forEach(key -> stringConnection.hMGet(key, FIELD_TEXT, FIELD_ANSWER));
+            return null;
+        });
+
+        String core = stripParticles(normalized);
+        Set<String> shingles = shingles(core);
+        String bestAnswer = null;
+        double bestSimilarity = similarityThreshold;
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            List<?> fields = entries.get(i) instanceof List<?> list ? list : List.of();
+            Object text = fields.isEmpty() ? null : fields.get(0);
+            Object answer = fields.size() < 2 ? null : fields.get(1);
+            if (text == null || answer == null) {
+                expired.add(keys.get(i));
+                continue;
+            }
+            String candidate = stripParticles(text.toString());
+            if (!sameCharacters(core, candidate)) {
+                continue;
+            }
+            double similarity = jaccard(shingles, shingles(candidate));
+            if (similarity >= bestSimilarity) {
+                bestSimilarity = similarity;
+                bestAnswer = answer.toString();
+            }
+        }
+        if (!expired.isEmpty()) {
+            removeExpired(bandKeys, expired);
+        }
+        return bestAnswer;
+    }
+
+    /**
+     * 从本次查询的索引分段中移除已过期的条目
+     */
+    private void removeExpired(List<String> bandKeys, List<String> expired) {
+        String[] members = expired.toArray(String[]::new);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            bandKeys.forEach(bandKey -> stringConnection.sRem(bandKey, members));
+            return null;
+        });
+    }
+
+    private static String matchedAnswer(Object result, String normalized) {
+        if (!(result instanceof List<?> fields) || fields.size() < 2 || fields.get(1) == null) {
+            return null;
+        }
+        // 指纹相同时再比较原文，排除哈希碰撞
+        return normalized.equals(String.valueOf(fields.get(0))) ? fields.get(1).toString() : null;
+    }
+
+    /**
+     * 两个问题是否可以共用答案：除语气词外字符相同，且去掉语气词后的二元组 Jaccard 相似度不低于阈值
+     *
+     * @param left      问题文本
+     * @param right     问题文本
+     * @param threshold 相似度阈值
+     */
+    static boolean isNearDuplicate(String left, String right, double threshold) {
+        String leftCore = stripParticles(normalize(left));
+        String rightCore = stripParticles(normalize(right));
+        if (leftCore.isEmpty() || rightCore.isEmpty() || !sameCharacters(leftCore, rightCore)) {
+            return false;
+        }
+        return jaccard(shingles(leftCore), shingles(rightCore)) >= threshold;
+    }
+
+    private static String stripParticles(String normalized) {
+        StringBuilder builder = new StringBuilder(normalized.length());
+        normalized.codePoints().filter(codePoint -> PARTICLES.indexOf(codePoint) < 0).forEach(builder::appendCodePoint);
+        return builder.toString();
+    }
+
+    /**
+     * 两段文本的字符多重集合是否相同（实义字没有替换、增减）
+     */
+    private static boolean sameCharacters(String left, String right) {
+        if (left.length() != right.length()) {
+            return false;
+        }
+        int[] leftCodePoints = left.codePoints().sorted().toArray();
+        int[] rightCodePoints = right.codePoints().sorted().toArray();
+        return Arrays.equals(leftCodePoints, rightCodePoints);
+    }
+
+    private void record(String result) {
+        meterRegistry.counter("consultation.answer.cache", "result", result).increment();
+    }
+
+    /**
+     * 字符二元组集合，单字问题以该字本身作为唯一元素
+     */
+    private static Set<String> shingles(String normalized) {
+        Set<String> shingles = new HashSet<>();
+        int[] codePoints = normalized.codePoints().toArray();
+        if (codePoints.length == 1) {
+            shingles.add(normalized);
+            return shingles;
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            shingles.add(new String(codePoints, i, 2));
+        }
+        return shingles;
+    }
+
+    private static double jaccard(Set<String> left, Set<String> right) {
+        if (left.isEmpty() || right.isEmpty()) {
+            return 0;
+        }
+        int intersection = 0;
+        for (String shingle : left) {
+            if (right.contains(shingle)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (left.size() + right.size() - intersection);
+    }
+
+    private static long[] signature(Set<String> shingles) {
+        long[] signature = new long[SIGNATURE_SIZE];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String shingle : shingles) {
+            long base = fingerprint(shingle);
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                long hash = mix(base ^ SEEDS[i]);
+                if (Long.compareUnsigned(hash, signature[i]) < 0) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private static List<String> bandKeys(String scope, long[] signature) {
+        List<String> keys = new ArrayList<>(BAND_COUNT);
+        for (int band = 0; band < BAND_COUNT; band++) {
+            long hash = 0;
+            for (int row = 0; row < BAND_ROWS; row++) {
+                hash = mix(hash ^ signature[band * BAND_ROWS + row]);
+            }
+            keys.add(KEY_PREFIX + scope + ":b:" + band + ":" + Long.toHexString(hash));
+        }
+        return keys;
+    }
+
+    private static String entryKey(String scope, long fingerprint) {
+        return KEY_PREFIX + scope + ":e:" + Long.toHexString(fingerprint);
+    }
+
+    private static String scope(String category) {
+        return category == null || category.isBlank() ? DEFAULT_CATEGORY : normalize(category);
+    }
+
+    /**
+     * 64 位 FNV-1a
+     */
+    private static long fingerprint(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * SplitMix64 的混合函数，把同一基础哈希扩展为多个相互独立的哈希
+     */
+    private static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long[] seeds() {
+        long[] seeds = new long[SIGNATURE_SIZE];
+        long state = 0x2545f4914f6cdd1dL;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            state = mix(state);
+            seeds[i] = state;
+        }
+        return seeds;
+    }
+}
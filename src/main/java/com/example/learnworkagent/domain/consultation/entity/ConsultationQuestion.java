@@ -13,7 +13,11 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Comment("咨询问题表")
-@Table(name = "consultation_question")
+@Table(name = "consultation_question", indexes = {
+        @Index(name = "idx_question_user_time", columnList = "user_id, create_time"),
+        @Index(name = "idx_question_status_time", columnList = "status, create_time"),
+        @Index(name = "idx_question_category_time", columnList = "category, create_time")
+})
 public class ConsultationQuestion extends BaseEntity {
 
     /**
@@ -13,7 +13,10 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Comment("人工转接记录表")
-@Table(name = "human_transfer")
+@Table(name = "human_transfer", indexes = {
+        @Index(name = "idx_transfer_user_time", columnList = "user_id, create_time"),
+        @Index(name = "idx_transfer_status_time", columnList = "status, create_time")
+})
 public class HumanTransfer extends BaseEntity {
 
     /**
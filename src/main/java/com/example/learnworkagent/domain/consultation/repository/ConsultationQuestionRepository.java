@@ -1,8 +1,11 @@
 package com.example.learnworkagent.domain.consultation.repository;
 
 import com.example.learnworkagent.domain.consultation.entity.ConsultationQuestion;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -32,6 +35,38 @@ public interface ConsultationQuestionRepository extends JpaRepository<Consultati
      */
     Page<ConsultationQuestion> findByCategoryAndDeletedFalseOrderByCreateTimeDesc(String category, Pageable pageable);
 
+    /**
+     * 游标分页查询用户的问题
+     */
+    Window<ConsultationQuestion> findByUserIdAndDeletedFalseOrderByCreateTimeDescIdDesc(Long userId,
+                                                                                        ScrollPosition position,
+                                                                                        Limit limit);
+
+    /**
+     * 游标分页按状态查询问题
+     */
+    Window<ConsultationQuestion> findByStatusAndDeletedFalseOrderByCreateTimeDescIdDesc(String status,
+                                                                                        ScrollPosition position,
+                                                                                        Limit limit);
+
+    /**
+     * 游标分页按分类查询问题
+     */
+    Window<ConsultationQuestion> findByCategoryAndDeletedFalseOrderByCreateTimeDescIdDesc(String category,
+                                                                                          ScrollPosition position,
+                                                                                          Limit limit);
+
+    /**
+     * 游标分页查询全部问题
+     */
+    Window<ConsultationQuestion> findByOrderByCreateTimeDescIdDesc(ScrollPosition position, Limit limit);
+
+    long countByUserIdAndDeletedFalse(Long userId);
+
+    long countByStatusAndDeletedFalse(String status);
+
+    long countByCategoryAndDeletedFalse(String category);
+
     /**
      * 根据会话ID查询该会话所有问题，按时间升序
      */
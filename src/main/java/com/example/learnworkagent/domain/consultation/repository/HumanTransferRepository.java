@@ -1,8 +1,11 @@
 package com.example.learnworkagent.domain.consultation.repository;
 
 import com.example.learnworkagent.domain.consultation.entity.HumanTransfer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -24,6 +27,23 @@ public interface HumanTransferRepository extends JpaRepository<HumanTransfer, Lo
      */
     Page<HumanTransfer> findByStatusInAndDeletedFalseOrderByCreateTimeDesc(List<String> status, Pageable pageable);
 
+    /**
+     * 游标分页查询用户的转接记录
+     */
+    Window<HumanTransfer> findByUserIdAndDeletedFalseOrderByCreateTimeDescIdDesc(Long userId, ScrollPosition position,
+                                                                                 Limit limit);
+
+    /**
+     * 游标分页按状态查询转接记录
+     */
+    Window<HumanTransfer> findByStatusInAndDeletedFalseOrderByCreateTimeDescIdDesc(List<String> status,
+                                                                                   ScrollPosition position,
+                                                                                   Limit limit);
+
+    long countByUserIdAndDeletedFalse(Long userId);
+
+    long countByStatusInAndDeletedFalse(List<String> status);
+
     /**
      * 根据工作人员ID和状态查询已完成的记录
      */
@@ -2,13 +2,15 @@ package com.example.learnworkagent.domain.consultation.service;
 
 import com.example.learnworkagent.common.exception.BusinessException;
 import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.domain.consultation.cache.AnswerSingleFlight;
+import com.example.learnworkagent.domain.consultation.cache.SemanticAnswerCache;
 import com.example.learnworkagent.domain.consultation.entity.ConsultationQuestion;
 import com.example.learnworkagent.domain.consultation.entity.HumanTransfer;
 import com.example.learnworkagent.domain.consultation.repository.ConsultationQuestionRepository;
 import com.example.learnworkagent.domain.consultation.repository.HumanTransferRepository;
+import com.example.learnworkagent.domain.consultation.stream.StreamingAnswerRecorder;
 import com.example.learnworkagent.infrastructure.external.dify.DifyChatService;
 import com.example.learnworkagent.infrastructure.external.dify.SpeechToTextService;
-import com.example.learnworkagent.infrastructure.service.CacheService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.Resource;
@@ -24,7 +26,7 @@ import reactor.core.scheduler.Schedulers;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * 咨询Agent服务（用于高频问题解答和多模态交互）
@@ -37,7 +39,9 @@ public class ConsultationAgentService {
     private final ConsultationQuestionRepository consultationQuestionRepository;
     private final DifyChatService difyChatService;
     private final SpeechToTextService speechToTextService;
-    private final CacheService cacheService;
+    private final SemanticAnswerCache answerCache;
+    private final AnswerSingleFlight answerSingleFlight;
+    private final StreamingAnswerRecorder answerRecorder;
     private final HumanTransferRepository humanTransferRepository;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -96,7 +100,7 @@ public class ConsultationAgentService {
             String prompt = buildPrompt(question, query);
             log.info("调用Dify AI，问题ID: {}, 文件数: {}", questionId,
                     fileUrls != null ? fileUrls.size() : 0);
-            difyChatService.chatStream(prompt, fileUrls, null, String.valueOf(question.getUserId()))
+            askAi(question, prompt, fileUrls)
                     .collectList()
                     .subscribe(
                             answerList -> {
@@ -118,6 +122,21 @@ public class ConsultationAgentService {
         }
     }
 
+    /**
+     * 调用 Dify；可缓存的问题与同时在问的相同问题合并为一次调用，
+     * 本节点请求已断开但仍为其他节点继续生成的回答结束后写入答案缓存
+     */
+    private Flux<String> askAi(ConsultationQuestion question, String prompt, List<String> fileUrls) {
+        Supplier<Flux<String>> upstream = () -> difyChatService.chatStream(prompt, fileUrls, null,
+                String.valueOf(question.getUserId()));
+        if (!isCacheable(question)) {
+            return upstream.get();
+        }
+        String questionKey = SemanticAnswerCache.questionKey(question.getCategory(), question.getQuestionText());
+        return questionKey != null ? answerSingleFlight.join(questionKey, upstream, answer -> cacheAnswer(question, answer))
+                : upstream.get();
+    }
+
     /**
      * todo需要对判断是否人工处理逻辑进行修改，不应该仅因为问题包含敏感关键词就转人工
      * 判断是否需要转人工
@@ -226,20 +245,31 @@ public class ConsultationAgentService {
         }
     }
     /**
-     * 从缓存获取答案
+     * 从缓存获取答案（同分类下相同或近似的问题）
      */
     private String getCachedAnswer(ConsultationQuestion question) {
-        String cacheKey = "consultation:answer:" + question.getQuestionText().hashCode();
-        Object cached = cacheService.get(cacheKey);
-        return cached != null ? cached.toString() : null;
+        if (!isCacheable(question)) {
+            return null;
+        }
+        return answerCache.get(question.getCategory(), question.getQuestionText());
     }
 
     /**
      * 缓存答案
      */
     private void cacheAnswer(ConsultationQuestion question, String answer) {
-        String cacheKey = "consultation:answer:" + question.getQuestionText().hashCode();
-        cacheService.set(cacheKey, answer, 30, TimeUnit.MINUTES);
+        if (isCacheable(question)) {
+            answerCache.put(question.getCategory(), question.getQuestionText(), answer);
+        }
+    }
+
+    /**
+     * 只有纯文本问题走答案缓存，带语音或附件的问题答案取决于文本之外的内容
+     */
+    private boolean isCacheable(ConsultationQuestion question) {
+        return question.getQuestionText() != null && !question.getQuestionText().isBlank()
+                && (question.getVoiceUrl() == null || question.getVoiceUrl().isBlank())
+                && resolveFileUrls(question) == null;
     }
 
     /**
@@ -269,6 +299,16 @@ public class ConsultationAgentService {
                 .subscribeOn(Schedulers.boundedElastic())  // 使用专门的阻塞线程池
                 .flatMapMany(question -> {
 
+                    // 已回答的问题直接返回答案，正在生成的回答续接，不再重新调用 AI
+                    if ("ANSWERED".equals(question.getStatus()) && question.getAiAnswer() != null) {
+                        return Flux.just(question.getAiAnswer());
+                    }
+                    Flux<String> resumed = answerRecorder.resume(questionId);
+                    if (resumed != null) {
+                        log.info("续接进行中的回答，问题ID: {}", questionId);
+                        return resumed;
+                    }
+
                     //检查问题是否转人工
                     if (shouldTransferToHuman(question)) {
                         log.info("问题需要转人工，问题ID: {}", questionId);
@@ -303,27 +343,18 @@ public class ConsultationAgentService {
                     log.info("调用Dify AI，问题ID: {}, 文件数: {}", questionId,
                             fileUrls != null ? fileUrls.size() : 0);
 
-                    return difyChatService.chatStream(prompt, fileUrls, null,
-                                    String.valueOf(question.getUserId()))
-                            //所有数据发送完成时的回调函数
-                            .doOnComplete(() -> {
-                                log.info("Dify API调用完成，问题ID: {}", questionId);
-                                Mono.fromRunnable(() -> {
-                                            question.setStatus("ANSWERED");
-                                            question.setAnswerSource("AI");
-                                            consultationQuestionRepository.save(question);
-                                        })
-                                        .subscribeOn(Schedulers.boundedElastic())
-                                        .doOnError(error -> log.error("保存AI回答失败，问题ID: {}", questionId, error))
-                                        .subscribe();
-                            })
-                            //当发送过程中发生错误时的回调函数
-                            .doOnError(error -> {
+                    // 回答结束后一次写入答案和缓存；被截断的答案不进入缓存
+                    return answerRecorder.record(questionId, askAi(question, prompt, fileUrls),
+                            (answer, truncated) -> {
+                                log.info("Dify API调用完成，问题ID: {}, 回答长度: {}", questionId, answer.length());
+                                self.updateQuestionAnswer(question, answer, "AI");
+                                if (!truncated) {
+                                    cacheAnswer(question, answer);
+                                }
+                            },
+                            error -> {
                                 log.error("AI服务调用失败，问题ID: {}", questionId, error);
-                                Mono.fromRunnable(() -> self.transferToHuman(question))
-                                        .subscribeOn(Schedulers.boundedElastic())
-                                        .doOnError(transferError -> log.error("转人工处理失败，问题ID: {}", questionId, transferError))
-                                        .subscribe();
+                                self.transferToHuman(question);
                             });
                 });
     }
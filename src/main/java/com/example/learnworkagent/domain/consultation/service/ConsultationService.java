@@ -2,6 +2,7 @@ package com.example.learnworkagent.domain.consultation.service;
 
 import com.example.learnworkagent.common.dto.PageRequest;
 import com.example.learnworkagent.common.dto.PageResult;
+import com.example.learnworkagent.common.util.KeysetPaging;
 import com.example.learnworkagent.common.exception.BusinessException;
 import com.example.learnworkagent.common.ResultCode;
 import com.example.learnworkagent.domain.consultation.dto.ConsultationRequest;
@@ -11,8 +12,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -68,6 +71,11 @@ public class ConsultationService {
      * 分页查询用户的问题
      */
     public PageResult<ConsultationQuestion> getUserQuestions(Long userId, PageRequest pageRequest) {
+        if (pageRequest.isKeysetMode()) {
+            return KeysetPaging.toPageResult(consultationQuestionRepository.findByUserIdAndDeletedFalseOrderByCreateTimeDescIdDesc(
+                            userId, KeysetPaging.position(pageRequest), KeysetPaging.limit(pageRequest)),
+                    pageRequest, () -> consultationQuestionRepository.countByUserIdAndDeletedFalse(userId));
+        }
         Pageable pageable = org.springframework.data.domain.PageRequest.of(
                 pageRequest.getPage(),
                 pageRequest.getPageSize(),
@@ -89,6 +97,9 @@ public class ConsultationService {
      * 分页查询所有问题（管理员）
      */
     public PageResult<ConsultationQuestion> getAllQuestions(PageRequest pageRequest, String status, String category) {
+        if (pageRequest.isKeysetMode()) {
+            return getAllQuestionsByKeyset(pageRequest, status, category);
+        }
         Pageable pageable = org.springframework.data.domain.PageRequest.of(
                 pageRequest.getPage(),
                 pageRequest.getPageSize(),
@@ -112,6 +123,23 @@ public class ConsultationService {
         );
     }
 
+    private PageResult<ConsultationQuestion> getAllQuestionsByKeyset(PageRequest pageRequest, String status, String category) {
+        ScrollPosition position = KeysetPaging.position(pageRequest);
+        Limit limit = KeysetPaging.limit(pageRequest);
+        if (status != null && !status.isEmpty()) {
+            return KeysetPaging.toPageResult(consultationQuestionRepository
+                            .findByStatusAndDeletedFalseOrderByCreateTimeDescIdDesc(status, position, limit),
+                    pageRequest, () -> consultationQuestionRepository.countByStatusAndDeletedFalse(status));
+        }
+        if (category != null && !category.isEmpty()) {
+            return KeysetPaging.toPageResult(consultationQuestionRepository
+                            .findByCategoryAndDeletedFalseOrderByCreateTimeDescIdDesc(category, position, limit),
+                    pageRequest, () -> consultationQuestionRepository.countByCategoryAndDeletedFalse(category));
+        }
+        return KeysetPaging.toPageResult(consultationQuestionRepository.findByOrderByCreateTimeDescIdDesc(position, limit),
+                pageRequest, consultationQuestionRepository::count);
+    }
+
     /**
      * 查询用户在指定问题之前（含）的历史咨询记录
      */
@@ -158,6 +186,17 @@ public class ConsultationService {
         return res;
     }
 
+    /**
+     * 重新连接问题的流式回答（已回答时返回答案，生成中时续接）
+     */
+    public Flux<String> resumeQuestionStream(Long userId, Long questionId) {
+        ConsultationQuestion question = getQuestionById(questionId);
+        if (!question.getUserId().equals(userId)) {
+            throw new BusinessException(ResultCode.FORBIDDEN, "无权查看该问题");
+        }
+        return consultationAgentService.processQuestionStream(questionId);
+    }
+
     /**
      * 将文件列表的 URL 序列化为 JSON 字符串保存到数据库
      */
@@ -2,6 +2,7 @@ package com.example.learnworkagent.domain.consultation.service;
 
 import com.example.learnworkagent.common.dto.PageRequest;
 import com.example.learnworkagent.common.dto.PageResult;
+import com.example.learnworkagent.common.util.KeysetPaging;
 import com.example.learnworkagent.common.exception.BusinessException;
 import com.example.learnworkagent.common.ResultCode;
 import com.example.learnworkagent.domain.consultation.entity.ConsultationQuestion;
@@ -17,6 +18,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 人工转接服务
@@ -121,6 +123,11 @@ public class HumanTransferService {
      * 分页查询用户的转接记录
      */
     public PageResult<HumanTransfer> getUserTransfers(Long userId, PageRequest pageRequest) {
+        if (pageRequest.isKeysetMode()) {
+            return KeysetPaging.toPageResult(humanTransferRepository.findByUserIdAndDeletedFalseOrderByCreateTimeDescIdDesc(
+                            userId, KeysetPaging.position(pageRequest), KeysetPaging.limit(pageRequest)),
+                    pageRequest, () -> humanTransferRepository.countByUserIdAndDeletedFalse(userId));
+        }
         Pageable pageable = org.springframework.data.domain.PageRequest.of(
                 pageRequest.getPage(),
                 pageRequest.getPageSize(),
@@ -142,6 +149,12 @@ public class HumanTransferService {
      * 分页查询工作人员的转接记录
      */
     public PageResult<HumanTransfer> getStaffTransfers(PageRequest pageRequest) {
+        if (pageRequest.isKeysetMode()) {
+            List<String> openStatuses = List.of("PENDING", "PROCESSING");
+            return KeysetPaging.toPageResult(humanTransferRepository.findByStatusInAndDeletedFalseOrderByCreateTimeDescIdDesc(
+                            openStatuses, KeysetPaging.position(pageRequest), KeysetPaging.limit(pageRequest)),
+                    pageRequest, () -> humanTransferRepository.countByStatusInAndDeletedFalse(openStatuses));
+        }
         Pageable pageable = org.springframework.data.domain.PageRequest.of(
                 pageRequest.getPage(),
                 pageRequest.getPageSize(),
@@ -0,0 +1,60 @@
+package com.example.learnworkagent.domain.consultation.stream;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 流式回答分片合帧。
+ * AI 逐 token 返回的小分片先缓冲，累计到分片数上限或距缓冲区第一个分片超过时间窗口时合并为一帧下发：
+ * 输出快时按数量成帧，输出慢时按时间成帧，首个分片最多延迟一个时间窗口。
+ * 帧内容按固定模板直接拼接为 JSON（{"answer":"..."}），不再逐分片构造 Map 和序列化。
+ */
+@Component
+public class AnswerFrameCoalescer {
+
+    private static final String ANSWER_PREFIX = "{\"answer\":\"";
+    private static final String ERROR_PREFIX = "{\"error\":\"";
+    private static final String SUFFIX = "\"}";
+
+    @Value("${consultation.stream.frame-window-ms:40}")
+    private long frameWindowMillis;
+
+    @Value("${consultation.stream.frame-max-chunks:64}")
+    private int frameMaxChunks;
+
+    /**
+     * 把回答分片合并为 SSE 数据帧
+     *
+     * @param chunks 回答分片流
+     * @return JSON 数据帧流，下游按需请求（慢客户端不会导致缓冲区溢出）
+     */
+    public Flux<String> frames(Flux<String> chunks) {
+        return chunks.bufferTimeout(frameMaxChunks, Duration.ofMillis(frameWindowMillis), true)
+                .filter(buffer -> !buffer.isEmpty())
+                .map(AnswerFrameCoalescer::answerFrame);
+    }
+
+    /**
+     * 错误帧（{"error":"..."}）
+     */
+    public String errorFrame(String message) {
+        return ERROR_PREFIX + escape(message) + SUFFIX;
+    }
+
+    private static String answerFrame(List<String> buffer) {
+        StringBuilder frame = new StringBuilder(ANSWER_PREFIX);
+        for (String chunk : buffer) {
+            frame.append(JsonStringEncoder.getInstance().quoteAsString(chunk));
+        }
+        return frame.append(SUFFIX).toString();
+    }
+
+    private static String escape(String text) {
+        return new String(JsonStringEncoder.getInstance().quoteAsString(text == null ? "" : text));
+    }
+}
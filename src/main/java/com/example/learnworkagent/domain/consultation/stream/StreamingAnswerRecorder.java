@@ -0,0 +1,330 @@
+package com.example.learnworkagent.domain.consultation.stream;
+
+import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 流式回答记录器。
+ * 回答分片在下发给客户端的同时累积到有界缓冲区，按间隔把已生成的内容作为检查点写入 Redis，
+ * 回答结束后由调用方一次性写库和写缓存。客户端全部断开后回答继续生成一段宽限期，期间重新连接的客户端
+ * 从头重放本节点正在生成的回答，或按检查点续接其他节点正在生成的回答，不再重新调用 AI；
+ * 宽限期内无人重连则取消上游调用，检查点标记为失败，下次请求重新生成。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StreamingAnswerRecorder {
+
+    private static final String KEY_PREFIX = "consultation:stream:";
+    private static final String FIELD_TEXT = "text";
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_UPDATED_AT = "updatedAt";
+    private static final String STATUS_STREAMING = "streaming";
+    private static final String STATUS_DONE = "done";
+    private static final String STATUS_FAILED = "failed";
+
+    /**
+     * KEYS[1] 检查点；ARGV: 内容, 内容长度, 状态, 更新时间, 过期毫秒, 是否重新开始(1/0)。
+     * 同一次记录的写入按提交顺序执行；已结束的检查点不再覆盖，进行中的检查点只接受更长的内容
+     */
+    private static final DefaultRedisScript<Long> CHECKPOINT_SCRIPT = new DefaultRedisScript<>("""
+            if ARGV[6] == '1' then
+              redis.call('DEL', KEYS[1])
+            else
+              local status = redis.call('HGET', KEYS[1], 'status')
+              if status == 'done' or status == 'failed' then
+                return 0
+              end
+              local length = tonumber(redis.call('HGET', KEYS[1], 'length') or '-1')
+              if ARGV[3] == 'streaming' and tonumber(ARGV[2]) <= length then
+                return 0
+              end
+            end
+            redis.call('HSET', KEYS[1], 'text', ARGV[1], 'length', ARGV[2], 'status', ARGV[3], 'updatedAt', ARGV[4])
+            redis.call('PEXPIRE', KEYS[1], ARGV[5])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Map<Long, Flux<String>> live = new ConcurrentHashMap<>();
+
+    @Value("${consultation.stream.abandon-grace-ms:15000}")
+    private long abandonGraceMillis;
+
+    /**
+     * 缓冲区上限（UTF-8 字节），ai_answer 为 TEXT 列（65535 字节），utf8mb4 下每字符 1 至 4 字节
+     */
+    @Value("${consultation.stream.max-answer-bytes:65535}")
+    private int maxAnswerBytes;
+
+    @Value("${consultation.stream.checkpoint-interval-ms:1000}")
+    private long checkpointIntervalMillis;
+
+    @Value("${consultation.stream.checkpoint-ttl-ms:600000}")
+    private long checkpointTtlMillis;
+
+    @Value("${consultation.stream.idle-timeout-ms:30000}")
+    private long idleTimeoutMillis;
+
+    /**
+     * 记录一次流式回答，检查点重置在调用线程同步写入（需在可阻塞的线程调用）
+     *
+     * @param questionId 问题ID
+     * @param upstream   AI 回答分片流
+     * @param onAnswered 回答完整结束后回调（完整答案, 是否因超出缓冲区被截断），在阻塞线程池执行
+     * @param onFailed   上游失败后回调，在阻塞线程池执行
+     * @return 可重放的回答分片流
+     */
+    public Flux<String> record(Long questionId, Flux<String> upstream,
+                               BiConsumer<String, Boolean> onAnswered, Consumer<Throwable> onFailed) {
+        String key = KEY_PREFIX + questionId;
+        AnswerAccumulator accumulator = new AnswerAccumulator(maxAnswerBytes);
+        // 先写入空的进行中检查点，覆盖此前失败或中断的记录，之后的写入都在它之后执行
+        checkpoint(key, "", STATUS_STREAMING, true);
+        CheckpointWriter writer = new CheckpointWriter();
+        Flux<String> recorded = upstream
+                .doOnNext(chunk -> {
+                    if (accumulator.append(chunk, checkpointIntervalMillis)) {
+                        String snapshot = accumulator.snapshot();
+                        writer.submit(() -> checkpoint(key, snapshot, STATUS_STREAMING, false));
+                    }
+                })
+                .doOnComplete(() -> writer.submit(() -> {
+                    try {
+                        String answer = accumulator.snapshot();
+                        onAnswered.accept(answer, accumulator.isTruncated());
+                        checkpoint(key, answer, STATUS_DONE, false);
+                    } catch (Exception exception) {
+                        log.error("保存流式回答失败，问题ID: {}", questionId, exception);
+                    }
+                }))
+                .doOnError(error -> writer.submit(() -> {
+                    checkpoint(key, accumulator.snapshot(), STATUS_FAILED, false);
+                    try {
+                        onFailed.accept(error);
+                    } catch (Exception callbackError) {
+                        log.error("处理流式回答失败，问题ID: {}", questionId, callbackError);
+                    }
+                }))
+                .doOnCancel(() -> {
+                    log.info("客户端已全部断开，取消回答生成，问题ID: {}", questionId);
+                    String snapshot = accumulator.snapshot();
+                    writer.submit(() -> checkpoint(key, snapshot, STATUS_FAILED, false));
+                })
+                .doFinally(signal -> live.remove(questionId))
+                .replay()
+                .refCount(1);
+
+        // 占位订阅让回答在客户端断开后继续生成，最后一个客户端断开且宽限期内无人重连时释放
+        Disposable holder = recorded.subscribe(chunk -> {
+        }, error -> {
+        });
+        AtomicInteger clients = new AtomicInteger();
+        Flux<String> clientView = recorded
+                .doOnSubscribe(subscription -> clients.incrementAndGet())
+                .doFinally(signal -> {
+                    if (clients.decrementAndGet() == 0 && signal == SignalType.CANCEL) {
+                        Schedulers.parallel().schedule(() -> {
+                            if (clients.get() == 0) {
+                                holder.dispose();
+                            }
+                        }, abandonGraceMillis, TimeUnit.MILLISECONDS);
+                    }
+                });
+        live.put(questionId, clientView);
+        return clientView;
+    }
+
+    /**
+     * 续接问题的回答
+     *
+     * @param questionId 问题ID
+     * @return 回答分片流；没有可续接的回答（从未开始、已失败或生成节点失联）时返回 null
+     */
+    public Flux<String> resume(Long questionId) {
+        Flux<String> running = live.get(questionId);
+        if (running != null) {
+            return running;
+        }
+        Map<Object, Object> checkpoint = readCheckpoint(KEY_PREFIX + questionId);
+        if (checkpoint == null || checkpoint.isEmpty()) {
+            return null;
+        }
+        Object status = checkpoint.get(FIELD_STATUS);
+        if (STATUS_DONE.equals(status)) {
+            return Flux.just(String.valueOf(checkpoint.get(FIELD_TEXT)));
+        }
+        if (STATUS_STREAMING.equals(status) && !isStale(checkpoint)) {
+            return Flux.create(sink -> Schedulers.boundedElastic().schedule(() -> tail(KEY_PREFIX + questionId, sink)));
+        }
+        return null;
+    }
+
+    /**
+     * 按检查点间隔轮询，把新增内容作为分片下发，直到回答结束
+     */
+    private void tail(String key, FluxSink<String> sink) {
+        int emitted = 0;
+        try {
+            while (!sink.isCancelled()) {
+                Map<Object, Object> checkpoint = readCheckpoint(key);
+                if (checkpoint == null || checkpoint.isEmpty() || isStale(checkpoint)) {
+                    sink.error(new BusinessException(ResultCode.SYSTEM_ERROR, "回答已中断，请重新提问"));
+                    return;
+                }
+                String text = String.valueOf(checkpoint.get(FIELD_TEXT));
+                if (text.length() > emitted) {
+                    sink.next(text.substring(emitted));
+                    emitted = text.length();
+                }
+                Object status = checkpoint.get(FIELD_STATUS);
+                if (STATUS_DONE.equals(status)) {
+                    sink.complete();
+                    return;
+                }
+                if (STATUS_FAILED.equals(status)) {
+                    sink.error(new BusinessException(ResultCode.SYSTEM_ERROR, "AI服务调用失败"));
+                    return;
+                }
+                Thread.sleep(checkpointIntervalMillis);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            sink.error(exception);
+        } catch (Exception exception) {
+            sink.error(exception);
+        }
+    }
+
+    private boolean isStale(Map<Object, Object> checkpoint) {
+        Object updatedAt = checkpoint.get(FIELD_UPDATED_AT);
+        return updatedAt == null || System.currentTimeMillis() - Long.parseLong(updatedAt.toString()) > idleTimeoutMillis;
+    }
+
+    private Map<Object, Object> readCheckpoint(String key) {
+        try {
+            return stringRedisTemplate.opsForHash().entries(key);
+        } catch (Exception exception) {
+            log.warn("读取流式回答检查点失败，key: {}, 原因: {}", key, exception.getMessage());
+            return null;
+        }
+    }
+
+    private void checkpoint(String key, String text, String status, boolean restart) {
+        try {
+            stringRedisTemplate.execute(CHECKPOINT_SCRIPT, List.of(key), text, String.valueOf(text.length()), status,
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(checkpointTtlMillis), restart ? "1" : "0");
+        } catch (Exception exception) {
+            log.warn("写入流式回答检查点失败，key: {}, 原因: {}", key, exception.getMessage());
+        }
+    }
+
+    /**
+     * 单次记录的检查点写入队列：写入在阻塞线程池上逐个执行，不会乱序
+     */
+    private static final class CheckpointWriter {
+
+        private final Queue<Runnable> writes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private void submit(Runnable write) {
+            writes.add(write);
+            if (pending.getAndIncrement() == 0) {
+                Schedulers.boundedElastic().schedule(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Runnable write = writes.poll();
+                try {
+                    write.run();
+                } catch (Exception exception) {
+                    log.warn("执行流式回答检查点写入失败，原因: {}", exception.getMessage());
+                }
+            } while (pending.decrementAndGet() != 0);
+        }
+    }
+
+    /**
+     * 有界回答缓冲区（按 UTF-8 字节计），超出上限的内容只下发不保存，截断位置不拆分字符
+     */
+    private static final class AnswerAccumulator {
+
+        private final StringBuilder buffer = new StringBuilder();
+        private final int maxBytes;
+        private int bytes;
+        private boolean truncated;
+        private long lastCheckpoint = System.currentTimeMillis();
+
+        private AnswerAccumulator(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        /**
+         * 追加分片
+         *
+         * @return 距上次检查点已超过间隔时返回 true
+         */
+        private synchronized boolean append(String chunk, long checkpointIntervalMillis) {
+            int index = 0;
+            while (!truncated && index < chunk.length()) {
+                int codePoint = chunk.codePointAt(index);
+                int length = utf8Length(codePoint);
+                if (bytes + length > maxBytes) {
+                    truncated = true;
+                    break;
+                }
+                buffer.appendCodePoint(codePoint);
+                bytes += length;
+                index += Character.charCount(codePoint);
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastCheckpoint < checkpointIntervalMillis) {
+                return false;
+            }
+            lastCheckpoint = now;
+            return true;
+        }
+
+        private synchronized String snapshot() {
+            return buffer.toString();
+        }
+
+        private synchronized boolean isTruncated() {
+            return truncated;
+        }
+
+        private static int utf8Length(int codePoint) {
+            if (codePoint < 0x80) {
+                return 1;
+            }
+            if (codePoint < 0x800) {
+                return 2;
+            }
+            return codePoint < 0x10000 ? 3 : 4;
+        }
+    }
+}
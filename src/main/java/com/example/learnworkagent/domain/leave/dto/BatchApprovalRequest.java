@@ -0,0 +1,24 @@
+package com.example.learnworkagent.domain.leave.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量审批请求DTO
+ */
+@Data
+public class BatchApprovalRequest {
+
+    @NotEmpty(message = "审批申请列表不能为空")
+    @Size(max = 500, message = "单次最多批量审批500条")
+    private List<Long> applicationIds;
+
+    @NotBlank(message = "审批状态不能为空")
+    private String approvalStatus;
+
+    private String approvalComment;
+}
@@ -0,0 +1,35 @@
+package com.example.learnworkagent.domain.leave.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 集体请假（公假）批量提交请求DTO
+ */
+@Data
+public class BulkLeaveApplicationRequest {
+
+    @NotEmpty(message = "学生列表不能为空")
+    @Size(max = 2000, message = "单次最多提交2000名学生")
+    private List<Long> studentIds;
+
+    /**
+     * 请假类型，默认公假
+     */
+    private String leaveType;
+
+    @NotNull(message = "开始日期不能为空")
+    private LocalDate startDate;
+
+    @NotNull(message = "结束日期不能为空")
+    private LocalDate endDate;
+
+    private String reason;
+
+    private String attachmentUrl;
+}
@@ -0,0 +1,27 @@
+package com.example.learnworkagent.domain.leave.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 集体请假批量提交结果
+ */
+@Data
+public class BulkLeaveSubmitResult {
+
+    /**
+     * 创建的请假申请ID（与学生顺序一致）
+     */
+    private List<Long> applicationIds = new ArrayList<>();
+
+    /**
+     * 未提交的学生ID（不存在或不是学生）
+     */
+    private List<Long> skippedStudentIds = new ArrayList<>();
+
+    public int getCreatedCount() {
+        return applicationIds.size();
+    }
+}
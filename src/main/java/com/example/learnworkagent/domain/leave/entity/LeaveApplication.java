@@ -5,6 +5,7 @@ import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
 import com.example.learnworkagent.common.enums.LeaveSlipStatusEnum;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -20,7 +21,9 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Comment("请假申请表")
-@Table(name = "leave_application")
+@Table(name = "leave_application", indexes = {
+        @Index(name = "idx_leave_applicant_time", columnList = "applicant_id, create_time")
+})
 public class LeaveApplication extends BaseEntity {
 
     /** 申请人ID。 */
@@ -0,0 +1,100 @@
+package com.example.learnworkagent.domain.leave.repository;
+
+import com.example.learnworkagent.domain.leave.entity.LeaveApplication;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 请假申请 JDBC 批量写入仓库
+ * 集体公假等批量提交场景使用 JDBC batch 插入（配合 rewriteBatchedStatements 合并为多值 INSERT），并回填自增主键
+ */
+@Repository
+@RequiredArgsConstructor
+public class LeaveApplicationJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO leave_application "
+            + "(applicant_id, leave_type, start_date, end_date, days, reason, attachment_url, approval_status, "
+            + "leave_slip_status, cancelled, student_name, department_id, grade, class_name, "
+            + "create_time, update_time, deleted) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_APPROVER_SQL = "UPDATE leave_application SET approver_id = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 批量插入请假申请，插入后回填 id
+     *
+     * @param applications 待插入的申请（同一批次）
+     */
+    public void batchInsert(List<LeaveApplication> applications) {
+        if (applications.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        LeaveApplication application = applications.get(i);
+                        ps.setLong(1, application.getApplicantId());
+                        ps.setString(2, application.getLeaveType());
+                        ps.setDate(3, Date.valueOf(application.getStartDate()));
+                        ps.setDate(4, Date.valueOf(application.getEndDate()));
+                        ps.setInt(5, application.getDays());
+                        ps.setString(6, application.getReason());
+                        ps.setString(7, application.getAttachmentUrl());
+                        ps.setString(8, application.getApprovalStatus());
+                        ps.setString(9, application.getLeaveSlipStatus());
+                        ps.setBoolean(10, Boolean.TRUE.equals(application.getCancelled()));
+                        ps.setString(11, application.getStudentName());
+                        ps.setObject(12, application.getDepartmentId());
+                        ps.setString(13, application.getGrade());
+                        ps.setString(14, application.getClassName());
+                        ps.setTimestamp(15, now);
+                        ps.setTimestamp(16, now);
+                        ps.setBoolean(17, false);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return applications.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < applications.size(); i++) {
+            LeaveApplication application = applications.get(i);
+            application.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            application.setCreateTime(now.toLocalDateTime());
+            application.setUpdateTime(now.toLocalDateTime());
+        }
+    }
+
+    /**
+     * 批量回写当前审批人
+     *
+     * @param approverByApplicationId 申请ID -> 当前审批人ID
+     */
+    public void batchUpdateApprover(Map<Long, Long> approverByApplicationId) {
+        if (approverByApplicationId.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(approverByApplicationId.size());
+        approverByApplicationId.forEach((applicationId, approverId) -> args.add(new Object[]{approverId, applicationId}));
+        jdbcTemplate.batchUpdate(UPDATE_APPROVER_SQL, args);
+    }
+}
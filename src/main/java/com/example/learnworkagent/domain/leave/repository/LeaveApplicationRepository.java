@@ -1,8 +1,11 @@
 package com.example.learnworkagent.domain.leave.repository;
 
 import com.example.learnworkagent.domain.leave.entity.LeaveApplication;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -27,6 +30,15 @@ public interface LeaveApplicationRepository extends JpaRepository<LeaveApplicati
      */
     Page<LeaveApplication> findByApplicantIdAndDeletedFalseOrderByCreateTimeDesc(Long applicantId, Pageable pageable);
 
+    /**
+     * 游标分页查询学生的请假申请
+     */
+    Window<LeaveApplication> findByApplicantIdAndDeletedFalseOrderByCreateTimeDescIdDesc(Long applicantId,
+                                                                                         ScrollPosition position,
+                                                                                         Limit limit);
+
+    long countByApplicantIdAndDeletedFalse(Long applicantId);
+
     /**
      * 查询指定日期范围内有交集的请假申请。
      *
@@ -1,17 +1,28 @@
 package com.example.learnworkagent.domain.leave.service;
 
 import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.annotation.OptimisticRetry;
 import com.example.learnworkagent.common.dto.PageRequest;
 import com.example.learnworkagent.common.dto.PageResult;
+import com.example.learnworkagent.common.util.KeysetPaging;
 import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
 import com.example.learnworkagent.common.enums.LeaveSlipStatusEnum;
+import com.example.learnworkagent.common.enums.LeaveTypeEnum;
+import com.example.learnworkagent.common.enums.RoleEnum;
 import com.example.learnworkagent.common.exception.BusinessException;
-import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
+import com.example.learnworkagent.domain.approval.dto.ApprovalDecisionResult;
+import com.example.learnworkagent.domain.approval.dto.ApprovalInstanceDraft;
+import com.example.learnworkagent.domain.approval.dto.BatchApprovalResult;
 import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
 import com.example.learnworkagent.domain.approval.service.ApprovalService;
+import com.example.learnworkagent.domain.leave.dto.BulkLeaveApplicationRequest;
+import com.example.learnworkagent.domain.leave.dto.BulkLeaveSubmitResult;
 import com.example.learnworkagent.domain.leave.dto.LeaveApplicationRequest;
 import com.example.learnworkagent.domain.leave.entity.LeaveApplication;
+import com.example.learnworkagent.domain.leave.repository.LeaveApplicationJdbcRepository;
 import com.example.learnworkagent.domain.leave.repository.LeaveApplicationRepository;
+import com.example.learnworkagent.domain.user.entity.User;
+import com.example.learnworkagent.domain.user.repository.UserRepository;
 import com.example.learnworkagent.infrastructure.external.oss.OssService;
 import com.example.learnworkagent.infrastructure.external.template.TemplateService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -33,10 +44,16 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 请假申请服务。
@@ -54,6 +71,8 @@ public class LeaveApplicationService {
     private static final String DOCX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
 
     private final LeaveApplicationRepository leaveApplicationRepository;
+    private final LeaveApplicationJdbcRepository leaveApplicationJdbcRepository;
+    private final UserRepository userRepository;
     private final TemplateService templateService;
     private final OssService ossService;
     private final ApprovalService approvalService;
@@ -73,10 +92,73 @@ public class LeaveApplicationService {
         int leaveDays = calculateLeaveDays(request);
         LeaveApplication application = buildLeaveApplication(applicantId, request, leaveDays);
         LeaveApplication savedApplication = leaveApplicationRepository.save(application);
-        createApprovalFlow(savedApplication, applicantId, request);
+        createApprovalFlow(savedApplication, applicantId);
         return savedApplication;
     }
 
+    /**
+     * 集体请假（公假）批量提交：辅导员等学工人员为整个班级/年级的学生一次性提交。
+     * 申请批量插入，审批实例和任务由审批服务批量创建，审批人只解析一次，待办通知合并投递。
+     *
+     * @param submitterId 提交人ID（学工人员）
+     * @param request 批量提交参数
+     * @return 提交结果
+     */
+    @Transactional
+    public BulkLeaveSubmitResult submitBulkLeaveApplications(Long submitterId, BulkLeaveApplicationRequest request) {
+        User submitter = userRepository.findById(submitterId)
+                .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND));
+        if (Arrays.stream(RoleEnum.getStaffRoles()).noneMatch(role -> role.getCode().equals(submitter.getRole()))) {
+            throw new BusinessException(ResultCode.FORBIDDEN, "仅学工人员可以批量提交请假");
+        }
+
+        LeaveApplicationRequest template = new LeaveApplicationRequest();
+        template.setLeaveType(request.getLeaveType() != null ? request.getLeaveType() : LeaveTypeEnum.OFFICIAL.getCode());
+        template.setStartDate(request.getStartDate());
+        template.setEndDate(request.getEndDate());
+        template.setReason(request.getReason());
+        template.setAttachmentUrl(request.getAttachmentUrl());
+        validateLeaveDates(template);
+        int leaveDays = calculateLeaveDays(template);
+
+        List<Long> studentIds = request.getStudentIds().stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, User> students = userRepository.findAllById(studentIds).stream()
+                .filter(user -> RoleEnum.STUDENT.getCode().equals(user.getRole()))
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        BulkLeaveSubmitResult result = new BulkLeaveSubmitResult();
+        List<LeaveApplication> applications = new ArrayList<>(students.size());
+        for (Long studentId : studentIds) {
+            User student = students.get(studentId);
+            if (student == null) {
+                result.getSkippedStudentIds().add(studentId);
+                continue;
+            }
+            template.setStudentName(student.getRealName());
+            template.setDepartmentId(student.getDepartmentId());
+            template.setGrade(student.getGrade());
+            template.setClassName(student.getClassName());
+            applications.add(buildLeaveApplication(studentId, template, leaveDays));
+        }
+        if (applications.isEmpty()) {
+            return result;
+        }
+
+        leaveApplicationJdbcRepository.batchInsert(applications);
+        List<ApprovalInstanceDraft> drafts = new ArrayList<>(applications.size());
+        for (LeaveApplication application : applications) {
+            drafts.add(new ApprovalInstanceDraft(application.getId(), application.getApplicantId(),
+                    writeApplicantInfo(application)));
+            result.getApplicationIds().add(application.getId());
+        }
+        Map<Long, Long> approverByApplicationId = approvalService.bulkCreateApprovalInstances(BUSINESS_TYPE_LEAVE, drafts);
+        leaveApplicationJdbcRepository.batchUpdateApprover(approverByApplicationId);
+
+        log.info("集体请假批量提交完成，提交人: {}, 创建: {}, 跳过: {}",
+                submitterId, result.getCreatedCount(), result.getSkippedStudentIds().size());
+        return result;
+    }
+
     /**
      * 审批请假申请。
      *
@@ -85,19 +167,52 @@ public class LeaveApplicationService {
      * @param approvalStatus 审批状态
      * @param approvalComment 审批意见
      */
+    @OptimisticRetry
     @Transactional
     public void approveLeaveApplication(Long applicationId, Long approverId,
                                         String approvalStatus, String approvalComment) {
-        getApplicationById(applicationId);
-
-        ApprovalInstance approvalInstance = approvalService.getApprovalInstance(BUSINESS_TYPE_LEAVE, applicationId);
-        ApprovalTask currentTask = getCurrentTask(approvalInstance, approverId);
-        approvalService.processApprovalTask(currentTask.getId(), approverId, approvalStatus, approvalComment);
+        ApprovalDecisionResult<LeaveApplication> result = approvalService.processApprovalByBusiness(
+                BUSINESS_TYPE_LEAVE, applicationId, approverId, approvalStatus, approvalComment);
+        if (result.application().isApproved()) {
+            generateLeaveSlip(result.application());
+        }
+    }
 
-        LeaveApplication refreshedApplication = getApplicationById(applicationId);
-        if (refreshedApplication.isApproved()) {
-            generateLeaveSlip(refreshedApplication);
+    /**
+     * 批量审批请假申请。
+     * 一次查询审批人的全部进行中任务定位到对应申请，再交由审批服务批量处理。
+     * 不在外层开启事务：审批服务按轮次独立提交，生成请假条时需要读到已提交的审批结果。
+     *
+     * @param applicationIds 请假申请ID列表
+     * @param approverId 审批人ID
+     * @param approvalStatus 审批状态
+     * @param approvalComment 审批意见
+     * @return 逐条审批结果
+     */
+    public BatchApprovalResult batchApproveLeaveApplications(List<Long> applicationIds, Long approverId,
+                                                             String approvalStatus, String approvalComment) {
+        Set<Long> requestedIds = new LinkedHashSet<>(applicationIds);
+        Map<Long, Long> taskIdByApplicationId = approvalService.getPendingTasks(approverId).stream()
+                .filter(task -> BUSINESS_TYPE_LEAVE.equals(task.getInstance().getBusinessType()))
+                .filter(task -> requestedIds.contains(task.getInstance().getBusinessId()))
+                .collect(Collectors.toMap(task -> task.getInstance().getBusinessId(), ApprovalTask::getId,
+                        (left, right) -> left));
+
+        BatchApprovalResult result = approvalService.batchProcessApprovalTasks(
+                List.copyOf(taskIdByApplicationId.values()), approverId, approvalStatus, approvalComment);
+        requestedIds.stream()
+                .filter(applicationId -> !taskIdByApplicationId.containsKey(applicationId))
+                .forEach(applicationId -> result.addFailure(null, BUSINESS_TYPE_LEAVE, applicationId, "当前没有可处理的审批任务"));
+
+        List<Long> approvedIds = result.getItems().stream()
+                .filter(BatchApprovalResult.Item::success)
+                .filter(item -> ApprovalStatusEnum.APPROVED.getCode().equals(item.instanceStatus()))
+                .map(BatchApprovalResult.Item::businessId)
+                .toList();
+        if (!approvedIds.isEmpty()) {
+            leaveApplicationRepository.findAllById(approvedIds).forEach(this::generateLeaveSlipQuietly);
         }
+        return result;
     }
 
     /**
@@ -173,6 +288,11 @@ public class LeaveApplicationService {
      * @return 分页结果
      */
     public PageResult<LeaveApplication> getUserApplications(Long userId, PageRequest pageRequest) {
+        if (pageRequest.isKeysetMode()) {
+            return KeysetPaging.toPageResult(leaveApplicationRepository.findByApplicantIdAndDeletedFalseOrderByCreateTimeDescIdDesc(
+                            userId, KeysetPaging.position(pageRequest), KeysetPaging.limit(pageRequest)),
+                    pageRequest, () -> leaveApplicationRepository.countByApplicantIdAndDeletedFalse(userId));
+        }
         Pageable pageable = buildPageable(pageRequest);
         Page<LeaveApplication> page = leaveApplicationRepository
                 .findByApplicantIdAndDeletedFalseOrderByCreateTimeDesc(userId, pageable);
@@ -204,6 +324,14 @@ public class LeaveApplicationService {
         return buildPageResult(page, pageRequest);
     }
 
+    private void generateLeaveSlipQuietly(LeaveApplication application) {
+        try {
+            generateLeaveSlip(application);
+        } catch (BusinessException exception) {
+            log.warn("批量审批后生成请假条失败，申请ID: {}, 原因: {}", application.getId(), exception.getMessage());
+        }
+    }
+
     private void validateLeaveDates(LeaveApplicationRequest request) {
         if (request.getStartDate().isAfter(request.getEndDate())) {
             throw new BusinessException(ResultCode.PARAM_ERROR, "开始日期不能晚于结束日期");
@@ -236,34 +364,28 @@ public class LeaveApplicationService {
         return application;
     }
 
-    private void createApprovalFlow(LeaveApplication application, Long applicantId, LeaveApplicationRequest request) {
+    private void createApprovalFlow(LeaveApplication application, Long applicantId) {
         try {
-            String applicantInfoJson = objectMapper.writeValueAsString(buildApplicantInfo(request));
-            approvalService.createApprovalInstance(BUSINESS_TYPE_LEAVE, application.getId(), applicantId, applicantInfoJson);
+            approvalService.createApprovalInstance(BUSINESS_TYPE_LEAVE, application.getId(), applicantId,
+                    writeApplicantInfo(application));
         } catch (Exception exception) {
             log.error("创建请假审批流程失败，申请ID: {}", application.getId(), exception);
         }
     }
 
-    private Map<String, Object> buildApplicantInfo(LeaveApplicationRequest request) {
-        Map<String, Object> applicantInfo = new HashMap<>(4);
-        applicantInfo.put("studentName", request.getStudentName());
-        applicantInfo.put("departmentId", request.getDepartmentId());
-        applicantInfo.put("grade", request.getGrade());
-        applicantInfo.put("className", request.getClassName());
-        return applicantInfo;
-    }
-
-    private ApprovalTask getCurrentTask(ApprovalInstance approvalInstance, Long approverId) {
-        if (approvalInstance == null) {
-            throw new BusinessException(ResultCode.PARAM_ERROR, "审批流程不存在");
+    private String writeApplicantInfo(LeaveApplication application) {
+        Map<String, Object> applicantInfo = new HashMap<>(8);
+        applicantInfo.put("studentName", application.getStudentName());
+        applicantInfo.put("departmentId", application.getDepartmentId());
+        applicantInfo.put("grade", application.getGrade());
+        applicantInfo.put("className", application.getClassName());
+        applicantInfo.put("leaveType", application.getLeaveType());
+        applicantInfo.put("leaveDays", application.getDays());
+        try {
+            return objectMapper.writeValueAsString(applicantInfo);
+        } catch (Exception exception) {
+            throw new BusinessException(ResultCode.SYSTEM_ERROR, "申请人信息序列化失败");
         }
-
-        return approvalService.getCurrentTasks(approvalInstance).stream()
-                .filter(task -> Objects.equals(task.getApproverId(), approverId))
-                .filter(task -> ApprovalStatusEnum.PROCESSING.getCode().equals(task.getStatus()))
-                .findFirst()
-                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "当前没有可处理的审批任务"));
     }
 
     private MultipartFile buildLeaveSlipFile(LeaveApplication application, byte[] docBytes) {
@@ -0,0 +1,24 @@
+package com.example.learnworkagent.domain.notification.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量通知消息，一次投递多条通知，用于 RabbitMQ 传输。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationBatchMessage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** 通知列表。 */
+    private List<NotificationMessage> messages;
+}
@@ -0,0 +1,89 @@
+package com.example.learnworkagent.domain.notification.entity;
+
+import com.example.learnworkagent.common.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * 通知发件箱。
+ * 与业务数据在同一事务中写入，提交后由投递器批量发送到消息队列。
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Comment("通知发件箱表")
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_outbox_status_next", columnList = "status, next_attempt_time")
+})
+public class NotificationOutbox extends BaseEntity {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    /** 目标队列。 */
+    @Comment("目标队列")
+    @Column(name = "queue", nullable = false, length = 100)
+    private String queue;
+
+    /** 消息内容（JSON）。 */
+    @Comment("消息内容")
+    @Column(name = "payload", nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String payload;
+
+    /** 投递状态（PENDING-待投递, SENT-已投递, FAILED-投递失败）。 */
+    @Comment("投递状态")
+    @Column(name = "status", nullable = false, length = 20)
+    private String status = STATUS_PENDING;
+
+    /** 已尝试次数。 */
+    @Comment("已尝试次数")
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    /** 下次投递时间。 */
+    @Comment("下次投递时间")
+    @Column(name = "next_attempt_time", nullable = false)
+    private LocalDateTime nextAttemptTime;
+
+    /** 投递成功时间。 */
+    @Comment("投递成功时间")
+    @Column(name = "sent_time")
+    private LocalDateTime sentTime;
+
+    /** 最近一次失败原因。 */
+    @Comment("最近一次失败原因")
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public void markSent(LocalDateTime time) {
+        this.status = STATUS_SENT;
+        this.sentTime = time;
+        this.lastError = null;
+    }
+
+    /**
+     * 记录一次失败，超过最大次数后标记为失败，否则按指数退避安排下次投递。
+     */
+    public void markRetry(LocalDateTime now, String error, int maxAttempts) {
+        this.attempts = attempts + 1;
+        this.lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        if (attempts >= maxAttempts) {
+            this.status = STATUS_FAILED;
+            return;
+        }
+        this.nextAttemptTime = now.plusSeconds(1L << Math.min(attempts, 10));
+    }
+
+    public void markFailed(String error) {
+        this.status = STATUS_FAILED;
+        this.lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
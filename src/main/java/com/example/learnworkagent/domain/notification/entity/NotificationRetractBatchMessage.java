@@ -0,0 +1,24 @@
+package com.example.learnworkagent.domain.notification.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量通知撤回消息，用于 RabbitMQ 传输。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationRetractBatchMessage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** 撤回项列表。 */
+    private List<NotificationRetraction> retractions;
+}
@@ -0,0 +1,32 @@
+package com.example.learnworkagent.domain.notification.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 待办通知撤回项：任务被跳过后，撤回该审批人关于该业务的未读待办通知。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationRetraction implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** 接收用户ID。 */
+    private Long userId;
+
+    /** 通知类型。 */
+    private String type;
+
+    /** 关联业务类型。 */
+    private String businessType;
+
+    /** 关联业务ID。 */
+    private Long businessId;
+}
@@ -0,0 +1,38 @@
+package com.example.learnworkagent.domain.notification.repository;
+
+import com.example.learnworkagent.domain.notification.entity.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 通知发件箱仓库
+ */
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * 锁定一批到期的待投递记录（FOR UPDATE SKIP LOCKED），多节点投递器互不阻塞、不重复领取
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.status = :status AND o.nextAttemptTime <= :now ORDER BY o.id")
+    List<NotificationOutbox> lockDueBatch(@Param("status") String status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * 清理已投递的历史记录
+     */
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status = :status AND o.sentTime < :before")
+    int deleteSentBefore(@Param("status") String status, @Param("before") LocalDateTime before);
+}
@@ -1,11 +1,18 @@
 package com.example.learnworkagent.domain.notification.repository;
 
 import com.example.learnworkagent.domain.notification.entity.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,6 +26,17 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      */
     Page<Notification> findByUserIdAndDeletedFalseOrderByCreateTimeDesc(Long userId, Pageable pageable);
 
+    /**
+     * 游标分页查询用户的通知列表
+     */
+    Window<Notification> findByUserIdAndDeletedFalseOrderByCreateTimeDescIdDesc(Long userId, ScrollPosition position,
+                                                                                 Limit limit);
+
+    /**
+     * 统计用户的通知数量
+     */
+    long countByUserIdAndDeletedFalse(Long userId);
+
     /**
      * 查询用户的未读通知
      */
@@ -28,4 +46,15 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      * 统计用户未读通知数量
      */
     long countByUserIdAndIsReadFalseAndDeletedFalse(Long userId);
+
+    /**
+     * 把用户关于某业务的未读通知标记为已读（撤回待办通知）
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readTime = :readTime WHERE n.userId = :userId "
+            + "AND n.type = :type AND n.businessType = :businessType AND n.businessId = :businessId "
+            + "AND n.isRead = false AND n.deleted = false")
+    int markReadByBusiness(@Param("userId") Long userId, @Param("type") String type,
+                           @Param("businessType") String businessType, @Param("businessId") Long businessId,
+                           @Param("readTime") LocalDateTime readTime);
 }
@@ -0,0 +1,214 @@
+package com.example.learnworkagent.domain.notification.service;
+
+import com.example.learnworkagent.domain.notification.entity.NotificationBatchMessage;
+import com.example.learnworkagent.domain.notification.entity.NotificationMessage;
+import com.example.learnworkagent.domain.notification.entity.NotificationOutbox;
+import com.example.learnworkagent.domain.notification.entity.NotificationRetractBatchMessage;
+import com.example.learnworkagent.domain.notification.repository.NotificationOutboxRepository;
+import com.example.learnworkagent.infrastructure.config.RabbitMQConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 通知发件箱投递器。
+ * 业务事务只写发件箱表；事务提交后唤醒投递器，投递器锁定一批记录，在同一信道上批量发送并等待发布确认，
+ * 确认成功后标记为已投递。失败的记录按指数退避重试，定时任务兜底处理遗漏和重试。
+ * 每条消息带 outbox-{id} 作为 messageId，消费端据此去重。
+ */
+@Slf4j
+@Component
+public class NotificationOutboxRelay {
+
+    /**
+     * 消息ID前缀
+     */
+    public static final String MESSAGE_ID_PREFIX = "outbox-";
+
+    private static final Map<String, Class<?>> PAYLOAD_TYPES = Map.of(
+            RabbitMQConfig.APPROVAL_NOTIFICATION_QUEUE, NotificationMessage.class,
+            RabbitMQConfig.APPROVAL_NOTIFICATION_BATCH_QUEUE, NotificationBatchMessage.class,
+            RabbitMQConfig.APPROVAL_NOTIFICATION_RETRACT_QUEUE, NotificationRetractBatchMessage.class);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor taskExecutor;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${notification.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${notification.outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMillis;
+
+    @Value("${notification.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public NotificationOutboxRelay(NotificationOutboxRepository outboxRepository,
+                                   RabbitTemplate rabbitTemplate,
+                                   ObjectMapper objectMapper,
+                                   TransactionTemplate transactionTemplate,
+                                   @Qualifier("taskExecutor") Executor taskExecutor) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 写入发件箱（加入当前事务），事务提交后唤醒投递器
+     *
+     * @param queue   目标队列
+     * @param payload 消息体
+     */
+    public void enqueue(String queue, Object payload) {
+        if (!PAYLOAD_TYPES.containsKey(queue)) {
+            throw new IllegalArgumentException("发件箱不支持的队列: " + queue);
+        }
+        NotificationOutbox outbox = new NotificationOutbox();
+        outbox.setQueue(queue);
+        outbox.setPayload(serialize(payload));
+        outbox.setNextAttemptTime(LocalDateTime.now());
+        outboxRepository.save(outbox);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    /**
+     * 异步触发一次投递，已有投递在进行时忽略
+     */
+    public void wakeUp() {
+        if (running.get()) {
+            return;
+        }
+        try {
+            taskExecutor.execute(this::relayPending);
+        } catch (Exception exception) {
+            log.warn("提交发件箱投递任务失败，等待定时投递: {}", exception.getMessage());
+        }
+    }
+
+    /**
+     * 定时兜底投递
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:2000}")
+    public void relayPending() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (Exception exception) {
+            log.error("发件箱投递异常", exception);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 清理已投递的历史记录
+     */
+    @Scheduled(cron = "${notification.outbox.cleanup-cron:0 30 3 * * ?}")
+    public void cleanupSent() {
+        Integer deleted = transactionTemplate.execute(status -> outboxRepository.deleteSentBefore(
+                NotificationOutbox.STATUS_SENT, LocalDateTime.now().minusDays(retentionDays)));
+        log.info("清理已投递发件箱记录: {}", deleted);
+    }
+
+    /**
+     * 投递一批，返回领取到的记录数；发送失败时返回 0 结束本轮
+     */
+    private int relayBatch() {
+        Integer result = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NotificationOutbox> batch = outboxRepository.lockDueBatch(
+                    NotificationOutbox.STATUS_PENDING, now, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            List<NotificationOutbox> sendable = new ArrayList<>(batch.size());
+            List<Object> payloads = new ArrayList<>(batch.size());
+            for (NotificationOutbox outbox : batch) {
+                try {
+                    payloads.add(objectMapper.readValue(outbox.getPayload(), PAYLOAD_TYPES.get(outbox.getQueue())));
+                    sendable.add(outbox);
+                } catch (Exception exception) {
+                    log.error("发件箱消息无法解析，标记失败，outboxId: {}", outbox.getId(), exception);
+                    outbox.markFailed(exception.getMessage());
+                }
+            }
+
+            try {
+                publishWithConfirms(sendable, payloads);
+                sendable.forEach(outbox -> outbox.markSent(now));
+                log.info("发件箱投递完成，数量: {}", sendable.size());
+                return batch.size();
+            } catch (Exception exception) {
+                log.warn("发件箱投递失败，数量: {}, 原因: {}", sendable.size(), exception.getMessage());
+                sendable.forEach(outbox -> outbox.markRetry(now, exception.getMessage(), maxAttempts));
+                return 0;
+            }
+        });
+        return result == null ? 0 : result;
+    }
+
+    private void publishWithConfirms(List<NotificationOutbox> outboxes, List<Object> payloads) {
+        if (outboxes.isEmpty()) {
+            return;
+        }
+        rabbitTemplate.invoke(operations -> {
+            for (int i = 0; i < outboxes.size(); i++) {
+                String messageId = MESSAGE_ID_PREFIX + outboxes.get(i).getId();
+                operations.convertAndSend(outboxes.get(i).getQueue(), payloads.get(i), message -> {
+                    message.getMessageProperties().setMessageId(messageId);
+                    return message;
+                });
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+            return null;
+        });
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("通知消息序列化失败", exception);
+        }
+    }
+}
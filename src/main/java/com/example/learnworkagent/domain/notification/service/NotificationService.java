@@ -4,6 +4,9 @@ import com.example.learnworkagent.common.dto.PageRequest;
 import com.example.learnworkagent.common.dto.PageResult;
 import com.example.learnworkagent.domain.notification.entity.Notification;
 import com.example.learnworkagent.domain.notification.entity.NotificationMessage;
+import com.example.learnworkagent.domain.notification.entity.NotificationRetraction;
+
+import java.util.List;
 
 /**
  * 通知服务接口
@@ -11,12 +14,33 @@ import com.example.learnworkagent.domain.notification.entity.NotificationMessage
 public interface NotificationService {
 
     /**
-     * 发送奖助申请审批结果通知
+     * 发送审批通知（写入发件箱，随当前事务提交后投递）
      *
      * @param message 通知消息
      */
     void sendAwardApprovalNotification(NotificationMessage message);
 
+    /**
+     * 批量发送审批通知（写入发件箱，提交后合并为一条消息投递）
+     *
+     * @param messages 通知消息列表
+     */
+    void sendApprovalNotifications(List<NotificationMessage> messages);
+
+    /**
+     * 撤回待办通知（写入发件箱，随当前事务提交后投递）
+     *
+     * @param retractions 撤回项列表
+     */
+    void retractApprovalNotifications(List<NotificationRetraction> retractions);
+
+    /**
+     * 执行撤回：把匹配的未读通知标记为已读，并通过 WebSocket 通知客户端移除（消费端调用）
+     *
+     * @param retractions 撤回项列表
+     */
+    void applyRetractions(List<NotificationRetraction> retractions);
+
     /**
      * 获取用户的通知列表
      *
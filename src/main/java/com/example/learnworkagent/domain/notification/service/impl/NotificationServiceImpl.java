@@ -3,23 +3,32 @@ package com.example.learnworkagent.domain.notification.service.impl;
 import com.example.learnworkagent.common.ResultCode;
 import com.example.learnworkagent.common.dto.PageRequest;
 import com.example.learnworkagent.common.dto.PageResult;
+import com.example.learnworkagent.common.util.KeysetPaging;
 import com.example.learnworkagent.common.exception.BusinessException;
 import com.example.learnworkagent.domain.notification.entity.Notification;
+import com.example.learnworkagent.domain.notification.entity.NotificationBatchMessage;
 import com.example.learnworkagent.domain.notification.entity.NotificationMessage;
+import com.example.learnworkagent.domain.notification.entity.NotificationRetractBatchMessage;
+import com.example.learnworkagent.domain.notification.entity.NotificationRetraction;
 import com.example.learnworkagent.domain.notification.repository.NotificationRepository;
+import com.example.learnworkagent.domain.notification.service.NotificationOutboxRelay;
 import com.example.learnworkagent.domain.notification.service.NotificationService;
 import com.example.learnworkagent.infrastructure.config.RabbitMQConfig;
 import com.example.learnworkagent.infrastructure.external.notification.WebSocketNotificationService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * 通知服务实现。
@@ -33,25 +42,78 @@ public class NotificationServiceImpl implements NotificationService {
     private static final String FORBIDDEN_DELETE_MESSAGE = "无权删除此通知";
 
     private final NotificationRepository notificationRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final NotificationOutboxRelay outboxRelay;
     private final WebSocketNotificationService webSocketNotificationService;
 
     public NotificationServiceImpl(NotificationRepository notificationRepository,
-                                   RabbitTemplate rabbitTemplate,
+                                   NotificationOutboxRelay outboxRelay,
                                    @Lazy WebSocketNotificationService webSocketNotificationService) {
         this.notificationRepository = notificationRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.outboxRelay = outboxRelay;
         this.webSocketNotificationService = webSocketNotificationService;
     }
 
     @Override
     public void sendAwardApprovalNotification(NotificationMessage message) {
-        log.info("发送审批通知到消息队列，用户ID: {}, 业务ID: {}", message.getUserId(), message.getBusinessId());
-        rabbitTemplate.convertAndSend(RabbitMQConfig.APPROVAL_NOTIFICATION_QUEUE, message);
+        log.info("审批通知写入发件箱，用户ID: {}, 业务ID: {}", message.getUserId(), message.getBusinessId());
+        outboxRelay.enqueue(RabbitMQConfig.APPROVAL_NOTIFICATION_QUEUE, message);
+    }
+
+    @Override
+    public void sendApprovalNotifications(List<NotificationMessage> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+        log.info("批量审批通知写入发件箱，通知数: {}", messages.size());
+        outboxRelay.enqueue(RabbitMQConfig.APPROVAL_NOTIFICATION_BATCH_QUEUE, new NotificationBatchMessage(messages));
+    }
+
+    @Override
+    public void retractApprovalNotifications(List<NotificationRetraction> retractions) {
+        if (retractions == null || retractions.isEmpty()) {
+            return;
+        }
+        log.info("待办通知撤回写入发件箱，撤回数: {}", retractions.size());
+        outboxRelay.enqueue(RabbitMQConfig.APPROVAL_NOTIFICATION_RETRACT_QUEUE, new NotificationRetractBatchMessage(retractions));
+    }
+
+    @Override
+    @Transactional
+    public void applyRetractions(List<NotificationRetraction> retractions) {
+        LocalDateTime now = LocalDateTime.now();
+        for (NotificationRetraction retraction : retractions) {
+            notificationRepository.markReadByBusiness(retraction.getUserId(), retraction.getType(),
+                    retraction.getBusinessType(), retraction.getBusinessId(), now);
+        }
+        // 撤回和未读数在提交后推送，事务回滚时客户端不会先看到撤回
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pushRetractions(retractions);
+                }
+            });
+        } else {
+            pushRetractions(retractions);
+        }
+    }
+
+    private void pushRetractions(List<NotificationRetraction> retractions) {
+        Set<Long> affectedUsers = new LinkedHashSet<>();
+        for (NotificationRetraction retraction : retractions) {
+            webSocketNotificationService.sendRetractionToUser(retraction.getUserId(), retraction);
+            affectedUsers.add(retraction.getUserId());
+        }
+        affectedUsers.forEach(this::pushUnreadCount);
     }
 
     @Override
     public PageResult<Notification> getUserNotifications(Long userId, PageRequest pageRequest) {
+        if (pageRequest.isKeysetMode()) {
+            return KeysetPaging.toPageResult(notificationRepository.findByUserIdAndDeletedFalseOrderByCreateTimeDescIdDesc(
+                            userId, KeysetPaging.position(pageRequest), KeysetPaging.limit(pageRequest)),
+                    pageRequest, () -> notificationRepository.countByUserIdAndDeletedFalse(userId));
+        }
         Pageable pageable = buildPageable(pageRequest);
         Page<Notification> page = notificationRepository.findByUserIdAndDeletedFalseOrderByCreateTimeDesc(userId, pageable);
         return buildPageResult(page, pageRequest);
@@ -0,0 +1,64 @@
+package com.example.learnworkagent.domain.process.entity;
+
+import com.example.learnworkagent.common.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Comment;
+
+/**
+ * 流程列表条目（流程列表读模型）。
+ * 每个用户在每笔业务上一行：学生为自己提交的申请，学工人员为分配给自己的审批；
+ * 由审批引擎在实例创建、任务激活、审批、跳过和转交时维护，create_time 为审批实例的创建时间。
+ * 写入只走 {@link com.example.learnworkagent.domain.process.repository.ProcessItemJdbcRepository}。
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Comment("流程列表条目表")
+@Table(name = "process_item", indexes = {
+        @Index(name = "idx_process_item_user_status_time", columnList = "user_id, status, create_time")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_process_item_user_business", columnNames = {"user_id", "business_type", "business_id"})
+})
+public class ProcessItemEntry extends BaseEntity {
+
+    /** 所属用户ID（申请人或审批人）。 */
+    @Comment("所属用户ID")
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /** 业务类型（LEAVE、AWARD）。 */
+    @Comment("业务类型")
+    @Column(name = "business_type", nullable = false, length = 20)
+    private String businessType;
+
+    /** 业务ID。 */
+    @Comment("业务ID")
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    /** 流程名称。 */
+    @Comment("流程名称")
+    @Column(name = "name", nullable = false, length = 50)
+    private String name;
+
+    /** 流程类型（leave、award）。 */
+    @Comment("流程类型")
+    @Column(name = "type", nullable = false, length = 20)
+    private String type;
+
+    /** 列表状态（pending、completed）。 */
+    @Comment("列表状态")
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    /** 描述。 */
+    @Comment("描述")
+    @Column(name = "description", length = 100)
+    private String description;
+}
@@ -0,0 +1,202 @@
+package com.example.learnworkagent.domain.process.projection;
+
+import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
+import com.example.learnworkagent.common.enums.NotificationBusinessTypeEnum;
+import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
+import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import com.example.learnworkagent.domain.process.entity.ProcessItemEntry;
+import com.example.learnworkagent.domain.process.repository.ProcessItemJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流程列表读模型投影。
+ * 审批引擎在实例创建、实例完成、任务激活、任务处理、任务跳过和转交时上报，变更在当前事务内按 (用户, 业务) 合并，
+ * 提交前一次批量写入 process_item，与审批数据同事务提交或回滚；流程列表只按 (用户, 状态) 读取该表。
+ * 表为空时（首次上线）启动后由申请表和任务表回填。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProcessItemProjector {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_COMPLETED = "completed";
+
+    private final ProcessItemJdbcRepository itemRepository;
+
+    /**
+     * 实例创建：申请人的条目进入待处理
+     */
+    public void applicationSubmitted(ApprovalInstance instance) {
+        if (instance.getApplicantId() == null) {
+            return;
+        }
+        enqueue(applicantEntry(instance, STATUS_PENDING, "正在审批中"), false);
+    }
+
+    /**
+     * 实例通过或拒绝：申请人的条目进入已完成
+     */
+    public void applicationCompleted(ApprovalInstance instance) {
+        if (instance.getApplicantId() == null) {
+            return;
+        }
+        boolean approved = ApprovalStatusEnum.APPROVED.getCode().equals(instance.getStatus());
+        enqueue(applicantEntry(instance, STATUS_COMPLETED, approved ? "已批准" : "已拒绝"), false);
+    }
+
+    /**
+     * 任务进入进行中：审批人的条目进入待处理
+     */
+    public void taskActivated(ApprovalTask task) {
+        enqueue(approverEntry(task.getApproverId(), task.getInstance(), STATUS_PENDING, "需要您审批"), false);
+    }
+
+    /**
+     * 任务被批准或拒绝：审批人的条目进入已完成
+     */
+    public void taskDecided(ApprovalTask task) {
+        enqueue(approverEntry(task.getApproverId(), task.getInstance(), STATUS_COMPLETED,
+                task.isApproved() ? "您已批准" : "您已拒绝"), false);
+    }
+
+    /**
+     * 进行中的任务被跳过或转走：移除该审批人仍处于待处理的条目
+     */
+    public void taskWithdrawn(Long approverId, ApprovalInstance instance) {
+        enqueue(approverEntry(approverId, instance, STATUS_PENDING, null), true);
+    }
+
+    /**
+     * 归档任务的已完成条目（归档数据不进入读模型，查询时按同样的格式组装）
+     */
+    public static ProcessItemEntry archivedApproverEntry(Long approverId, String businessType, Long businessId,
+                                                         LocalDateTime createTime, String taskStatus) {
+        boolean approved = ApprovalStatusEnum.APPROVED.getCode().equals(taskStatus);
+        return approverEntry(approverId, businessType, businessId, createTime, STATUS_COMPLETED,
+                approved ? "您已批准" : "您已拒绝");
+    }
+
+    /**
+     * 首次上线时回填（多个节点同时执行时由唯一键去重）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (!itemRepository.isEmpty()) {
+                return;
+            }
+            int rows = itemRepository.backfill();
+            log.info("流程列表读模型回填完成，写入条目数: {}", rows);
+        } catch (Exception exception) {
+            log.error("流程列表读模型回填失败", exception);
+        }
+    }
+
+    private static ProcessItemEntry applicantEntry(ApprovalInstance instance, String status, String result) {
+        boolean leave = isLeave(instance.getBusinessType());
+        ProcessItemEntry entry = newEntry(instance.getApplicantId(), instance.getBusinessType(), instance.getBusinessId(),
+                instance.getCreateTime(), status);
+        entry.setName(leave ? "请假申请" : "奖助申请");
+        entry.setDescription((leave ? "您的请假申请" : "您的奖助申请") + result);
+        return entry;
+    }
+
+    private static ProcessItemEntry approverEntry(Long approverId, ApprovalInstance instance, String status, String result) {
+        return approverEntry(approverId, instance.getBusinessType(), instance.getBusinessId(), instance.getCreateTime(),
+                status, result);
+    }
+
+    private static ProcessItemEntry approverEntry(Long approverId, String businessType, Long businessId,
+                                                  LocalDateTime createTime, String status, String result) {
+        boolean leave = isLeave(businessType);
+        ProcessItemEntry entry = newEntry(approverId, businessType, businessId, createTime, status);
+        entry.setName(leave ? "请假审批" : "奖助审批");
+        entry.setDescription((leave ? "学生的请假申请" : "学生的奖助申请") + result);
+        return entry;
+    }
+
+    private static ProcessItemEntry newEntry(Long userId, String businessType, Long businessId,
+                                             LocalDateTime createTime, String status) {
+        ProcessItemEntry entry = new ProcessItemEntry();
+        entry.setUserId(userId);
+        entry.setBusinessType(businessType);
+        entry.setBusinessId(businessId);
+        entry.setType(businessType.toLowerCase());
+        entry.setStatus(status);
+        entry.setCreateTime(createTime);
+        return entry;
+    }
+
+    private static boolean isLeave(String businessType) {
+        return NotificationBusinessTypeEnum.LEAVE.getCode().equals(businessType);
+    }
+
+    private void enqueue(ProcessItemEntry entry, boolean deletePending) {
+        Change change = new Change(entry, deletePending);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(List.of(change));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<ChangeKey, Change> buffered = (Map<ChangeKey, Change>) TransactionSynchronizationManager.getResource(this);
+        if (buffered == null) {
+            Map<ChangeKey, Change> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(ProcessItemProjector.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(ProcessItemProjector.this, changes);
+                }
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(changes.values());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProcessItemProjector.this);
+                }
+            });
+            buffered = changes;
+        }
+        // 同一事务内对同一条目的多次变更只保留最后一次
+        ChangeKey key = new ChangeKey(entry.getUserId(), entry.getBusinessType(), entry.getBusinessId());
+        buffered.remove(key);
+        buffered.put(key, change);
+    }
+
+    private void write(Iterable<Change> changes) {
+        List<ProcessItemEntry> upserts = new ArrayList<>();
+        List<ProcessItemEntry> deletes = new ArrayList<>();
+        for (Change change : changes) {
+            (change.deletePending() ? deletes : upserts).add(change.entry());
+        }
+        itemRepository.batchUpsert(upserts);
+        itemRepository.batchDeletePending(deletes);
+    }
+
+    private record ChangeKey(Long userId, String businessType, Long businessId) {
+    }
+
+    private record Change(ProcessItemEntry entry, boolean deletePending) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.learnworkagent.domain.process.repository;
+
+import com.example.learnworkagent.domain.process.entity.ProcessItemEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 流程列表条目仓库（只读查询）
+ */
+@Repository
+public interface ProcessItemEntryRepository extends JpaRepository<ProcessItemEntry, Long> {
+
+    /**
+     * 查询用户某个标签页的条目（按创建时间倒序，走 (user_id, status, create_time) 索引）
+     */
+    List<ProcessItemEntry> findByUserIdAndStatusOrderByCreateTimeDesc(Long userId, String status, Pageable pageable);
+
+    /**
+     * 一条语句同时查询用户待处理和已完成两个标签页的条目，各自按创建时间倒序取前 limit 条
+     */
+    @Query(value = "(SELECT * FROM process_item WHERE user_id = :userId AND status = :pendingStatus "
+            + "ORDER BY create_time DESC LIMIT :limit) UNION ALL "
+            + "(SELECT * FROM process_item WHERE user_id = :userId AND status = :completedStatus "
+            + "ORDER BY create_time DESC LIMIT :limit)", nativeQuery = true)
+    List<ProcessItemEntry> findBothTabs(@Param("userId") Long userId,
+                                        @Param("pendingStatus") String pendingStatus,
+                                        @Param("completedStatus") String completedStatus,
+                                        @Param("limit") int limit);
+}
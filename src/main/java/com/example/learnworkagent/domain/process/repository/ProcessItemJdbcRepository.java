@@ -0,0 +1,107 @@
+package com.example.learnworkagent.domain.process.repository;
+
+import com.example.learnworkagent.domain.process.entity.ProcessItemEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 流程列表条目 JDBC 写入仓库
+ * 条目按 (用户, 业务类型, 业务ID) 唯一，写入统一为 upsert，批量场景合并为一次 JDBC batch
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProcessItemJdbcRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO process_item "
+            + "(user_id, business_type, business_id, name, type, status, description, create_time, update_time, deleted) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0) "
+            + "ON DUPLICATE KEY UPDATE name = VALUES(name), type = VALUES(type), status = VALUES(status), "
+            + "description = VALUES(description), update_time = VALUES(update_time)";
+    private static final String DELETE_PENDING_SQL = "DELETE FROM process_item "
+            + "WHERE user_id = ? AND business_type = ? AND business_id = ? AND status = 'pending'";
+    private static final String EXISTS_SQL = "SELECT EXISTS (SELECT 1 FROM process_item)";
+
+    /**
+     * 学生条目：取自申请表（申请表不归档，包含全部历史申请）
+     */
+    private static final String BACKFILL_APPLICANT_SQL = "INSERT IGNORE INTO process_item "
+            + "(user_id, business_type, business_id, name, type, status, description, create_time, update_time, deleted) "
+            + "SELECT a.applicant_id, '%1$s', a.id, '%2$s申请', '%3$s', "
+            + "CASE a.approval_status WHEN 'PENDING' THEN 'pending' ELSE 'completed' END, "
+            + "CONCAT('您的%2$s申请', CASE a.approval_status WHEN 'PENDING' THEN '正在审批中' "
+            + "WHEN 'APPROVED' THEN '已批准' ELSE '已拒绝' END), a.create_time, NOW(), 0 "
+            + "FROM %4$s a WHERE a.deleted = 0 AND a.approval_status IN ('PENDING', 'APPROVED', 'REJECTED')";
+
+    /**
+     * 学工人员条目：取自热表中的进行中和已处理任务，同一实例有多个任务时进行中的任务优先
+     */
+    private static final String BACKFILL_APPROVER_SQL = "INSERT IGNORE INTO process_item "
+            + "(user_id, business_type, business_id, name, type, status, description, create_time, update_time, deleted) "
+            + "SELECT t.approver_id, i.business_type, i.business_id, "
+            + "CASE i.business_type WHEN 'LEAVE' THEN '请假审批' ELSE '奖助审批' END, LOWER(i.business_type), "
+            + "CASE t.status WHEN 'PROCESSING' THEN 'pending' ELSE 'completed' END, "
+            + "CONCAT('学生的', CASE i.business_type WHEN 'LEAVE' THEN '请假' ELSE '奖助' END, '申请', "
+            + "CASE t.status WHEN 'PROCESSING' THEN '需要您审批' WHEN 'APPROVED' THEN '您已批准' ELSE '您已拒绝' END), "
+            + "i.create_time, NOW(), 0 "
+            + "FROM approval_task t JOIN approval_instance i ON i.id = t.instance_id "
+            + "WHERE t.status IN ('PROCESSING', 'APPROVED', 'REJECTED') "
+            + "ORDER BY t.status = 'PROCESSING' DESC, t.id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 批量写入条目（已存在时更新名称、状态和描述，保留创建时间）
+     */
+    public void batchUpsert(List<ProcessItemEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getUserId());
+            ps.setString(2, entry.getBusinessType());
+            ps.setLong(3, entry.getBusinessId());
+            ps.setString(4, entry.getName());
+            ps.setString(5, entry.getType());
+            ps.setString(6, entry.getStatus());
+            ps.setString(7, entry.getDescription());
+            ps.setTimestamp(8, entry.getCreateTime() != null ? Timestamp.valueOf(entry.getCreateTime()) : now);
+            ps.setTimestamp(9, now);
+        });
+    }
+
+    /**
+     * 批量删除仍处于待处理状态的条目（任务被跳过或转交后，审批人的待办条目不再保留）
+     */
+    public void batchDeletePending(List<ProcessItemEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_PENDING_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getUserId());
+            ps.setString(2, entry.getBusinessType());
+            ps.setLong(3, entry.getBusinessId());
+        });
+    }
+
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_SQL, Boolean.class));
+    }
+
+    /**
+     * 由申请表和审批任务表重建全部条目，已存在的条目保持不变
+     *
+     * @return 写入行数
+     */
+    public int backfill() {
+        int rows = jdbcTemplate.update(String.format(BACKFILL_APPLICANT_SQL, "LEAVE", "请假", "leave", "leave_application"));
+        rows += jdbcTemplate.update(String.format(BACKFILL_APPLICANT_SQL, "AWARD", "奖助", "award", "award_application"));
+        rows += jdbcTemplate.update(BACKFILL_APPROVER_SQL);
+        return rows;
+    }
+}
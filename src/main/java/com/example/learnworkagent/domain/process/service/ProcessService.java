@@ -2,17 +2,19 @@ package com.example.learnworkagent.domain.process.service;
 
 import com.example.learnworkagent.common.ResultCode;
 import com.example.learnworkagent.common.enums.ApprovalStatusEnum;
-import com.example.learnworkagent.common.enums.NotificationBusinessTypeEnum;
 import com.example.learnworkagent.common.enums.RoleEnum;
 import com.example.learnworkagent.common.exception.BusinessException;
-import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
-import com.example.learnworkagent.domain.approval.repository.ApprovalTaskRepository;
+import com.example.learnworkagent.domain.approval.dto.ArchivedApprovalTask;
+import com.example.learnworkagent.domain.approval.repository.ApprovalArchiveJdbcRepository;
 import com.example.learnworkagent.domain.award.entity.AwardApplication;
 import com.example.learnworkagent.domain.award.repository.AwardApplicationRepository;
 import com.example.learnworkagent.domain.leave.entity.LeaveApplication;
 import com.example.learnworkagent.domain.leave.repository.LeaveApplicationRepository;
 import com.example.learnworkagent.domain.process.dto.ProcessItem;
 import com.example.learnworkagent.domain.process.dto.ProcessListResponse;
+import com.example.learnworkagent.domain.process.entity.ProcessItemEntry;
+import com.example.learnworkagent.domain.process.projection.ProcessItemProjector;
+import com.example.learnworkagent.domain.process.repository.ProcessItemEntryRepository;
 import com.example.learnworkagent.domain.user.entity.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
@@ -21,6 +23,8 @@ import org.springframework.stereotype.Service;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,32 +32,36 @@ public class ProcessService {
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final int PROCESS_PAGE_SIZE = 100;
-    private static final String PROCESS_STATUS_PENDING = "pending";
-    private static final String PROCESS_STATUS_COMPLETED = "completed";
+    private static final int ARCHIVE_PAGE_SIZE = 200;
+    private static final String PROCESS_STATUS_PENDING = ProcessItemProjector.STATUS_PENDING;
+    private static final String PROCESS_STATUS_COMPLETED = ProcessItemProjector.STATUS_COMPLETED;
     private static final String PROCESS_TYPE_LEAVE = "leave";
     private static final String PROCESS_TYPE_AWARD = "award";
-    private static final String LEAVE_APPLICATION_NAME = "请假申请";
-    private static final String AWARD_APPLICATION_NAME = "奖助申请";
     private static final String LEAVE_APPROVAL_NAME = "请假审批";
-    private static final String AWARD_APPROVAL_NAME = "奖助审批";
 
     private final LeaveApplicationRepository leaveApplicationRepository;
     private final AwardApplicationRepository awardApplicationRepository;
-    private final ApprovalTaskRepository approvalTaskRepository;
+    private final ProcessItemEntryRepository processItemRepository;
+    private final ApprovalArchiveJdbcRepository archiveRepository;
 
+    /**
+     * 获取流程列表：一条语句从读模型取出待处理和已完成两个标签页
+     *
+     * @param user 用户信息
+     * @return 未完成流程和已完成流程
+     */
     public ProcessListResponse getProcessList(User user) {
-        ProcessListResponse response = new ProcessListResponse();
+        if (!RoleEnum.STUDENT.getCode().equals(user.getRole()) && !isStaffRole(user)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "出现未知的审批角色: " + user.getRole());
+        }
         List<ProcessItem> pending = new ArrayList<>();
         List<ProcessItem> completed = new ArrayList<>();
-
-        if (RoleEnum.STUDENT.getCode().equals(user.getRole())) {
-            fillStudentPendingProcesses(user, pending);
-        } else if (isStaffRole(user)) {
-            fillStaffPendingTasks(user, pending);
-        } else {
-            throw new BusinessException(ResultCode.PARAM_ERROR, "出现未知的审批角色: " + user.getRole());
+        for (ProcessItemEntry entry : processItemRepository.findBothTabs(user.getId(),
+                PROCESS_STATUS_PENDING, PROCESS_STATUS_COMPLETED, PROCESS_PAGE_SIZE)) {
+            (PROCESS_STATUS_PENDING.equals(entry.getStatus()) ? pending : completed).add(toProcessItem(entry));
         }
 
+        ProcessListResponse response = new ProcessListResponse();
         response.setPending(pending);
         response.setCompleted(completed);
         return response;
@@ -76,66 +84,23 @@ public class ProcessService {
         throw new BusinessException(ResultCode.PARAM_ERROR, "未知的流程类型: " + type);
     }
 
-    public List<ProcessItem> getCompletedProcesses(User user) {
-        List<ProcessItem> completed = new ArrayList<>();
-
-        if (RoleEnum.STUDENT.getCode().equals(user.getRole())) {
-            fillStudentCompletedProcesses(user, completed);
-        } else if (isStaffRole(user)) {
-            fillStaffCompletedTasks(user, completed);
-        }
-
-        return completed;
-    }
-
-    private void fillStudentPendingProcesses(User user, List<ProcessItem> pending) {
-        var pendingLeaveApps = leaveApplicationRepository
-                .findByApplicantIdAndApprovalStatusAndDeletedFalseOrderByCreateTimeDesc(
-                        user.getId(), ApprovalStatusEnum.PENDING.getCode(), PageRequest.of(0, PROCESS_PAGE_SIZE)
-                );
-        for (LeaveApplication application : pendingLeaveApps.getContent()) {
-            pending.add(buildStudentApplicationItem(
-                    application.getId(),
-                    LEAVE_APPLICATION_NAME,
-                    PROCESS_TYPE_LEAVE,
-                    application.getCreateTime().format(DATE_TIME_FORMATTER),
-                    PROCESS_STATUS_PENDING,
-                    "您的请假申请正在审批中"
-            ));
-        }
-
-        var pendingAwardApps = awardApplicationRepository
-                .findByApplicantIdAndApprovalStatusAndDeletedFalseOrderByCreateTimeDesc(
-                        user.getId(), ApprovalStatusEnum.PENDING.getCode(), PageRequest.of(0, PROCESS_PAGE_SIZE)
-                );
-        for (AwardApplication application : pendingAwardApps.getContent()) {
-            pending.add(buildStudentApplicationItem(
-                    application.getId(),
-                    AWARD_APPLICATION_NAME,
-                    PROCESS_TYPE_AWARD,
-                    application.getCreateTime().format(DATE_TIME_FORMATTER),
-                    PROCESS_STATUS_PENDING,
-                    "您的奖助申请正在审批中"
-            ));
+    /**
+     * 获取已完成流程
+     *
+     * @param user 用户信息
+     * @param includeArchived 是否同时查询已归档的历史审批（仅学工人员，显式请求时才访问归档表）
+     * @return 已完成流程
+     */
+    public List<ProcessItem> getCompletedProcesses(User user, boolean includeArchived) {
+        if (!RoleEnum.STUDENT.getCode().equals(user.getRole()) && !isStaffRole(user)) {
+            return new ArrayList<>();
         }
-    }
-
-    private void fillStaffPendingTasks(User user, List<ProcessItem> pending) {
-        List<ApprovalTask> pendingTasks = approvalTaskRepository.findByApproverIdAndStatus(
-                user.getId(), ApprovalStatusEnum.PROCESSING.getCode()
-        );
-
-        for (ApprovalTask task : pendingTasks) {
-            boolean leaveBusiness = NotificationBusinessTypeEnum.LEAVE.getCode().equals(task.getInstance().getBusinessType());
-            pending.add(buildStudentApplicationItem(
-                    task.getInstance().getBusinessId(),
-                    leaveBusiness ? LEAVE_APPROVAL_NAME : AWARD_APPROVAL_NAME,
-                    task.getInstance().getBusinessType().toLowerCase(),
-                    task.getInstance().getCreateTime().format(DATE_TIME_FORMATTER),
-                    PROCESS_STATUS_PENDING,
-                    leaveBusiness ? "学生的请假申请需要您审批" : "学生的奖助申请需要您审批"
-            ));
+        List<ProcessItemEntry> entries = new ArrayList<>(processItemRepository.findByUserIdAndStatusOrderByCreateTimeDesc(
+                user.getId(), PROCESS_STATUS_COMPLETED, PageRequest.of(0, PROCESS_PAGE_SIZE)));
+        if (includeArchived && isStaffRole(user)) {
+            appendArchivedEntries(user, entries);
         }
+        return entries.stream().map(this::toProcessItem).collect(Collectors.toCollection(ArrayList::new));
     }
 
     private ProcessItem buildLeaveProcessDetail(String id) {
@@ -172,62 +137,30 @@ public class ProcessService {
         );
     }
 
-    private void fillStudentCompletedProcesses(User user, List<ProcessItem> completed) {
-        appendStudentCompletedLeaveProcesses(user, completed, ApprovalStatusEnum.APPROVED.getCode(), "您的请假申请已批准");
-        appendStudentCompletedLeaveProcesses(user, completed, ApprovalStatusEnum.REJECTED.getCode(), "您的请假申请已拒绝");
-        appendStudentCompletedAwardProcesses(user, completed, ApprovalStatusEnum.APPROVED.getCode(), "您的奖助申请已批准");
-        appendStudentCompletedAwardProcesses(user, completed, ApprovalStatusEnum.REJECTED.getCode(), "您的奖助申请已拒绝");
-    }
-
-    private void appendStudentCompletedLeaveProcesses(User user, List<ProcessItem> completed, String status, String description) {
-        var applications = leaveApplicationRepository.findByApplicantIdAndApprovalStatusAndDeletedFalseOrderByCreateTimeDesc(
-                user.getId(), status, PageRequest.of(0, PROCESS_PAGE_SIZE)
-        );
-        for (LeaveApplication application : applications.getContent()) {
-            completed.add(buildStudentApplicationItem(
-                    application.getId(),
-                    LEAVE_APPLICATION_NAME,
-                    PROCESS_TYPE_LEAVE,
-                    application.getCreateTime().format(DATE_TIME_FORMATTER),
-                    PROCESS_STATUS_COMPLETED,
-                    description
-            ));
-        }
-    }
-
-    private void appendStudentCompletedAwardProcesses(User user, List<ProcessItem> completed, String status, String description) {
-        var applications = awardApplicationRepository.findByApplicantIdAndApprovalStatusAndDeletedFalseOrderByCreateTimeDesc(
-                user.getId(), status, PageRequest.of(0, PROCESS_PAGE_SIZE)
-        );
-        for (AwardApplication application : applications.getContent()) {
-            completed.add(buildStudentApplicationItem(
-                    application.getId(),
-                    AWARD_APPLICATION_NAME,
-                    PROCESS_TYPE_AWARD,
-                    application.getCreateTime().format(DATE_TIME_FORMATTER),
-                    PROCESS_STATUS_COMPLETED,
-                    description
-            ));
+    /**
+     * 归档任务不在读模型中，按读模型条目的格式组装；读模型中已有的业务不重复追加
+     */
+    private void appendArchivedEntries(User user, List<ProcessItemEntry> entries) {
+        Set<String> present = entries.stream()
+                .map(entry -> entry.getBusinessType() + ":" + entry.getBusinessId())
+                .collect(Collectors.toSet());
+        for (ArchivedApprovalTask task : archiveRepository.findArchivedCompletedTasks(user.getId(), ARCHIVE_PAGE_SIZE)) {
+            if (present.add(task.businessType() + ":" + task.businessId())) {
+                entries.add(ProcessItemProjector.archivedApproverEntry(user.getId(), task.businessType(),
+                        task.businessId(), task.instanceCreateTime(), task.status()));
+            }
         }
     }
 
-    private void fillStaffCompletedTasks(User user, List<ProcessItem> completed) {
-        List<ApprovalTask> completedTasks = approvalTaskRepository.findByApproverIdAndStatusIn(
-                user.getId(),
-                List.of(ApprovalStatusEnum.APPROVED.getCode(), ApprovalStatusEnum.REJECTED.getCode())
-        );
-        for (ApprovalTask task : completedTasks) {
-            boolean leaveBusiness = NotificationBusinessTypeEnum.LEAVE.getCode().equals(task.getInstance().getBusinessType());
-            String statusText = ApprovalStatusEnum.APPROVED.getCode().equals(task.getStatus()) ? "已批准" : "已拒绝";
-            completed.add(buildStudentApplicationItem(
-                    task.getInstance().getBusinessId(),
-                    leaveBusiness ? LEAVE_APPROVAL_NAME : AWARD_APPROVAL_NAME,
-                    task.getInstance().getBusinessType().toLowerCase(),
-                    task.getInstance().getCreateTime().format(DATE_TIME_FORMATTER),
-                    PROCESS_STATUS_COMPLETED,
-                    leaveBusiness ? "学生的请假申请您已" + statusText : "学生的奖助申请您已" + statusText
-            ));
-        }
+    private ProcessItem toProcessItem(ProcessItemEntry entry) {
+        ProcessItem item = new ProcessItem();
+        item.setId(String.valueOf(entry.getBusinessId()));
+        item.setName(entry.getName());
+        item.setType(entry.getType());
+        item.setCreateTime(entry.getCreateTime().format(DATE_TIME_FORMATTER));
+        item.setStatus(entry.getStatus());
+        item.setDescription(entry.getDescription());
+        return item;
     }
 
     private ProcessItem buildStudentApplicationItem(Long id, String name, String type, String createTime,
@@ -0,0 +1,9 @@
+package com.example.learnworkagent.domain.user.event;
+
+/**
+ * 用户信息变更事件（新增、角色/部门/年级变更等）
+ *
+ * @param userId 用户ID
+ */
+public record UserChangedEvent(Long userId) {
+}
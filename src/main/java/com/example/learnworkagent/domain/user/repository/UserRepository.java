@@ -4,6 +4,7 @@ import com.example.learnworkagent.domain.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,4 +30,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
 
     List<User> findByDepartmentIdAndGradeAndRole(Long departmentId, String grade, String role);
+
+    /**
+     * 根据角色列表查询
+     */
+    List<User> findByRoleIn(Collection<String> roles);
 }
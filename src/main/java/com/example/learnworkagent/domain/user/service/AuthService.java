@@ -10,9 +10,11 @@ import com.example.learnworkagent.common.util.JwtUtil;
 import com.example.learnworkagent.common.util.RsaUtil;
 import com.example.learnworkagent.domain.user.entity.Department;
 import com.example.learnworkagent.domain.user.entity.User;
+import com.example.learnworkagent.domain.user.event.UserChangedEvent;
 import com.example.learnworkagent.domain.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +32,7 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final RsaUtil rsaUtil;
     private final DepartmentService departmentService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     /**
@@ -115,7 +118,9 @@ public class AuthService {
         user.setGrade(grade);
         user.setClassName(className);
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId()));
+        return savedUser;
     }
 
     public boolean checkStudentNoExists(String studentNo) {
@@ -0,0 +1,231 @@
+package com.example.learnworkagent.domain.user.service;
+
+import com.example.learnworkagent.common.enums.RoleEnum;
+import com.example.learnworkagent.common.enums.UserStatusEnum;
+import com.example.learnworkagent.domain.user.entity.User;
+import com.example.learnworkagent.domain.user.event.UserChangedEvent;
+import com.example.learnworkagent.domain.user.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 组织目录索引。
+ * 在内存中维护 (部门, 年级, 角色) -> 审批人ID数组 和 (部门, 角色) -> 审批人ID数组 两个索引，
+ * 审批人解析只做一次哈希查找。键由部门ID、年级编号和角色序号打包为 long。
+ * 启动时全量加载学工角色用户，用户变更后增量刷新并通过 Redis 频道通知其他节点。
+ * 全量加载、未命中加载和增量刷新都只索引未删除且已激活的用户。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrgDirectory implements MessageListener {
+
+    /**
+     * 用户变更广播频道
+     */
+    public static final String USER_CHANGED_CHANNEL = "org:directory:user-changed";
+
+    private static final long[] EMPTY = new long[0];
+    private static final int NO_GRADE = 0;
+    private static final List<String> STAFF_ROLES = Arrays.stream(RoleEnum.getStaffRoles())
+            .map(RoleEnum::getCode)
+            .toList();
+
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, long[]> approverIndex = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> userKeys = new ConcurrentHashMap<>();
+    private final Map<String, Integer> gradeCodes = new ConcurrentHashMap<>();
+    private final AtomicInteger gradeSequence = new AtomicInteger(NO_GRADE);
+
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("org.directory.lookup").tag("result", "hit").register(meterRegistry);
+        missCounter = Counter.builder("org.directory.lookup").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("org.directory.keys", approverIndex, Map::size).register(meterRegistry);
+        Gauge.builder("org.directory.users", userKeys, Map::size).register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(USER_CHANGED_CHANNEL));
+    }
+
+    /**
+     * 启动完成后全量加载学工角色用户
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        List<User> staff = userRepository.findByRoleIn(STAFF_ROLES);
+        synchronized (this) {
+            approverIndex.clear();
+            userKeys.clear();
+            staff.forEach(this::index);
+        }
+        log.info("组织目录索引加载完成，用户数: {}, 索引键数: {}", userKeys.size(), approverIndex.size());
+    }
+
+    /**
+     * 按 (部门, 年级, 角色) 查找审批人
+     */
+    public long[] findApprovers(Long departmentId, String grade, String role) {
+        long key = packKey(departmentId, gradeCode(grade), role);
+        long[] cached = approverIndex.get(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+        return loadOnMiss(key, userRepository.findByDepartmentIdAndGradeAndRole(departmentId, grade, role));
+    }
+
+    /**
+     * 按 (部门, 角色) 查找审批人
+     */
+    public long[] findApprovers(Long departmentId, String role) {
+        long key = packKey(departmentId, NO_GRADE, role);
+        long[] cached = approverIndex.get(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+        return loadOnMiss(key, userRepository.findByDepartmentIdAndRole(departmentId, role));
+    }
+
+    /**
+     * 用户变更提交后刷新本节点索引并通知其他节点
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        refreshUser(event.userId());
+        try {
+            redisTemplate.convertAndSend(USER_CHANGED_CHANNEL, event.userId().toString());
+        } catch (Exception exception) {
+            log.error("广播用户变更消息失败，userId: {}", event.userId(), exception);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (payload == null) {
+            return;
+        }
+        refreshUser(Long.valueOf(payload.toString()));
+    }
+
+    /**
+     * 增量刷新单个用户在索引中的位置
+     */
+    public void refreshUser(Long userId) {
+        User user = userRepository.findById(userId).orElse(null);
+        synchronized (this) {
+            unindex(userId);
+            if (user != null) {
+                index(user);
+            }
+        }
+    }
+
+    private long[] loadOnMiss(long key, List<User> users) {
+        synchronized (this) {
+            users.forEach(user -> {
+                unindex(user.getId());
+                index(user);
+            });
+            approverIndex.putIfAbsent(key, EMPTY);
+            return approverIndex.get(key);
+        }
+    }
+
+    private void index(User user) {
+        if (!isActiveApprover(user)) {
+            return;
+        }
+        long deptRoleKey = packKey(user.getDepartmentId(), NO_GRADE, user.getRole());
+        addMember(deptRoleKey, user.getId());
+        if (user.getGrade() == null || user.getGrade().isEmpty()) {
+            userKeys.put(user.getId(), new long[]{deptRoleKey});
+            return;
+        }
+        long deptGradeRoleKey = packKey(user.getDepartmentId(), gradeCode(user.getGrade()), user.getRole());
+        addMember(deptGradeRoleKey, user.getId());
+        userKeys.put(user.getId(), new long[]{deptRoleKey, deptGradeRoleKey});
+    }
+
+    private static boolean isActiveApprover(User user) {
+        return !Boolean.TRUE.equals(user.getDeleted())
+                && user.getStatus() == UserStatusEnum.ACTIVE
+                && user.getDepartmentId() != null
+                && STAFF_ROLES.contains(user.getRole());
+    }
+
+    private void unindex(Long userId) {
+        long[] keys = userKeys.remove(userId);
+        if (keys == null) {
+            return;
+        }
+        for (long key : keys) {
+            approverIndex.computeIfPresent(key, (k, ids) -> removeMember(ids, userId));
+        }
+    }
+
+    private void addMember(long key, long userId) {
+        approverIndex.merge(key, new long[]{userId}, (ids, added) -> {
+            if (Arrays.binarySearch(ids, userId) >= 0) {
+                return ids;
+            }
+            long[] merged = Arrays.copyOf(ids, ids.length + 1);
+            merged[ids.length] = userId;
+            Arrays.sort(merged);
+            return merged;
+        });
+    }
+
+    private long[] removeMember(long[] ids, long userId) {
+        int index = Arrays.binarySearch(ids, userId);
+        if (index < 0) {
+            return ids;
+        }
+        long[] remaining = new long[ids.length - 1];
+        System.arraycopy(ids, 0, remaining, 0, index);
+        System.arraycopy(ids, index + 1, remaining, index, ids.length - index - 1);
+        return remaining;
+    }
+
+    private int gradeCode(String grade) {
+        if (grade == null || grade.isEmpty()) {
+            return NO_GRADE;
+        }
+        return gradeCodes.computeIfAbsent(grade, key -> gradeSequence.incrementAndGet());
+    }
+
+    /**
+     * 打包索引键：高位部门ID，中间20位年级编号，低4位角色序号
+     */
+    private long packKey(Long departmentId, int gradeCode, String role) {
+        return (departmentId << 24) | ((long) gradeCode << 4) | RoleEnum.valueOf(role).ordinal();
+    }
+}
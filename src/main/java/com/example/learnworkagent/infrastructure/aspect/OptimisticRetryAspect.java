@@ -0,0 +1,71 @@
+package com.example.learnworkagent.infrastructure.aspect;
+
+import com.example.learnworkagent.common.ResultCode;
+import com.example.learnworkagent.common.annotation.OptimisticRetry;
+import com.example.learnworkagent.common.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 乐观锁冲突重试切面。
+ * 顺序在事务切面之外，冲突在提交时抛出后可以开启新事务整体重放；已处于事务中的调用直接放行，由最外层入口负责重试。
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class OptimisticRetryAspect {
+
+    private final Counter conflictCounter;
+    private final Counter retryCounter;
+    private final Counter exhaustedCounter;
+
+    public OptimisticRetryAspect(MeterRegistry meterRegistry) {
+        this.conflictCounter = Counter.builder("approval.optimistic.conflicts").register(meterRegistry);
+        this.retryCounter = Counter.builder("approval.optimistic.retries").register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("approval.optimistic.exhausted").register(meterRegistry);
+    }
+
+    @Around("@annotation(optimisticRetry)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint, OptimisticRetry optimisticRetry) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        int maxAttempts = Math.max(1, optimisticRetry.maxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException exception) {
+                conflictCounter.increment();
+                if (attempt >= maxAttempts) {
+                    exhaustedCounter.increment();
+                    log.warn("乐观锁冲突重试次数耗尽，方法: {}, 次数: {}", joinPoint.getSignature().toShortString(), attempt);
+                    throw new BusinessException(ResultCode.CONCURRENT_MODIFICATION);
+                }
+                retryCounter.increment();
+                log.info("乐观锁冲突，准备重试，方法: {}, 第{}次", joinPoint.getSignature().toShortString(), attempt);
+                backoff(optimisticRetry.backoffMillis(), attempt);
+            }
+        }
+    }
+
+    private void backoff(long backoffMillis, int attempt) throws InterruptedException {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        long delay = backoffMillis * attempt + ThreadLocalRandom.current().nextLong(backoffMillis);
+        Thread.sleep(delay);
+    }
+}
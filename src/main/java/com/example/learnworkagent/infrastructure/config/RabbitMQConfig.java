@@ -20,6 +20,16 @@ public class RabbitMQConfig {
      */
     public static final String APPROVAL_NOTIFICATION_QUEUE = "approval.notification";
 
+    /**
+     * 审批批量通知队列
+     */
+    public static final String APPROVAL_NOTIFICATION_BATCH_QUEUE = "approval.notification.batch";
+
+    /**
+     * 审批通知撤回队列
+     */
+    public static final String APPROVAL_NOTIFICATION_RETRACT_QUEUE = "approval.notification.retract";
+
     /**
      * 消息转换器
      */
@@ -58,4 +68,20 @@ public class RabbitMQConfig {
     public Queue approvalNotificationQueue() {
         return new Queue(APPROVAL_NOTIFICATION_QUEUE, true);
     }
+
+    /**
+     * 审批批量通知队列
+     */
+    @Bean
+    public Queue approvalNotificationBatchQueue() {
+        return new Queue(APPROVAL_NOTIFICATION_BATCH_QUEUE, true);
+    }
+
+    /**
+     * 审批通知撤回队列
+     */
+    @Bean
+    public Queue approvalNotificationRetractQueue() {
+        return new Queue(APPROVAL_NOTIFICATION_RETRACT_QUEUE, true);
+    }
 }
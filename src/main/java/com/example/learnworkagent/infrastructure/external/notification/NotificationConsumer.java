@@ -1,14 +1,21 @@
 package com.example.learnworkagent.infrastructure.external.notification;
 
 import com.example.learnworkagent.common.enums.NotificationChannelEnum;
+import com.example.learnworkagent.domain.notification.entity.NotificationBatchMessage;
 import com.example.learnworkagent.domain.notification.entity.NotificationMessage;
+import com.example.learnworkagent.domain.notification.entity.NotificationRetractBatchMessage;
 import com.example.learnworkagent.domain.notification.service.NotificationSender;
+import com.example.learnworkagent.domain.notification.service.NotificationService;
 import com.example.learnworkagent.infrastructure.config.RabbitMQConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -25,8 +32,12 @@ public class NotificationConsumer {
 
     private static final String CHANNEL_ALL = NotificationChannelEnum.ALL.getCode();
     private static final List<String> DEFAULT_CHANNELS = List.of(NotificationChannelEnum.SITE.getCode());
+    private static final String CONSUMED_KEY_PREFIX = "notification:consumed:";
+    private static final Duration CONSUMED_KEY_TTL = Duration.ofDays(1);
 
     private final List<NotificationSender> notificationSenders;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final NotificationService notificationService;
 
     /**
      * 处理审批通知消息。
@@ -34,7 +45,89 @@ public class NotificationConsumer {
      * @param message 通知消息
      */
     @RabbitListener(queues = RabbitMQConfig.APPROVAL_NOTIFICATION_QUEUE)
-    public void handleApprovalNotification(NotificationMessage message) {
+    public void handleApprovalNotification(NotificationMessage message,
+                                           @Header(name = AmqpHeaders.MESSAGE_ID, required = false) String messageId) {
+        consumeOnce(messageId, () -> dispatch(message));
+    }
+
+    /**
+     * 处理批量审批通知消息。
+     *
+     * @param batch 批量通知消息
+     */
+    @RabbitListener(queues = RabbitMQConfig.APPROVAL_NOTIFICATION_BATCH_QUEUE)
+    public void handleApprovalNotificationBatch(NotificationBatchMessage batch,
+                                                @Header(name = AmqpHeaders.MESSAGE_ID, required = false) String messageId) {
+        if (batch.getMessages() == null) {
+            return;
+        }
+        consumeOnce(messageId, () -> {
+            log.info("接收到批量审批通知消息，通知数: {}", batch.getMessages().size());
+            batch.getMessages().forEach(this::dispatch);
+        });
+    }
+
+    /**
+     * 处理待办通知撤回消息。
+     *
+     * @param batch 撤回消息
+     */
+    @RabbitListener(queues = RabbitMQConfig.APPROVAL_NOTIFICATION_RETRACT_QUEUE)
+    public void handleApprovalNotificationRetract(NotificationRetractBatchMessage batch,
+                                                  @Header(name = AmqpHeaders.MESSAGE_ID, required = false) String messageId) {
+        if (batch.getRetractions() == null) {
+            return;
+        }
+        consumeOnce(messageId, () -> {
+            log.info("接收到待办通知撤回消息，撤回数: {}", batch.getRetractions().size());
+            notificationService.applyRetractions(batch.getRetractions());
+        });
+    }
+
+    /**
+     * 发件箱重投时同一 messageId 只处理一次。
+     * 处理前先占用消费标记，避免并发重投重复处理；处理抛出异常时删除标记再抛出，重投的消息可以重新处理
+     */
+    private void consumeOnce(String messageId, Runnable handler) {
+        if (isDuplicate(messageId)) {
+            return;
+        }
+        try {
+            handler.run();
+        } catch (RuntimeException exception) {
+            releaseConsumed(messageId);
+            throw exception;
+        }
+    }
+
+    private boolean isDuplicate(String messageId) {
+        if (messageId == null) {
+            return false;
+        }
+        try {
+            Boolean first = redisTemplate.opsForValue().setIfAbsent(CONSUMED_KEY_PREFIX + messageId, 1, CONSUMED_KEY_TTL);
+            if (Boolean.FALSE.equals(first)) {
+                log.info("重复的通知消息，已忽略，messageId: {}", messageId);
+                return true;
+            }
+        } catch (Exception exception) {
+            log.warn("通知消息去重检查失败，按首次处理，messageId: {}", messageId, exception);
+        }
+        return false;
+    }
+
+    private void releaseConsumed(String messageId) {
+        if (messageId == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(CONSUMED_KEY_PREFIX + messageId);
+        } catch (Exception exception) {
+            log.warn("清除通知消息消费标记失败，重投的消息将被忽略，messageId: {}", messageId, exception);
+        }
+    }
+
+    private void dispatch(NotificationMessage message) {
         List<String> channels = resolveChannels(message);
         Map<String, NotificationSender> senderMap = buildSenderMap();
 
@@ -1,6 +1,7 @@
 package com.example.learnworkagent.infrastructure.external.notification;
 
 import com.example.learnworkagent.domain.notification.entity.Notification;
+import com.example.learnworkagent.domain.notification.entity.NotificationRetraction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -49,6 +50,22 @@ public class WebSocketNotificationService {
         }
     }
 
+    /**
+     * 通知用户撤回某业务的待办通知，客户端据此从待办列表中移除
+     *
+     * @param userId     用户ID
+     * @param retraction 撤回项
+     */
+    public void sendRetractionToUser(Long userId, NotificationRetraction retraction) {
+        try {
+            String destination = "/queue/notifications/retract";
+            messagingTemplate.convertAndSendToUser(userId.toString(), destination, retraction);
+            log.info("待办撤回已推送给用户: {}, 业务: {}#{}", userId, retraction.getBusinessType(), retraction.getBusinessId());
+        } catch (Exception e) {
+            log.error("待办撤回推送失败，用户ID: {}", userId, e);
+        }
+    }
+
     /**
      * 未读数量消息
      */
@@ -5,6 +5,8 @@ import com.example.learnworkagent.common.ResultCode;
 import com.example.learnworkagent.common.exception.BusinessException;
 import com.example.learnworkagent.domain.approval.entity.ApprovalProcess;
 import com.example.learnworkagent.domain.approval.entity.ApprovalStep;
+import com.example.learnworkagent.domain.approval.registry.ApprovalProcessRegistry;
+import com.example.learnworkagent.domain.approval.registry.CompiledApprovalProcess;
 import com.example.learnworkagent.domain.approval.repository.ApprovalProcessRepository;
 import com.example.learnworkagent.domain.approval.repository.ApprovalStepRepository;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,7 +15,9 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * 审批流程配置控制器
@@ -26,6 +30,7 @@ public class ApprovalConfigController extends BaseController {
 
     private final ApprovalProcessRepository processRepository;
     private final ApprovalStepRepository stepRepository;
+    private final ApprovalProcessRegistry processRegistry;
 
     /**
      * 获取所有审批流程
@@ -43,7 +48,9 @@ public class ApprovalConfigController extends BaseController {
     @PostMapping("/processes")
     public Result<?> createProcess(@Valid @RequestBody ApprovalProcess process) {
         process.syncCompatibleFields();
-        return Result.success(processRepository.save(process));
+        ApprovalProcess saved = processRepository.save(process);
+        processRegistry.invalidate();
+        return Result.success(saved);
     }
 
     /**
@@ -55,7 +62,9 @@ public class ApprovalConfigController extends BaseController {
         requireProcess(id);
         process.setId(id);
         process.syncCompatibleFields();
-        return Result.success(processRepository.save(process));
+        ApprovalProcess saved = processRepository.save(process);
+        processRegistry.invalidate();
+        return Result.success(saved);
     }
 
     /**
@@ -68,6 +77,7 @@ public class ApprovalConfigController extends BaseController {
         List<ApprovalStep> steps = stepRepository.findByProcessOrderByStepOrderAsc(process);
         stepRepository.deleteAll(steps);
         processRepository.delete(process);
+        processRegistry.invalidate();
         return Result.success();
     }
 
@@ -88,7 +98,10 @@ public class ApprovalConfigController extends BaseController {
     @PostMapping("/steps")
     public Result<?> addStep(@Valid @RequestBody ApprovalStep step) {
         syncStepCompatibleFields(step);
-        return Result.success(stepRepository.save(step));
+        validateProcessSteps(step);
+        ApprovalStep saved = stepRepository.save(step);
+        processRegistry.invalidate();
+        return Result.success(saved);
     }
 
     /**
@@ -100,7 +113,10 @@ public class ApprovalConfigController extends BaseController {
         requireStep(id);
         step.setId(id);
         syncStepCompatibleFields(step);
-        return Result.success(stepRepository.save(step));
+        validateProcessSteps(step);
+        ApprovalStep saved = stepRepository.save(step);
+        processRegistry.invalidate();
+        return Result.success(saved);
     }
 
     /**
@@ -110,6 +126,7 @@ public class ApprovalConfigController extends BaseController {
     @DeleteMapping("/steps/{id}")
     public Result<?> deleteStep(@PathVariable Long id) {
         stepRepository.deleteById(id);
+        processRegistry.invalidate();
         return Result.success();
     }
 
@@ -121,7 +138,9 @@ public class ApprovalConfigController extends BaseController {
     public Result<?> enableProcess(@PathVariable Long id) {
         ApprovalProcess process = requireProcess(id);
         process.enable();
-        return Result.success(processRepository.save(process));
+        ApprovalProcess saved = processRepository.save(process);
+        processRegistry.invalidate();
+        return Result.success(saved);
     }
 
     /**
@@ -132,13 +151,41 @@ public class ApprovalConfigController extends BaseController {
     public Result<?> disableProcess(@PathVariable Long id) {
         ApprovalProcess process = requireProcess(id);
         process.disable();
-        return Result.success(processRepository.save(process));
+        ApprovalProcess saved = processRepository.save(process);
+        processRegistry.invalidate();
+        return Result.success(saved);
     }
 
     private void syncStepCompatibleFields(ApprovalStep step) {
         step.setName(step.getStepName());
         step.setApproverType(step.getApproverRole());
         step.setOrderIndex(step.getStepOrder());
+        if (step.getParallelGroup() != null) {
+            String parallelGroup = step.getParallelGroup().trim();
+            step.setParallelGroup(parallelGroup.isEmpty() ? null : parallelGroup);
+        }
+        if (step.getRoutingCondition() != null) {
+            String routingCondition = step.getRoutingCondition().trim();
+            step.setRoutingCondition(routingCondition.isEmpty() ? null : routingCondition);
+        }
+        if (step.getAssignmentMode() != null) {
+            String assignmentMode = step.getAssignmentMode().trim();
+            step.setAssignmentMode(assignmentMode.isEmpty() ? null : assignmentMode);
+        }
+    }
+
+    /**
+     * 用保存后的步骤集合校验流程定义（步骤顺序唯一、并行组相邻、路由条件可编译、分配方式有效）
+     */
+    private void validateProcessSteps(ApprovalStep step) {
+        if (step.getProcess() == null || step.getProcess().getId() == null) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "审批步骤必须指定所属流程");
+        }
+        ApprovalProcess process = requireProcess(step.getProcess().getId());
+        List<ApprovalStep> steps = new ArrayList<>(stepRepository.findByProcessOrderByStepOrderAsc(process));
+        steps.removeIf(existing -> Objects.equals(existing.getId(), step.getId()));
+        steps.add(step);
+        CompiledApprovalProcess.validate(steps);
     }
 
     private ApprovalProcess requireProcess(Long processId) {
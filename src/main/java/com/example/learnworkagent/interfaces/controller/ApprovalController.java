@@ -1,13 +1,21 @@
 package com.example.learnworkagent.interfaces.controller;
 
 import com.example.learnworkagent.common.Result;
+import com.example.learnworkagent.domain.approval.dto.ApprovalReassignRequest;
+import com.example.learnworkagent.domain.approval.dto.ApprovalReassignResult;
+import com.example.learnworkagent.domain.approval.dto.ApprovalStatsView;
+import com.example.learnworkagent.domain.approval.dto.BatchApprovalResult;
+import com.example.learnworkagent.domain.approval.dto.BatchApprovalTaskRequest;
+import com.example.learnworkagent.domain.approval.reassign.ApprovalTaskReassigner;
 import com.example.learnworkagent.domain.approval.service.ApprovalService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 /**
@@ -20,6 +28,7 @@ import java.util.Map;
 public class ApprovalController extends BaseController {
 
     private final ApprovalService approvalService;
+    private final ApprovalTaskReassigner taskReassigner;
 
     /**
      * 获取我的待审批任务
@@ -43,6 +52,27 @@ public class ApprovalController extends BaseController {
         return Result.success(approvalService.processApprovalTask(id, approverId, status, comment));
     }
 
+    /**
+     * 批量处理审批任务
+     */
+    @Operation(summary = "批量处理审批任务")
+    @PostMapping("/tasks/batch-process")
+    public Result<BatchApprovalResult> batchProcessTasks(@Valid @RequestBody BatchApprovalTaskRequest request) {
+        Long approverId = getCurrentUserId();
+        return Result.success(approvalService.batchProcessApprovalTasks(
+                request.getTaskIds(), approverId, request.getStatus(), request.getComment()));
+    }
+
+    /**
+     * 转交审批任务（管理员把某审批人名下的未处理任务全部转给接替人）
+     */
+    @Operation(summary = "转交审批任务")
+    @PostMapping("/tasks/reassign")
+    public Result<ApprovalReassignResult> reassignTasks(@Valid @RequestBody ApprovalReassignRequest request) {
+        return Result.success(taskReassigner.reassign(getCurrentUserId(),
+                request.getFromApproverId(), request.getToApproverId(), request.getReason()));
+    }
+
     /**
      * 获取审批详情
      *
@@ -55,4 +85,33 @@ public class ApprovalController extends BaseController {
     public Result<?> getApprovalInstance(@PathVariable String businessType, @PathVariable Long businessId) {
         return Result.success(approvalService.getApprovalInstance(businessType, businessId));
     }
+
+    /**
+     * 获取审批时间线（由审批任务记录生成，含已归档的实例）
+     */
+    @Operation(summary = "获取审批时间线")
+    @GetMapping("/instances/{businessType}/{businessId}/timeline")
+    public Result<?> getApprovalTimeline(@PathVariable String businessType, @PathVariable Long businessId) {
+        return Result.success(approvalService.getApprovalTimeline(businessType, businessId));
+    }
+
+    /**
+     * 由本节点的审批事件日志重建实例状态，complete 标明是否与数据库一致
+     */
+    @Operation(summary = "重放本节点审批事件日志")
+    @GetMapping("/instances/{businessType}/{businessId}/replay")
+    public Result<?> replayApprovalInstance(@PathVariable String businessType, @PathVariable Long businessId) {
+        return Result.success(approvalService.replayApprovalInstance(businessType, businessId));
+    }
+
+    /**
+     * 查询审批统计（吞吐与耗时分位）
+     */
+    @Operation(summary = "查询审批统计")
+    @GetMapping("/stats/{scope}/{scopeId}")
+    public Result<ApprovalStatsView> getApprovalStats(@PathVariable String scope, @PathVariable Long scopeId,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        return Result.success(approvalService.getApprovalStats(getCurrentUserId(), scope, scopeId, fromDate, toDate));
+    }
 }
@@ -12,14 +12,15 @@ import com.example.learnworkagent.domain.consultation.entity.HumanTransfer;
 import com.example.learnworkagent.domain.consultation.repository.HumanTransferRepository;
 import com.example.learnworkagent.domain.consultation.service.ConsultationService;
 import com.example.learnworkagent.domain.consultation.service.HumanTransferService;
+import com.example.learnworkagent.domain.consultation.stream.AnswerFrameCoalescer;
 import com.example.learnworkagent.infrastructure.external.oss.OssService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -27,7 +28,6 @@ import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -45,7 +45,7 @@ public class ConsultationController extends BaseController {
     private final HumanTransferService humanTransferService;
     private final HumanTransferRepository humanTransferRepository;
     private final OssService ossService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AnswerFrameCoalescer answerFrameCoalescer;
 
     @Operation(summary = "提交咋询问题")
     @PostMapping("/questions")
@@ -144,16 +144,11 @@ public class ConsultationController extends BaseController {
 
         log.info("准备订阅Flux，userId: {}", userId);
 
-        responseFlux.publishOn(Schedulers.boundedElastic()).subscribe(
-                chunk -> {
-                    log.info("接收到chunk，userId: {}, chunk: {}", userId, chunk);
+        answerFrameCoalescer.frames(responseFlux).publishOn(Schedulers.boundedElastic()).subscribe(
+                frame -> {
                     try {
-                        Map<String, String> data = new HashMap<>();
-                        data.put("answer", chunk);
-                        String jsonData = objectMapper.writeValueAsString(data);
-                        log.debug("发送SSE数据，userId: {}, chunk长度: {}", userId, chunk.length());
-                        emitter.send(SseEmitter.event().data(jsonData));
-                        log.info("成功发送SSE数据，userId: {}, chunk: {}", userId, chunk);
+                        log.debug("发送SSE数据，userId: {}, 帧长度: {}", userId, frame.length());
+                        emitter.send(SseEmitter.event().data(frame));
                     } catch (IOException e) {
                         log.error("发送SSE数据失败，userId: {}", userId, e);
                     }
@@ -176,6 +171,76 @@ public class ConsultationController extends BaseController {
         return emitter;
     }
 
+    /**
+     * 提交咨询问题（响应式 SSE）。
+     * 直接返回 Flux，由框架按客户端消费速度逐条写出，等待 AI 分片期间不占用线程；
+     * 客户端断开时取消订阅，经回答记录器的宽限期后取消对 Dify 的请求；
+     * 其他节点正在等待同一问题的回答时继续生成，结束后写入答案缓存。
+     */
+    @Operation(summary = "提交咨询问题（响应式流式响应）")
+    @PostMapping(value = "/questions/stream/reactive", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> submitQuestionReactiveStream(
+            @Valid @RequestBody ConsultationRequest request) {
+        final Long userId = getCurrentUserId();
+        if (userId == null) {
+            return Flux.just(errorEvent("用户未登录或认证失败"));
+        }
+        log.info("收到响应式流式请求，userId: {}, questionText: {}", userId, request.getQuestionText());
+
+        Flux<String> responseFlux = consultationService.submitQuestionStream(
+                userId,
+                request.getQuestionText(),
+                request.getQuestionType(),
+                request.getCategory(),
+                request.getVoiceUrl(),
+                request.getSessionId(),
+                request.getFiles());
+        return answerFrameCoalescer.frames(responseFlux)
+                .map(frame -> ServerSentEvent.builder(frame).build())
+                .doOnCancel(() -> log.info("响应式SSE客户端断开，userId: {}", userId))
+                .onErrorResume(error -> {
+                    log.error("响应式SSE流处理错误，userId: {}", userId, error);
+                    return Flux.just(errorEvent(error.getMessage() != null ? error.getMessage() : "AI服务调用失败"));
+                });
+    }
+
+    private ServerSentEvent<String> errorEvent(String message) {
+        return ServerSentEvent.builder(answerFrameCoalescer.errorFrame(message)).event("error").build();
+    }
+
+    @Operation(summary = "重新连接问题的流式回答")
+    @GetMapping(value = "/questions/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter resumeQuestionStream(@PathVariable Long id) {
+        final Long userId = getCurrentUserId();
+        Flux<String> responseFlux = consultationService.resumeQuestionStream(userId, id);
+
+        SseEmitter emitter = new SseEmitter(120000L);
+        emitter.onTimeout(() -> {
+            log.warn("SSE续接超时，userId: {}, 问题ID: {}", userId, id);
+            emitter.complete();
+        });
+
+        answerFrameCoalescer.frames(responseFlux).publishOn(Schedulers.boundedElastic()).subscribe(
+                frame -> {
+                    try {
+                        emitter.send(SseEmitter.event().data(frame));
+                    } catch (IOException e) {
+                        log.error("发送SSE数据失败，userId: {}", userId, e);
+                    }
+                },
+                error -> {
+                    try {
+                        emitter.send(SseEmitter.event().data("错误: " + error.getMessage()));
+                    } catch (IOException e) {
+                        log.error("发送错误消息失败", e);
+                    }
+                    emitter.completeWithError(error);
+                },
+                emitter::complete
+        );
+        return emitter;
+    }
+
     @Operation(summary = "上传咋询语音")
     @PostMapping(value = "/upload/voice", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public Result<String> uploadVoice(@RequestParam("file") MultipartFile file) {
@@ -292,12 +357,10 @@ public class ConsultationController extends BaseController {
                 fileInputs.isEmpty() ? null : fileInputs);
 
 
-        responseFlux.publishOn(Schedulers.boundedElastic()).subscribe(
-                chunk -> {
+        answerFrameCoalescer.frames(responseFlux).publishOn(Schedulers.boundedElastic()).subscribe(
+                frame -> {
                     try {
-                        Map<String, String> data = new HashMap<>();
-                        data.put("answer", chunk);
-                        emitter.send(SseEmitter.event().data(objectMapper.writeValueAsString(data)));
+                        emitter.send(SseEmitter.event().data(frame));
                     } catch (IOException e) {
                         log.error("发送SSE失败", e);
                     }
@@ -5,7 +5,11 @@ import com.example.learnworkagent.common.ResultCode;
 import com.example.learnworkagent.common.dto.PageRequest;
 import com.example.learnworkagent.common.dto.PageResult;
 import com.example.learnworkagent.common.exception.BusinessException;
+import com.example.learnworkagent.domain.approval.dto.BatchApprovalResult;
 import com.example.learnworkagent.domain.leave.dto.ApprovalRequest;
+import com.example.learnworkagent.domain.leave.dto.BatchApprovalRequest;
+import com.example.learnworkagent.domain.leave.dto.BulkLeaveApplicationRequest;
+import com.example.learnworkagent.domain.leave.dto.BulkLeaveSubmitResult;
 import com.example.learnworkagent.domain.leave.dto.LeaveApplicationRequest;
 import com.example.learnworkagent.domain.leave.entity.LeaveApplication;
 import com.example.learnworkagent.domain.leave.service.LeaveApplicationService;
@@ -54,6 +58,18 @@ public class LeaveController extends BaseController {
         return Result.success(application);
     }
 
+    /**
+     * 集体请假（公假）批量提交。
+     *
+     * @param request 批量提交参数
+     * @return 提交结果
+     */
+    @Operation(summary = "集体请假批量提交（学工人员）")
+    @PostMapping("/applications/bulk")
+    public Result<BulkLeaveSubmitResult> submitBulkApplications(@Valid @RequestBody BulkLeaveApplicationRequest request) {
+        return Result.success(leaveApplicationService.submitBulkLeaveApplications(getRequiredCurrentUserId(), request));
+    }
+
     /**
      * 获取申请详情。
      *
@@ -106,6 +122,20 @@ public class LeaveController extends BaseController {
         return Result.success();
     }
 
+    /**
+     * 批量审批请假申请。
+     *
+     * @param request 批量审批参数
+     * @return 逐条审批结果
+     */
+    @Operation(summary = "批量审批请假申请")
+    @PostMapping("/applications/batch-approve")
+    public Result<BatchApprovalResult> batchApproveApplications(@Valid @RequestBody BatchApprovalRequest request) {
+        BatchApprovalResult result = leaveApplicationService.batchApproveLeaveApplications(
+                request.getApplicationIds(), getRequiredCurrentUserId(), request.getApprovalStatus(), request.getApprovalComment());
+        return Result.success(result);
+    }
+
     /**
      * 生成请假条。
      *
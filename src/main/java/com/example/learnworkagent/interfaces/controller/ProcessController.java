@@ -39,8 +39,9 @@ public class ProcessController extends BaseController {
     }
 
     @GetMapping("/completed")
-    public Result<List<ProcessItem>> getCompletedProcesses(@AuthenticationPrincipal User user) {
-        List<ProcessItem> completedProcesses = processService.getCompletedProcesses(user);
+    public Result<List<ProcessItem>> getCompletedProcesses(@AuthenticationPrincipal User user,
+                                                           @RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<ProcessItem> completedProcesses = processService.getCompletedProcesses(user, includeArchived);
         return Result.success(completedProcesses);
     }
 
@@ -0,0 +1,202 @@
+package com.example.learnworkagent;
+
+import com.example.learnworkagent.common.dto.PageRequest;
+import com.example.learnworkagent.common.enums.AwardApplicationTypeEnum;
+import com.example.learnworkagent.common.enums.LeaveTypeEnum;
+import com.example.learnworkagent.common.enums.NotificationBusinessTypeEnum;
+import com.example.learnworkagent.common.enums.RoleEnum;
+import com.example.learnworkagent.domain.approval.entity.ApprovalInstance;
+import com.example.learnworkagent.domain.approval.entity.ApprovalProcess;
+import com.example.learnworkagent.domain.approval.entity.ApprovalStep;
+import com.example.learnworkagent.domain.approval.entity.ApprovalTask;
+import com.example.learnworkagent.domain.approval.service.ApprovalService;
+import com.example.learnworkagent.domain.award.entity.AwardApplication;
+import com.example.learnworkagent.domain.award.service.AwardApplicationService;
+import com.example.learnworkagent.domain.leave.entity.LeaveApplication;
+import com.example.learnworkagent.domain.leave.service.LeaveApplicationService;
+import com.example.learnworkagent.domain.process.entity.ProcessItemEntry;
+import com.example.learnworkagent.domain.process.projection.ProcessItemProjector;
+import com.example.learnworkagent.domain.process.service.ProcessService;
+import com.example.learnworkagent.domain.user.entity.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 审批相关查询接口的 SQL 语句数断言。
+ * 每个用例在测试事务内为一名新辅导员写入请假、奖助各若干条进行中的审批任务和流程列表条目（多于一页，分页计数语句必然执行），
+ * 在清空持久化上下文后执行接口逻辑并序列化结果（模拟视图层访问懒加载关联），
+ * 语句数必须等于与任务数无关的常量，出现 N+1 时断言失败。测试结束后事务回滚。
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class ApprovalQueryStatementCountTest {
+
+    /**
+     * 每种业务的申请数，多于默认每页条数
+     */
+    private static final int APPLICATIONS_PER_TYPE = 12;
+
+    @Resource
+    private ApprovalService approvalService;
+
+    @Resource
+    private ProcessService processService;
+
+    @Resource
+    private LeaveApplicationService leaveApplicationService;
+
+    @Resource
+    private AwardApplicationService awardApplicationService;
+
+    @Resource
+    private EntityManager entityManager;
+
+    @Resource
+    private EntityManagerFactory entityManagerFactory;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private User approver;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        approver = persistUser(RoleEnum.COUNSELOR.getCode());
+        User student = persistUser(RoleEnum.STUDENT.getCode());
+
+        ApprovalProcess process = new ApprovalProcess();
+        process.setProcessName("语句数测试流程");
+        process.setProcessType(NotificationBusinessTypeEnum.LEAVE.getCode());
+        process.setEnabled(false);
+        entityManager.persist(process);
+
+        ApprovalStep step = new ApprovalStep();
+        step.setProcess(process);
+        step.setStepName("辅导员审批");
+        step.setStepOrder(1);
+        step.setOrderIndex(1);
+        step.setApproverRole(RoleEnum.COUNSELOR.getCode());
+        entityManager.persist(step);
+
+        for (int i = 0; i < APPLICATIONS_PER_TYPE; i++) {
+            LeaveApplication leave = new LeaveApplication();
+            leave.setApplicantId(student.getId());
+            leave.setLeaveType(LeaveTypeEnum.SICK.getCode());
+            leave.setStartDate(LocalDate.now());
+            leave.setEndDate(LocalDate.now().plusDays(1));
+            leave.setDays(2);
+            entityManager.persist(leave);
+            seedApproval(process, step, student, NotificationBusinessTypeEnum.LEAVE.getCode(), leave.getId(),
+                    ProcessItemProjector.STATUS_PENDING);
+
+            AwardApplication award = new AwardApplication();
+            award.setApplicantId(student.getId());
+            award.setApplicationType(AwardApplicationTypeEnum.SCHOLARSHIP.getCode());
+            award.setAwardName("语句数测试奖学金");
+            award.setAmount(BigDecimal.valueOf(1000));
+            entityManager.persist(award);
+            seedApproval(process, step, student, NotificationBusinessTypeEnum.AWARD.getCode(), award.getId(),
+                    ProcessItemProjector.STATUS_COMPLETED);
+        }
+    }
+
+    @Test
+    public void pendingTasks() {
+        // 任务连接抓取实例和步骤 1 条，序列化时流程代理按批次初始化 1 条
+        assertStatements(2, () -> approvalService.getPendingTasks(approver.getId()));
+    }
+
+    @Test
+    public void staffProcessList() {
+        assertStatements(1, () -> processService.getProcessList(approver));
+    }
+
+    @Test
+    public void staffCompletedProcesses() {
+        assertStatements(1, () -> processService.getCompletedProcesses(approver, false));
+    }
+
+    @Test
+    public void pendingLeaveApplications() {
+        // 待办任务 1 条，分页查询和计数各 1 条
+        assertStatements(3, () -> leaveApplicationService.getPendingApplications(approver.getId(), new PageRequest()));
+    }
+
+    @Test
+    public void pendingAwardApplications() {
+        assertStatements(3, () -> awardApplicationService.getPendingApplications(approver.getId(), new PageRequest()));
+    }
+
+    private User persistUser(String role) {
+        User user = new User();
+        user.setUsername("stmt-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setPassword("test");
+        user.setRealName(user.getUsername());
+        user.setRole(role);
+        user.setDepartmentId(1L);
+        user.setGrade("2024");
+        entityManager.persist(user);
+        return user;
+    }
+
+    /**
+     * 一条进行中的审批实例和任务，以及审批人流程列表中的一条条目（请假为待处理、奖助为已完成，两个标签页都有数据）
+     */
+    private void seedApproval(ApprovalProcess process, ApprovalStep step, User student,
+                              String businessType, Long businessId, String processStatus) {
+        ApprovalInstance instance = new ApprovalInstance();
+        instance.setBusinessType(businessType);
+        instance.setBusinessId(businessId);
+        instance.setApplicantId(student.getId());
+        instance.setProcess(process);
+        instance.markPending(step.getStepOrder());
+        entityManager.persist(instance);
+
+        ApprovalTask task = new ApprovalTask();
+        task.setInstance(instance);
+        task.setStep(step);
+        task.setApproverId(approver.getId());
+        task.setTaskOrder(1);
+        task.markProcessing();
+        entityManager.persist(task);
+
+        ProcessItemEntry entry = new ProcessItemEntry();
+        entry.setUserId(approver.getId());
+        entry.setBusinessType(businessType);
+        entry.setBusinessId(businessId);
+        entry.setName("语句数测试");
+        entry.setType(businessType.toLowerCase());
+        entry.setStatus(processStatus);
+        entityManager.persist(entry);
+    }
+
+    private void assertStatements(long expected, Supplier<?> action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        try {
+            objectMapper.writeValueAsString(action.get());
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL 语句数与预期不符");
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.learnworkagent.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 哈希时间轮的清空和到期时机。
+ */
+public class HashedTimingWheelTest {
+
+    private static final long TICK_MILLIS = 20;
+    private static final int WHEEL_SIZE = 8;
+
+    private HashedTimingWheel<String> wheel;
+
+    @AfterEach
+    public void tearDown() {
+        if (wheel != null) {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    public void clearKeepsTimeoutsScheduledAfterIt() throws InterruptedException {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        wheel = new HashedTimingWheel<>("test-wheel", TICK_MILLIS, WHEEL_SIZE, payload -> {
+            fired.add(payload);
+            latch.countDown();
+        });
+        wheel.start();
+        long deadline = System.currentTimeMillis() + 5 * TICK_MILLIS;
+        wheel.schedule("before", deadline);
+
+        // 与重建流程相同：清空后立即登记，清空在工作线程下一个 tick 才生效
+        wheel.clear();
+        wheel.schedule("after", deadline);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "清空后登记的定时任务未触发");
+        TimeUnit.MILLISECONDS.sleep(5 * TICK_MILLIS);
+        assertEquals(List.of("after"), fired);
+        assertEquals(0, wheel.pendingCount());
+    }
+
+    @Test
+    public void timeoutsFireInTheirTick() throws InterruptedException {
+        Map<String, Long> firedAt = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        wheel = new HashedTimingWheel<>("test-wheel", TICK_MILLIS, WHEEL_SIZE, payload -> {
+            firedAt.put(payload, System.currentTimeMillis());
+            latch.countDown();
+        });
+        wheel.start();
+        long now = System.currentTimeMillis();
+        // 不足一圈、恰好一圈、超过两圈
+        Map<String, Long> deadlines = Map.of(
+                "short", now + 3 * TICK_MILLIS,
+                "round", now + WHEEL_SIZE * TICK_MILLIS,
+                "rounds", now + (2 * WHEEL_SIZE + 3) * TICK_MILLIS);
+        deadlines.forEach((payload, deadline) -> wheel.schedule(payload, deadline));
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "定时任务未全部触发");
+        deadlines.forEach((payload, deadline) -> {
+            long actual = firedAt.get(payload);
+            assertTrue(actual >= deadline, payload + " 提前触发 " + (deadline - actual) + "ms");
+            assertTrue(actual < deadline + 3 * TICK_MILLIS, payload + " 延迟触发 " + (actual - deadline) + "ms");
+        });
+        assertEquals(0, wheel.pendingCount());
+    }
+
+    @Test
+    public void cancelledTimeoutDoesNotFire() throws InterruptedException {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        wheel = new HashedTimingWheel<>("test-wheel", TICK_MILLIS, WHEEL_SIZE, fired::add);
+        wheel.start();
+        HashedTimingWheel.Timeout<String> timeout = wheel.schedule("cancelled", System.currentTimeMillis() + 2 * TICK_MILLIS);
+        timeout.cancel();
+
+        TimeUnit.MILLISECONDS.sleep(6 * TICK_MILLIS);
+        assertTrue(fired.isEmpty());
+        assertEquals(0, wheel.pendingCount());
+    }
+}
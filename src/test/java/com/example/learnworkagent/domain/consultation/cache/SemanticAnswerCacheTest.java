@@ -0,0 +1,38 @@
+package com.example.learnworkagent.domain.consultation.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 近似问题判定：只差一个实义字的问题不能共用答案。
+ */
+public class SemanticAnswerCacheTest {
+
+    private static final double THRESHOLD = 0.9;
+
+    @Test
+    public void differentAwardTypesDoNotMatch() {
+        // 二元组 Jaccard 为 9/11，旧阈值 0.8 下会命中
+        assertFalse(SemanticAnswerCache.isNearDuplicate("奖学金申请需要什么材料", "助学金申请需要什么材料", THRESHOLD));
+    }
+
+    @Test
+    public void negationDoesNotMatch() {
+        // 二元组 Jaccard 为 4/5，含义相反
+        assertFalse(SemanticAnswerCache.isNearDuplicate("可以请假吗", "不可以请假吗", THRESHOLD));
+    }
+
+    @Test
+    public void particlesAndPunctuationMatch() {
+        assertTrue(SemanticAnswerCache.isNearDuplicate("奖学金申请需要什么材料？", "奖学金申请需要什么材料呢", THRESHOLD));
+        assertTrue(SemanticAnswerCache.isNearDuplicate("可以请假吗？", "可以请假", THRESHOLD));
+        assertTrue(SemanticAnswerCache.isNearDuplicate("奖学金 怎么申请", "奖学金怎么申请啊！", THRESHOLD));
+    }
+
+    @Test
+    public void reorderedQuestionBelowThresholdDoesNotMatch() {
+        assertFalse(SemanticAnswerCache.isNearDuplicate("怎么申请奖学金", "奖学金怎么申请", THRESHOLD));
+    }
+}